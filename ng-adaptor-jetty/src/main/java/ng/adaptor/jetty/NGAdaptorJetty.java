@@ -2,17 +2,18 @@ package ng.adaptor.jetty;
 
 import java.io.IOException;
 import java.net.BindException;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 
 import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
 import org.eclipse.jetty.ee10.servlet.ServletHandler;
 import org.eclipse.jetty.ee10.servlet.ServletHolder;
 import org.eclipse.jetty.ee10.websocket.jakarta.server.config.JakartaWebSocketServletContainerInitializer;
 import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.server.handler.ContextHandlerCollection;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +25,29 @@ import ng.adaptor.jetty.experimental.websockets.NGWebSocketEndpoint;
 import ng.appserver.NGAdaptor;
 import ng.appserver.NGApplication;
 import ng.appserver.privates.NGDevelopmentInstanceStopper;
+import ng.appserver.properties.NGProperties;
+
+/**
+ * Adaptor that serves the application using Jetty.
+ *
+ * The thread pool and connector can be configured using properties (defaults in parentheses). Properties marked [Jetty default] use Jetty's defaults if not set.
+ *
+ * ng.adaptor.jetty.threadMode : See createThreadPool() (platform)
+ * ng.adaptor.jetty.minThreads : Minimum number of threads in the thread pool (8)
+ * ng.adaptor.jetty.maxThreads : Maximum number of threads in the thread pool (32)
+ * ng.adaptor.jetty.threadIdleTimeoutMillis : Time an idle thread is kept around before being stopped, if we've got more than the minimum (2000)
+ * ng.adaptor.jetty.acceptors : Number of acceptor threads [Jetty default]
+ * ng.adaptor.jetty.selectors : Number of selector threads [Jetty default]
+ * ng.adaptor.jetty.acceptQueueSize : Size of the backlog of connections waiting to be accepted [Jetty default]
+ * ng.adaptor.jetty.idleTimeoutMillis : Time an idle connection is kept open [Jetty default]
+ * ng.adaptor.jetty.requestHeaderSize : Maximum size of a request's headers in bytes [Jetty default]
+ * ng.adaptor.jetty.responseHeaderSize : Maximum size of a response's headers in bytes [Jetty default]
+ * ng.adaptor.jetty.outputBufferSize : Size of the response output buffer in bytes [Jetty default]
+ * ng.adaptor.jetty.multipart.location : Directory to store uploaded files that exceed the file size threshold in (the system's temp directory)
+ * ng.adaptor.jetty.multipart.maxFileSize : Maximum size of an uploaded file in bytes (10 MB)
+ * ng.adaptor.jetty.multipart.maxRequestSize : Maximum size of a multipart request in bytes (10 MB)
+ * ng.adaptor.jetty.multipart.fileSizeThreshold : Size in bytes above which uploaded files get written to disk (64 KB)
+ */
 
 public class NGAdaptorJetty extends NGAdaptor {
 
@@ -40,10 +64,6 @@ public class NGAdaptorJetty extends NGAdaptor {
 
 	@Override
 	public void start( NGApplication application ) {
-		final int minThreads = 8;
-		final int maxThreads = 32;
-		final int idleTimeout = 2000; // Specified in milliseconds
-
 		Integer port = application.properties().propWOPort(); // FIXME: Ugly way to get the port number
 
 		if( port == null ) {
@@ -51,10 +71,8 @@ public class NGAdaptorJetty extends NGAdaptor {
 			port = DEFAULT_PORT_NUMBER;
 		}
 
-		final QueuedThreadPool threadPool = new QueuedThreadPool( maxThreads, minThreads, idleTimeout );
-
-		server = new Server( threadPool );
-		final ServerConnector connector = new ServerConnector( server );
+		server = new Server( createThreadPool( application.properties() ) );
+		final ServerConnector connector = createConnector( server, application.properties() );
 		connector.setPort( port );
 		server.setConnectors( new Connector[] { connector } );
 
@@ -72,14 +90,7 @@ public class NGAdaptorJetty extends NGAdaptor {
 		servletHolder.setServlet( servlet );
 
 		// FIXME: START EXPERIMENTAL MULTIPART HANDLER =======================================================================
-		final Path multipartTmpDir = Paths.get( "/Users/hugi/tmp/mp" );
-		final String location = multipartTmpDir.toString();
-
-		long maxFileSize = 10 * 1024 * 1024; // 10 MB
-		long maxRequestSize = 10 * 1024 * 1024; // 10 MB
-		int fileSizeThreshold = 64 * 1024; // 64 KB
-		MultipartConfigElement multipartConfig = new MultipartConfigElement( location, maxFileSize, maxRequestSize, fileSizeThreshold );
-		servletHolder.getRegistration().setMultipartConfig( multipartConfig );
+		servletHolder.getRegistration().setMultipartConfig( createMultipartConfig( application.properties() ) );
 		// FIXME: END EXPERIMENTAL MULTIPART HANDLER =========================================================================
 
 		servletHandler.addServletWithMapping( servletHolder, "/" );
@@ -108,6 +119,95 @@ public class NGAdaptorJetty extends NGAdaptor {
 		}
 	}
 
+	/**
+	 * @return The thread pool to use for the server
+	 *
+	 * ng.adaptor.jetty.threadMode : "platform" (default) to handle requests on the pool's platform threads, "virtual" to handle each request on a new virtual thread.
+	 *
+	 * In virtual mode, the pool's platform threads are still used by Jetty for it's internal (non-blocking) work, like selecting and accepting connections.
+	 * Blocking in a request (for example when waiting on a database) then doesn't tie up one of the pool's threads, meaning the number of concurrent requests isn't limited by the size of the pool.
+	 */
+	private static QueuedThreadPool createThreadPool( final NGProperties properties ) {
+		final int minThreads = properties.getInteger( "ng.adaptor.jetty.minThreads", 8 );
+		final int maxThreads = properties.getInteger( "ng.adaptor.jetty.maxThreads", 32 );
+		final int idleTimeout = properties.getInteger( "ng.adaptor.jetty.threadIdleTimeoutMillis", 2000 );
+
+		final QueuedThreadPool threadPool = new QueuedThreadPool( maxThreads, minThreads, idleTimeout );
+
+		final String threadMode = properties.get( "ng.adaptor.jetty.threadMode", "platform" );
+
+		switch( threadMode ) {
+			case "platform" -> {}
+			case "virtual" -> {
+				if( !VirtualThreads.areSupported() ) {
+					throw new IllegalStateException( "Virtual threads are not supported by this JVM" );
+				}
+
+				threadPool.setVirtualThreadsExecutor( VirtualThreads.getNamedVirtualThreadsExecutor( "ng-request-" ) );
+				logger.info( "Handling requests on virtual threads" );
+			}
+			default -> throw new IllegalArgumentException( "Unknown thread mode '%s'. Valid values are 'platform' and 'virtual'".formatted( threadMode ) );
+		}
+
+		return threadPool;
+	}
+
+	/**
+	 * @return The server's HTTP connector
+	 */
+	private static ServerConnector createConnector( final Server server, final NGProperties properties ) {
+		final HttpConfiguration httpConfiguration = new HttpConfiguration();
+
+		final Integer requestHeaderSize = properties.getInteger( "ng.adaptor.jetty.requestHeaderSize" );
+
+		if( requestHeaderSize != null ) {
+			httpConfiguration.setRequestHeaderSize( requestHeaderSize );
+		}
+
+		final Integer responseHeaderSize = properties.getInteger( "ng.adaptor.jetty.responseHeaderSize" );
+
+		if( responseHeaderSize != null ) {
+			httpConfiguration.setResponseHeaderSize( responseHeaderSize );
+		}
+
+		final Integer outputBufferSize = properties.getInteger( "ng.adaptor.jetty.outputBufferSize" );
+
+		if( outputBufferSize != null ) {
+			httpConfiguration.setOutputBufferSize( outputBufferSize );
+		}
+
+		// -1 means "let Jetty decide" based on the number of available processors
+		final int acceptors = properties.getInteger( "ng.adaptor.jetty.acceptors", -1 );
+		final int selectors = properties.getInteger( "ng.adaptor.jetty.selectors", -1 );
+
+		final ServerConnector connector = new ServerConnector( server, acceptors, selectors, new HttpConnectionFactory( httpConfiguration ) );
+
+		final Integer acceptQueueSize = properties.getInteger( "ng.adaptor.jetty.acceptQueueSize" );
+
+		if( acceptQueueSize != null ) {
+			connector.setAcceptQueueSize( acceptQueueSize );
+		}
+
+		final Long idleTimeout = properties.getLong( "ng.adaptor.jetty.idleTimeoutMillis", null );
+
+		if( idleTimeout != null ) {
+			connector.setIdleTimeout( idleTimeout );
+		}
+
+		return connector;
+	}
+
+	/**
+	 * @return Configuration for handling multipart requests (file uploads)
+	 */
+	private static MultipartConfigElement createMultipartConfig( final NGProperties properties ) {
+		final String location = properties.get( "ng.adaptor.jetty.multipart.location", System.getProperty( "java.io.tmpdir" ) );
+		final long maxFileSize = properties.getLong( "ng.adaptor.jetty.multipart.maxFileSize", 10L * 1024 * 1024 ); // 10 MB
+		final long maxRequestSize = properties.getLong( "ng.adaptor.jetty.multipart.maxRequestSize", 10L * 1024 * 1024 ); // 10 MB
+		final int fileSizeThreshold = properties.getInteger( "ng.adaptor.jetty.multipart.fileSizeThreshold", 64 * 1024 ); // 64 KB
+		return new MultipartConfigElement( location, maxFileSize, maxRequestSize, fileSizeThreshold );
+	}
+
 	public void stop() throws Exception {
 		server.stop();
 	}
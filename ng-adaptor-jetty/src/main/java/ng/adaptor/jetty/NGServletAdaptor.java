@@ -5,6 +5,10 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Enumeration;
@@ -14,6 +18,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 
+import org.eclipse.jetty.ee10.servlet.HttpOutput;
+
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServlet;
@@ -24,6 +30,7 @@ import ng.appserver.NGApplication;
 import ng.appserver.NGCookie;
 import ng.appserver.NGRequest;
 import ng.appserver.NGResponse;
+import ng.appserver.NGResponse.FileRegion;
 
 public class NGServletAdaptor extends HttpServlet {
 
@@ -52,22 +59,28 @@ public class NGServletAdaptor extends HttpServlet {
 
 		servletResponse.setStatus( ngResponse.status() );
 
-		// FIXME: Thoughts on content-length:
-		// - Should we always be setting the content length to zero?
-		// - Should we complain if a content stream has been set, but contentInputStreamLength not?
-		// Hugi 2023-01-26
-		final long contentLength;
+		// A content writer means we're streaming content of unknown length. Without a content-length header, Jetty will use chunked transfer encoding
+		if( ngResponse.contentWriter() == null ) {
+			// FIXME: Thoughts on content-length:
+			// - Should we always be setting the content length to zero?
+			// - Should we complain if a content stream has been set, but contentInputStreamLength not?
+			// Hugi 2023-01-26
+			final long contentLength;
 
-		if( ngResponse.contentInputStream() != null ) {
-			// If an inputstream is present, use the stream's manually specified length value
-			contentLength = ngResponse.contentInputStreamLength();
-		}
-		else {
-			// Otherwise we go for the length of the response's contained data/bytes.
-			contentLength = ngResponse.contentBytesLength();
-		}
+			if( ngResponse.contentFileRegion() != null ) {
+				contentLength = ngResponse.contentFileRegion().length();
+			}
+			else if( ngResponse.contentInputStream() != null ) {
+				// If an inputstream is present, use the stream's manually specified length value
+				contentLength = ngResponse.contentInputStreamLength();
+			}
+			else {
+				// Otherwise we go for the length of the response's contained data/bytes.
+				contentLength = ngResponse.contentBytesLength();
+			}
 
-		servletResponse.setHeader( "content-length", String.valueOf( contentLength ) );
+			servletResponse.setHeader( "content-length", String.valueOf( contentLength ) );
+		}
 
 		for( final NGCookie ngCookie : ngResponse.cookies() ) {
 			servletResponse.addCookie( ngCookieToServletCookie( ngCookie ) );
@@ -80,7 +93,14 @@ public class NGServletAdaptor extends HttpServlet {
 		}
 
 		try( final OutputStream out = servletResponse.getOutputStream()) {
-			if( ngResponse.contentInputStream() != null ) {
+			if( ngResponse.contentWriter() != null ) {
+				// The servlet output stream is buffered (with a size set by the connector's outputBufferSize) and sends a chunk each time the buffer fills up
+				ngResponse.contentWriter().writeTo( out );
+			}
+			else if( ngResponse.contentFileRegion() != null ) {
+				writeFileRegion( ngResponse.contentFileRegion(), out );
+			}
+			else if( ngResponse.contentInputStream() != null ) {
 				try( final InputStream inputStream = ngResponse.contentInputStream()) {
 					inputStream.transferTo( out );
 				}
@@ -91,6 +111,22 @@ public class NGServletAdaptor extends HttpServlet {
 		}
 	}
 
+	/**
+	 * Writes the given file region to the response.
+	 *
+	 * Jetty's own output can send a memory mapped buffer straight to the socket, so the file's data never gets copied into the heap. Other streams get the data copied over.
+	 */
+	private static void writeFileRegion( final FileRegion region, final OutputStream out ) throws IOException {
+		try( final FileChannel channel = FileChannel.open( region.path(), StandardOpenOption.READ )) {
+			if( out instanceof HttpOutput httpOutput ) {
+				httpOutput.sendContent( channel.map( MapMode.READ_ONLY, region.position(), region.length() ) );
+			}
+			else {
+				channel.transferTo( region.position(), region.length(), Channels.newChannel( out ) );
+			}
+		}
+	}
+
 	private static Cookie ngCookieToServletCookie( final NGCookie ngCookie ) {
 		final Cookie servletCookie = new Cookie( ngCookie.name(), ngCookie.value() );
 
@@ -0,0 +1,105 @@
+package ng.appserver;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares throughput and latency of the Jetty adaptor's "platform" and "virtual" thread modes under a blocking workload.
+ *
+ * Each request to the test application blocks for a while (emulating a slow database call) before responding. We fire a fixed number of requests
+ * from a number of concurrent clients at an application running in each mode, and report throughput along with median and p99 latency.
+ *
+ * Not a unit test, run it's main method manually. Optional arguments: [concurrent clients] [requests] [blocking time in ms] (defaults: 200 2000 50)
+ */
+
+public class NGAdaptorJettyLoadTest {
+
+	public static void main( String[] args ) throws Exception {
+		final int clientCount = args.length > 0 ? Integer.parseInt( args[0] ) : 200;
+		final int requestCount = args.length > 1 ? Integer.parseInt( args[1] ) : 2000;
+		final int blockingMillis = args.length > 2 ? Integer.parseInt( args[2] ) : 50;
+
+		run( "platform", 1210, clientCount, requestCount, blockingMillis );
+		run( "virtual", 1211, clientCount, requestCount, blockingMillis );
+
+		System.exit( 0 );
+	}
+
+	private static void run( final String threadMode, final int port, final int clientCount, final int requestCount, final int blockingMillis ) throws Exception {
+		final String[] args = { "-WOPort", String.valueOf( port ), "-ng.adaptor.jetty.threadMode", threadMode, "-blockingMillis", String.valueOf( blockingMillis ) };
+		NGApplication.runAndReturn( args, BlockingApplication.class );
+
+		final URI uri = URI.create( "http://localhost:%s/blocking".formatted( port ) );
+		final long[] latencies = new long[requestCount];
+
+		try( final HttpClient client = HttpClient.newBuilder().executor( Executors.newVirtualThreadPerTaskExecutor() ).build();
+				final ExecutorService clients = Executors.newFixedThreadPool( clientCount )) {
+
+			// Warm up
+			for( int i = 0; i < 100; i++ ) {
+				client.send( HttpRequest.newBuilder( uri ).build(), HttpResponse.BodyHandlers.discarding() );
+			}
+
+			final long startTime = System.nanoTime();
+
+			final List<Future<?>> futures = new ArrayList<>();
+
+			for( int i = 0; i < requestCount; i++ ) {
+				final int requestIndex = i;
+
+				futures.add( clients.submit( () -> {
+					final long requestStartTime = System.nanoTime();
+					final HttpResponse<Void> response = client.send( HttpRequest.newBuilder( uri ).timeout( Duration.ofMinutes( 1 ) ).build(), HttpResponse.BodyHandlers.discarding() );
+
+					if( response.statusCode() != 200 ) {
+						throw new IllegalStateException( "Unexpected status " + response.statusCode() );
+					}
+
+					latencies[requestIndex] = System.nanoTime() - requestStartTime;
+					return null;
+				} ) );
+			}
+
+			for( final Future<?> future : futures ) {
+				future.get();
+			}
+
+			final long elapsedNanos = System.nanoTime() - startTime;
+
+			Arrays.sort( latencies );
+
+			System.out.println( "===== %s threads: %d requests from %d clients, blocking %d ms per request".formatted( threadMode, requestCount, clientCount, blockingMillis ) );
+			System.out.println( "Throughput: %.1f requests/s".formatted( requestCount / (elapsedNanos / 1_000_000_000d) ) );
+			System.out.println( "Latency p50: %d ms".formatted( latencies[requestCount / 2] / 1_000_000 ) );
+			System.out.println( "Latency p99: %d ms".formatted( latencies[(int)(requestCount * 0.99)] / 1_000_000 ) );
+		}
+	}
+
+	/**
+	 * An application whose only route blocks for a while before responding
+	 */
+	public static class BlockingApplication extends NGApplication {
+
+		public BlockingApplication() {
+			routeTable().map( "/blocking", ( request ) -> {
+				try {
+					Thread.sleep( Long.parseLong( properties().get( "blockingMillis" ) ) );
+				}
+				catch( InterruptedException e ) {
+					throw new RuntimeException( e );
+				}
+
+				return new NGResponse( "Done", 200 );
+			} );
+		}
+	}
+}
\ No newline at end of file
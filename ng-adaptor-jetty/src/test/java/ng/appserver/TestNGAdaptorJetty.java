@@ -1,23 +1,55 @@
 package ng.appserver;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
 
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import ng.appserver.resources.NGResource;
+import ng.appserver.resources.NGResourceLoader.FileSystemDirectoryResourceSource;
+import ng.appserver.resources.StandardResourceType;
+
 public class TestNGAdaptorJetty {
 
+	private static SmuApplication application;
+
+	/**
+	 * A file served by the application's /file route
+	 */
+	private static Path servedFile;
+
+	/**
+	 * Content served by the application's /html route
+	 */
+	private static final String HTML = "<p>Hello world</p>\n".repeat( 1000 );
+
+	@BeforeAll
+	public static void startApplication() throws IOException {
+		servedFile = Files.createTempFile( "ng-adaptor-jetty-test", ".txt" );
+		servedFile.toFile().deleteOnExit();
+		Files.writeString( servedFile, "0123456789".repeat( 10_000 ) );
+
+		application = NGApplication.runAndReturn( new String[0], SmuApplication.class );
+	}
+
 	@Test
 	public void testRequestHandling() throws IOException, InterruptedException {
-		SmuApplication application = NGApplication.runAndReturn( new String[0], SmuApplication.class );
-
 		final HttpClient client = HttpClient
 				.newBuilder()
 				.build();
@@ -50,6 +82,136 @@ public class TestNGAdaptorJetty {
 		assertEquals( expectedFormValues, lsr.formValues() );
 	}
 
+	@Test
+	public void testStreamingResponse() throws IOException, InterruptedException {
+		final HttpClient client = HttpClient
+				.newBuilder()
+				.build();
+
+		final HttpRequest request = HttpRequest
+				.newBuilder()
+				.uri( URI.create( "http://localhost:1200/streaming" ) )
+				.build();
+
+		final HttpResponse<String> response = client.send( request, HttpResponse.BodyHandlers.ofString() );
+
+		assertEquals( 200, response.statusCode() );
+		assertEquals( "line\n".repeat( 100_000 ), response.body() );
+		assertTrue( response.headers().firstValue( "content-length" ).isEmpty() );
+		assertEquals( "chunked", response.headers().firstValue( "transfer-encoding" ).orElse( null ) );
+	}
+
+	@Test
+	public void testFileResponse() throws IOException, InterruptedException {
+		final HttpClient client = HttpClient
+				.newBuilder()
+				.build();
+
+		final URI uri = URI.create( "http://localhost:1200/file" );
+
+		final HttpResponse<String> response = client.send( HttpRequest.newBuilder().uri( uri ).build(), HttpResponse.BodyHandlers.ofString() );
+		assertEquals( 200, response.statusCode() );
+		assertEquals( "0123456789".repeat( 10_000 ), response.body() );
+		assertEquals( "100000", response.headers().firstValue( "content-length" ).orElse( null ) );
+
+		final String eTag = response.headers().firstValue( "etag" ).orElseThrow();
+
+		final HttpResponse<String> rangeResponse = client.send( HttpRequest.newBuilder().uri( uri ).header( "Range", "bytes=99995-" ).build(), HttpResponse.BodyHandlers.ofString() );
+		assertEquals( 206, rangeResponse.statusCode() );
+		assertEquals( "56789", rangeResponse.body() );
+		assertEquals( "bytes 99995-99999/100000", rangeResponse.headers().firstValue( "content-range" ).orElse( null ) );
+
+		final HttpResponse<String> conditionalResponse = client.send( HttpRequest.newBuilder().uri( uri ).header( "If-None-Match", eTag ).build(), HttpResponse.BodyHandlers.ofString() );
+		assertEquals( 304, conditionalResponse.statusCode() );
+		assertEquals( "", conditionalResponse.body() );
+	}
+
+	@Test
+	public void testCompressedResponse() throws IOException, InterruptedException {
+		final HttpClient client = HttpClient
+				.newBuilder()
+				.build();
+
+		final HttpRequest request = HttpRequest
+				.newBuilder()
+				.uri( URI.create( "http://localhost:1200/html" ) )
+				.header( "Accept-Encoding", "gzip" )
+				.build();
+
+		final HttpResponse<byte[]> response = client.send( request, HttpResponse.BodyHandlers.ofByteArray() );
+
+		assertEquals( 200, response.statusCode() );
+		assertEquals( "gzip", response.headers().firstValue( "content-encoding" ).orElse( null ) );
+		assertEquals( String.valueOf( response.body().length ), response.headers().firstValue( "content-length" ).orElse( null ) );
+		assertEquals( HTML, new String( new GZIPInputStream( new ByteArrayInputStream( response.body() ) ).readAllBytes(), StandardCharsets.UTF_8 ) );
+	}
+
+	@Test
+	public void testFingerprintedResource() throws IOException, InterruptedException {
+		application.resourceManager().resourceLoader().addResourceSource( "fingerprinting-test", StandardResourceType.WebServer, new FileSystemDirectoryResourceSource( servedFile.getParent() ) );
+		application.resourceManager().setFingerprintingEnabled( true );
+
+		try {
+			final String resourceName = servedFile.getFileName().toString();
+			final String url = NGResourceRequestHandler.urlForWebserverResourceNamed( "fingerprinting-test", resourceName ).get();
+			assertTrue( url.matches( "/wr/fingerprinting-test/ng-adaptor-jetty-test.*\\.[0-9a-f]{8}\\.txt" ), url );
+
+			final HttpClient client = HttpClient
+					.newBuilder()
+					.build();
+
+			final HttpResponse<String> response = client.send( HttpRequest.newBuilder().uri( URI.create( "http://localhost:1200" + url ) ).build(), HttpResponse.BodyHandlers.ofString() );
+			assertEquals( 200, response.statusCode() );
+			assertEquals( "0123456789".repeat( 10_000 ), response.body() );
+			assertEquals( "public, max-age=31536000, immutable", response.headers().firstValue( "cache-control" ).orElse( null ) );
+
+			// The plain URL still works, but the response must be revalidated
+			final HttpResponse<String> plainResponse = client.send( HttpRequest.newBuilder().uri( URI.create( "http://localhost:1200/wr/fingerprinting-test/" + resourceName ) ).build(), HttpResponse.BodyHandlers.ofString() );
+			assertEquals( 200, plainResponse.statusCode() );
+			assertEquals( "no-cache", plainResponse.headers().firstValue( "cache-control" ).orElse( null ) );
+		}
+		finally {
+			application.resourceManager().setFingerprintingEnabled( false );
+		}
+	}
+
+	@Test
+	public void testFingerprintFollowsFileChanges() throws IOException {
+		final Path directory = Files.createTempDirectory( "ng-adaptor-jetty-test-fingerprints" );
+		final Path file = Files.writeString( directory.resolve( "changing.txt" ), "Before" );
+		application.resourceManager().resourceLoader().addResourceSource( "fingerprint-change-test", StandardResourceType.WebServer, new FileSystemDirectoryResourceSource( directory ) );
+
+		final String fingerprint = application.resourceManager().fingerprintForWebserverResource( "fingerprint-change-test", "changing.txt" ).get();
+		assertEquals( fingerprint, application.resourceManager().fingerprintForWebserverResource( "fingerprint-change-test", "changing.txt" ).get() );
+
+		// We're in development mode, so a changed file gets a new fingerprint
+		Files.writeString( file, "After the change" );
+		assertNotEquals( fingerprint, application.resourceManager().fingerprintForWebserverResource( "fingerprint-change-test", "changing.txt" ).get() );
+	}
+
+	@Test
+	public void testWarmUpParsesTemplates() throws IOException {
+		final Path componentDirectory = Files.createTempDirectory( "ng-adaptor-jetty-test-components" );
+		Files.createDirectories( componentDirectory.resolve( "WarmUpTestComponent.wo" ) );
+		Files.writeString( componentDirectory.resolve( "WarmUpTestComponent.wo/WarmUpTestComponent.html" ), "<p>Warm</p>" );
+
+		application.resourceManager().resourceLoader().addResourceSource( "warm-up-test", StandardResourceType.ComponentTemplate, new FileSystemDirectoryResourceSource( componentDirectory ) );
+
+		// Most components have a class, and looking up their definition doesn't load the template
+		NGElementUtils.addClass( WarmUpTestComponent.class );
+
+		assertFalse( NGComponentDefinition.isTemplateCached( "WarmUpTestComponent" ) );
+		NGComponentWarmUp.warmUp( application.resourceManager().resourceLoader(), 2 );
+		assertTrue( NGComponentDefinition.isTemplateCached( "WarmUpTestComponent" ) );
+	}
+
+	public static class WarmUpTestComponent extends NGComponent {
+
+		public WarmUpTestComponent( final NGContext context ) {
+			super( context );
+		}
+	}
+
 	/**
 	 * Application implementation to test the features of the Jetty Adaptor
 	 */
@@ -70,6 +232,26 @@ public class TestNGAdaptorJetty {
 				response.addCookie( new NGCookie( "someCookieName", "someCookieValue" ) );
 				return response;
 			} );
+
+			routeTable().map( "/streaming", ( request ) -> {
+				final NGResponse response = new NGResponse();
+				response.setContentWriter( out -> {
+					for( int i = 0; i < 100_000; i++ ) {
+						out.write( "line\n".getBytes() );
+					}
+				} );
+				return response;
+			} );
+
+			routeTable().map( "/html", ( request ) -> {
+				final NGResponse response = new NGResponse( HTML, 200 );
+				response.setHeader( "Content-Type", "text/html; charset=utf-8" );
+				return response;
+			} );
+
+			routeTable().map( "/file", ( request ) -> {
+				return NGResourceRequestHandler.responseForResource( request, NGResource.of( servedFile ), "file.txt" );
+			} );
 		}
 	}
 }
\ No newline at end of file
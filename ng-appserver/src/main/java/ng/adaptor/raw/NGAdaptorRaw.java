@@ -9,7 +9,10 @@ import java.io.OutputStream;
 import java.net.BindException;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
@@ -26,6 +29,7 @@ import ng.appserver.NGAdaptor;
 import ng.appserver.NGApplication;
 import ng.appserver.NGRequest;
 import ng.appserver.NGResponse;
+import ng.appserver.NGResponse.FileRegion;
 import ng.appserver.privates.NGDevelopmentInstanceStopper;
 
 /**
@@ -116,7 +120,22 @@ public class NGAdaptorRaw extends NGAdaptor {
 			}
 
 			write( stream, CRLF );
-			stream.write( response.contentBytes() );
+
+			// With a content writer we don't know the content's length, but since we close the connection once we're done, we don't need to
+			if( response.contentWriter() != null ) {
+				response.contentWriter().writeTo( stream );
+			}
+			else if( response.contentFileRegion() != null ) {
+				final FileRegion region = response.contentFileRegion();
+
+				try( final FileChannel channel = FileChannel.open( region.path(), StandardOpenOption.READ )) {
+					channel.transferTo( region.position(), region.length(), Channels.newChannel( stream ) );
+				}
+			}
+			else {
+				stream.write( response.contentBytes() );
+			}
+
 			stream.flush();
 		}
 		catch( final IOException e ) {
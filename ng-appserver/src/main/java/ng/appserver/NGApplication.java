@@ -6,6 +6,7 @@ import java.io.FileOutputStream;
 import java.io.PrintStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -21,11 +22,13 @@ import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ng.appserver.NGServerSessionStore.PageCacheBudget;
 import ng.appserver.directactions.NGDirectActionRequestHandler;
 import ng.appserver.properties.NGProperties;
 import ng.appserver.properties.NGProperties.PropertiesSourceArguments;
 import ng.appserver.properties.NGProperties.PropertiesSourceResource;
 import ng.appserver.resources.NGResource;
+import ng.appserver.resources.NGResourceDataCache;
 import ng.appserver.resources.NGResourceLoader;
 import ng.appserver.resources.NGResourceLoader.JavaClasspathResourceSource;
 import ng.appserver.resources.NGResourceManager;
@@ -81,6 +84,11 @@ public class NGApplication {
 	 */
 	private NGResourceManagerDynamic _resourceManagerDynamic;
 
+	/**
+	 * Compresses responses before they're handed to the adaptor. null if responses shouldn't be compressed.
+	 */
+	private NGResponseCompressor _responseCompressor;
+
 	/**
 	 * A list of patterns that will be applied to URLs before they are processed by the framework
 	 */
@@ -132,6 +140,10 @@ public class NGApplication {
 
 			addDefaultResourceSources( application.resourceManager() );
 
+			// Sources watching directories for changes should stop doing so when we go down
+			final NGResourceLoader resourceLoader = application.resourceManager().resourceLoader();
+			Runtime.getRuntime().addShutdownHook( new Thread( resourceLoader::close, "ResourceLoaderShutdown" ) );
+
 			// FIXME: Assigning that unwanted global application...
 			_application = application;
 
@@ -143,6 +155,21 @@ public class NGApplication {
 
 			logger.info( "===== Properties after loading application properties =====\n" + properties._propertiesMapAsString() );
 
+			application.resourceManager().setDataCache( NGResourceDataCache.fromProperties( properties ) );
+			application.resourceManager().setFingerprintingEnabled( properties.getBoolean( "ng.resources.fingerprinting", false ) );
+
+			application.setResponseCompressor( NGResponseCompressor.fromProperties( properties ) );
+
+			if( properties.get( "ng.sessionStore.directory" ) != null ) {
+				application.useFileSessionStore( properties );
+			}
+
+			application.sessionStore().setCheckoutTimeout( Duration.ofMillis( properties.getLong( "ng.sessionStore.checkoutTimeoutMillis", application.sessionStore().checkoutTimeout().toMillis() ) ) );
+
+			if( application.sessionStore() instanceof NGServerSessionStore serverSessionStore ) {
+				serverSessionStore.setPageCacheBudget( PageCacheBudget.fromProperties( properties ) );
+			}
+
 			// What we're doing here is allowing for the WO URL structure, which is required for us to work with the WO Apache Adaptor.
 			// Ideally, we don't want to prefix URLs at all, instead just handling requests at root level.
 			application._urlRewritePatterns.add( Pattern.compile( "^/(cgi-bin|Apps)/WebObjects/" + properties.propWOApplicationName() + ".woa(/[0-9])?" ) );
@@ -154,6 +181,15 @@ public class NGApplication {
 			// The application class' package gets added by default // FIXME: Don't like this Hugi 2022-10-10
 			NGElementUtils.addPackage( applicationClass.getPackageName() );
 
+			if( application.cachingEnabled() ) {
+				NGComponentDefinition.loadPrecompiledTemplates();
+			}
+
+			// Warm up before starting the adaptor (and the lifebeat), so we don't get sent requests until we're ready to handle them quickly
+			if( properties.getBoolean( "ng.warmUp.enabled", false ) ) {
+				NGComponentWarmUp.warmUp( application.resourceManager().resourceLoader(), properties.getInteger( "ng.warmUp.parallelism", Runtime.getRuntime().availableProcessors() ) );
+			}
+
 			// FIXME: Eventually the adaptor startup should probably be done by the user
 			application.createAdaptor().start( application );
 
@@ -355,6 +391,37 @@ public class NGApplication {
 		return _sessionStore;
 	}
 
+	/**
+	 * @return The compressor applied to responses, null if responses aren't compressed
+	 */
+	public NGResponseCompressor responseCompressor() {
+		return _responseCompressor;
+	}
+
+	/**
+	 * Sets the compressor applied to responses. Pass in null to disable response compression.
+	 */
+	public void setResponseCompressor( final NGResponseCompressor responseCompressor ) {
+		_responseCompressor = responseCompressor;
+	}
+
+	/**
+	 * Replaces the default in-memory session store with one that persists sessions to disk, allowing them to survive a restart. Must be invoked before the application starts handling requests.
+	 */
+	private void useFileSessionStore( final NGProperties properties ) {
+		if( _sessionStore instanceof NGServerSessionStore serverSessionStore ) {
+			serverSessionStore.close();
+		}
+
+		final NGFileSessionStore fileSessionStore = NGFileSessionStore.fromProperties( properties );
+		_sessionStore = fileSessionStore;
+
+		// Make sure pending session changes get written when we go down
+		Runtime.getRuntime().addShutdownHook( new Thread( fileSessionStore::close, "SessionWriterShutdown" ) );
+
+		logger.info( "Using file session store in '{}'", properties.get( "ng.sessionStore.directory" ) );
+	}
+
 	public NGResponse dispatchRequest( final NGRequest request ) {
 
 		try {
@@ -376,6 +443,10 @@ public class NGApplication {
 			addSessionCookieToResponse( request, response );
 			touchSessionIfPresentAndNotTerminating( request );
 
+			if( _responseCompressor != null ) {
+				_responseCompressor.compress( request, response );
+			}
+
 			return response;
 		}
 		catch( final NGSessionRestorationException e ) {
@@ -388,10 +459,23 @@ public class NGApplication {
 			handleException( throwable );
 			return responseForException( throwable, request.context() ).generateResponse();
 		}
+		finally {
+			checkinSessionIfPresent( request );
+		}
+	}
+
+	/**
+	 * Notifies session storage that we're done with the request's session, if the request checked it out
+	 */
+	private void checkinSessionIfPresent( final NGRequest request ) {
+		if( request._sessionCheckedOut() ) {
+			sessionStore().checkinSession( request._sessionIfLoaded() );
+		}
 	}
 
 	/**
-	 * Add the sessionID cookie (if present in request) to the given response or, if the session is marked for termination, delete the session cookie
+	 * Add the sessionID cookie (if present in request) to the given response or, if the session is marked for termination, delete the session cookie.
+	 * Only done if the request actually used it's session, so requests that never touch the session (like resource requests) don't end up checking it out.
 	 *
 	 * FIXME: This might be a prime location to perform a session cookie deletion if (a) no sessionID is present or (b) no session is available for the given sessionID // Hugi 2024-07-10
 	 */
@@ -399,7 +483,7 @@ public class NGApplication {
 		final String sessionID = request._sessionID();
 
 		if( sessionID != null ) {
-			final NGSession session = request.existingSession();
+			final NGSession session = request._sessionIfLoaded();
 
 			if( session != null ) {
 				if( session.shouldTerminate() ) {
@@ -418,7 +502,7 @@ public class NGApplication {
 	 * "touch" the requests's session, i.e. indicate we're still working with it, granting it life for an additional [sessionTimeout] seconds
 	 */
 	private void touchSessionIfPresentAndNotTerminating( final NGRequest request ) {
-		final NGSession session = request.existingSession();
+		final NGSession session = request._sessionIfLoaded();
 
 		if( session != null && !session.shouldTerminate() ) {
 			session.touch();
@@ -449,7 +533,7 @@ public class NGApplication {
 			return errorResponse;
 		}
 
-		return NGResourceRequestHandler.responseForResource( resource.get(), resourcePath );
+		return NGResourceRequestHandler.responseForResource( request, resource.get(), resourcePath );
 	}
 
 	/**
@@ -1,5 +1,6 @@
 package ng.appserver;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -91,6 +92,13 @@ public class NGComponent implements NGElement, NGActionResults {
 		_children.put( elementID, child );
 	}
 
+	/**
+	 * @return An unmodifiable view of this component's children, keyed by elementID
+	 */
+	public Map<String, NGComponent> children() {
+		return Collections.unmodifiableMap( _children );
+	}
+
 	/**
 	 * @return The child with the given elementID. Null if none
 	 */
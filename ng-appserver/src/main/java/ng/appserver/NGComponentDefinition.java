@@ -1,20 +1,40 @@
 package ng.appserver;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import ng.appserver.NGApplication.NGElementNotFoundException;
 import ng.appserver.resources.NGResource;
+import ng.appserver.resources.StandardResourceType;
+import ng.appserver.templating.NGTemplateArchive;
+import ng.appserver.templating.NGTemplateCache;
 import ng.appserver.templating.NGTemplateParserProxy;
 import ng.appserver.templating.parser.NGDeclarationFormatException;
 import ng.appserver.templating.parser.NGHTMLFormatException;
+import ng.appserver.templating.parser.model.PNode;
 
 /**
  * Stores information about the structure of the component.
@@ -37,7 +57,28 @@ public class NGComponentDefinition {
 	/**
 	 * Stores the parsed template if caching is enabled
 	 */
-	private NGElement _cachedTemplate;
+	private volatile NGElement _cachedTemplate;
+
+	/**
+	 * Parsed templates, keyed by their source. Shared by all component definitions.
+	 */
+	private static final NGTemplateCache _templateCache = new NGTemplateCache();
+
+	/**
+	 * Templates loaded while caching is disabled (i.e. during development), keyed by component name.
+	 * Component definitions themselves don't get cached in that case, so we keep their templates here, until _templateFileWatcher sees a change that might affect the template.
+	 */
+	private static final Map<String, NGElement> _developmentTemplates = new ConcurrentHashMap<>();
+
+	/**
+	 * Invalidates entries in _developmentTemplates when their files change
+	 */
+	private static final TemplateFileWatcher _templateFileWatcher = new TemplateFileWatcher();
+
+	/**
+	 * Templates precompiled at build time, keyed by component name. Only used when caching is enabled, since during development the templates on disk are the truth.
+	 */
+	private static volatile Map<String, PNode> _precompiledTemplates = Map.of();
 
 	/**
 	 * The canonical name of the component definition.
@@ -180,48 +221,164 @@ public class NGComponentDefinition {
 	 */
 	public NGElement template() {
 		if( _cachingEnabled() ) {
-			if( _cachedTemplate == null ) {
-				_cachedTemplate = _loadTemplate();
+			NGElement template = _cachedTemplate;
+
+			if( template == null ) {
+				synchronized( this ) {
+					template = _cachedTemplate;
+
+					if( template == null ) {
+						final PNode precompiledTemplate = _precompiledTemplates.get( name() );
+						template = precompiledTemplate != null ? NGTemplateParserProxy.toElement( precompiledTemplate ) : _loadTemplate();
+						_cachedTemplate = template;
+					}
+				}
 			}
 
-			return _cachedTemplate;
+			return template;
 		}
 
-		return _loadTemplate();
+		return _developmentTemplate();
 	}
 
 	/**
-	 * @return A component template by loading the component's template files and parsing them
+	 * @return true if the template of the named component has been loaded and is being kept around for subsequent renders
 	 */
-	private NGElement _loadTemplate() {
+	static boolean isTemplateCached( final String componentName ) {
+		Objects.requireNonNull( componentName );
+
+		if( _cachingEnabled() ) {
+			final NGComponentDefinition cached = _cachedComponentDefinition( componentName );
+			return cached != null && cached._cachedTemplate != null;
+		}
+
+		return _developmentTemplates.containsKey( componentName );
+	}
+
+	/**
+	 * Loads the precompiled templates from every template archive on the classpath (see NGTemplatePrecompiler). If multiple archives contain the same component, the first one on the classpath wins.
+	 */
+	public static void loadPrecompiledTemplates() {
+		final List<URL> archiveURLs;
+
 		try {
-			// Let's try first for the traditional template
-			Optional<String> htmlTemplateStringOptional = loadHTMLStringFromTemplateFolder( name() );
-			Optional<String> wodStringOptional = loadWODStringFromTemplateFolder( name() );
+			archiveURLs = Collections.list( NGComponentDefinition.class.getClassLoader().getResources( NGTemplateArchive.RESOURCE_PATH ) );
+		}
+		catch( IOException e ) {
+			logger.warn( "Unable to locate template archives. Templates will be parsed on first use", e );
+			return;
+		}
 
-			// If that fails, let's go for the single file html template
-			if( htmlTemplateStringOptional.isEmpty() ) {
-				final Optional<NGResource> htmlTemplate = NGApplication.application().resourceManager().obtainComponentTemplateResourceSearchingAllNamespaces( name() + ".html" );
+		_precompiledTemplates = Map.copyOf( readTemplateArchives( archiveURLs ) );
+	}
 
-				if( htmlTemplate.isPresent() ) {
-					htmlTemplateStringOptional = Optional.of( new String( htmlTemplate.get().bytes(), StandardCharsets.UTF_8 ) );
-				}
+	/**
+	 * @return The templates in the given archives. Archives that can't be read (corrupt or generated by a different version of the framework) are skipped, leaving their templates to be parsed on first use.
+	 */
+	static Map<String, PNode> readTemplateArchives( final List<URL> archiveURLs ) {
+		final Map<String, PNode> precompiledTemplates = new HashMap<>();
+
+		for( final URL archiveURL : archiveURLs ) {
+			try( final InputStream in = archiveURL.openStream()) {
+				final Map<String, PNode> templates = NGTemplateArchive.read( in );
+				templates.forEach( precompiledTemplates::putIfAbsent );
+				logger.info( "Loaded {} precompiled templates from {}", templates.size(), archiveURL );
 			}
-
-			// If no html template string has been loaded, no template exists.
-			// CHECKME: We might want to fail here since a non-existent template at load time is almost definitely an error // Hugi 2023-08-27
-			if( htmlTemplateStringOptional.isEmpty() ) {
-				logger.warn( "Component template '%s' not found".formatted( name() ) );
-				return NO_ELEMENT;
+			catch( IOException | RuntimeException e ) {
+				// A corrupt archive can fail in all kinds of ways (like a negative array size), none of which should keep the application from starting
+				logger.warn( "Skipping unreadable template archive {}. It's templates will be parsed on first use", archiveURL, e );
 			}
+		}
+
+		return precompiledTemplates;
+	}
+
+	/**
+	 * @return The template for this component, reloaded only if it's files have changed since it was last loaded
+	 */
+	private NGElement _developmentTemplate() {
+		final NGElement cachedTemplate = _developmentTemplates.get( name() );
+
+		if( cachedTemplate != null ) {
+			return cachedTemplate;
+		}
+
+		final long invalidationCount = _templateFileWatcher.invalidationCount();
+		final List<NGResource> templateResources = _templateResources();
+
+		// We can only keep the template around if we're able to tell when it changes. Components without a template get checked again next time, in case one gets added.
+		if( templateResources.isEmpty() || !_templateFileWatcher.watch( templateResources ) ) {
+			return _loadTemplate( templateResources );
+		}
+
+		final NGElement template = _loadTemplate( templateResources );
 
-			return new NGTemplateParserProxy( htmlTemplateStringOptional.get(), wodStringOptional.orElse( "" ) ).parse();
+		// If a template file changed while we were loading, what we loaded might already be stale
+		if( _templateFileWatcher.invalidationCount() == invalidationCount ) {
+			_developmentTemplates.put( name(), template );
+		}
+
+		return template;
+	}
+
+	/**
+	 * @return A component template by loading the component's template files and parsing them
+	 */
+	private NGElement _loadTemplate() {
+		return _loadTemplate( _templateResources() );
+	}
+
+	/**
+	 * @return A component template parsed from the given template resources (as returned by _templateResources())
+	 */
+	private NGElement _loadTemplate( final List<NGResource> templateResources ) {
+
+		// If no html template has been found, no template exists.
+		// CHECKME: We might want to fail here since a non-existent template at load time is almost definitely an error // Hugi 2023-08-27
+		if( templateResources.isEmpty() ) {
+			logger.warn( "Component template '%s' not found".formatted( name() ) );
+			return NO_ELEMENT;
+		}
+
+		final String htmlString = new String( templateResources.get( 0 ).bytes(), StandardCharsets.UTF_8 );
+		final String wodString = templateResources.size() > 1 ? new String( templateResources.get( 1 ).bytes(), StandardCharsets.UTF_8 ) : "";
+
+		try {
+			return _templateCache.template( htmlString, wodString );
 		}
 		catch( NGDeclarationFormatException | NGHTMLFormatException e ) {
 			throw new RuntimeException( e );
 		}
 	}
 
+	/**
+	 * @return The resources making up this component's template. The html template first, followed by the wod file if present. An empty list if no template exists.
+	 */
+	private List<NGResource> _templateResources() {
+
+		// Let's try first for the traditional template
+		final Optional<NGResource> htmlTemplate = loadResourceFromTemplateFolder( name(), "html" );
+
+		if( htmlTemplate.isPresent() ) {
+			final Optional<NGResource> wodTemplate = loadResourceFromTemplateFolder( name(), "wod" );
+
+			if( wodTemplate.isPresent() ) {
+				return List.of( htmlTemplate.get(), wodTemplate.get() );
+			}
+
+			return List.of( htmlTemplate.get() );
+		}
+
+		// If that fails, let's go for the single file html template
+		final Optional<NGResource> singleFileTemplate = NGApplication.application().resourceManager().obtainComponentTemplateResourceSearchingAllNamespaces( name() + ".html" );
+
+		if( singleFileTemplate.isPresent() ) {
+			return List.of( singleFileTemplate.get() );
+		}
+
+		return List.of();
+	}
+
 	/**
 	 * @return true if this component does not have it's own class representation
 	 */
@@ -237,36 +394,177 @@ public class NGComponentDefinition {
 	}
 
 	/**
-	 * @return The HTML template for the named component
+	 * @return The template resource with the given extension for the named component
 	 */
-	private static Optional<String> loadHTMLStringFromTemplateFolder( final String templateName ) {
+	private static Optional<NGResource> loadResourceFromTemplateFolder( final String templateName, final String extension ) {
 		Objects.requireNonNull( templateName );
-		return loadStringFromTemplateFolder( templateName, "html" );
-	}
+		Objects.requireNonNull( extension );
 
-	/**
-	 * @return The WOD template for the named component
-	 */
-	private static Optional<String> loadWODStringFromTemplateFolder( final String templateName ) {
-		Objects.requireNonNull( templateName );
-		return loadStringFromTemplateFolder( templateName, "wod" );
+		final String templateFilename = templateName + ".wo/" + templateName + "." + extension;
+		return NGApplication.application().resourceManager().obtainComponentTemplateResourceSearchingAllNamespaces( templateFilename );
 	}
 
 	/**
-	 * @return The string template for the named component
+	 * Watches the directories templates are loaded from during development, removing templates from _developmentTemplates when a change might affect them.
+	 *
+	 * Templates are invalidated by component name, derived from the changed path. Any change within a Name.wo directory invalidates Name, as does a change to Name.wo, Name.html or Name.wod at the root of a template source.
+	 * That way we notice files being added to a template (like a new wod file) and templates appearing in a higher priority source, not just changes to the files a template was loaded from.
 	 */
-	private static Optional<String> loadStringFromTemplateFolder( final String templateName, final String extension ) {
-		Objects.requireNonNull( templateName );
-		Objects.requireNonNull( extension );
+	private static class TemplateFileWatcher {
+
+		/**
+		 * Directories we've registered with the watch service
+		 */
+		private final Set<Path> _watchedDirectories = ConcurrentHashMap.newKeySet();
+
+		/**
+		 * Incremented on every invalidation, so a template that was loaded while one of it's files changed doesn't get cached
+		 */
+		private final AtomicLong _invalidationCount = new AtomicLong();
+
+		/**
+		 * The watch service, created on first use. null if watching failed, in which case we don't cache templates at all.
+		 */
+		private WatchService _watchService;
+
+		private boolean _watchServiceFailed;
+
+		public long invalidationCount() {
+			return _invalidationCount.get();
+		}
 
-		final String htmlTemplateFilename = templateName + ".wo/" + templateName + "." + extension;
+		/**
+		 * Starts watching the directories of the given template resources, along with the root directories of all template sources, for changes
+		 *
+		 * @return true if all the relevant directories are being watched. Resources that aren't files (i.e. resources in jars) can't change, so they count as watched.
+		 */
+		public boolean watch( final List<NGResource> resources ) {
+			if( watchService() == null ) {
+				return false;
+			}
+
+			for( final Path sourceDirectory : NGApplication.application().resourceManager().resourceLoader().directories( StandardResourceType.ComponentTemplate ) ) {
+				// A source directory that doesn't exist (yet) has nothing to invalidate
+				if( Files.isDirectory( sourceDirectory ) && !register( sourceDirectory.toAbsolutePath().normalize() ) ) {
+					return false;
+				}
+			}
+
+			for( final NGResource resource : resources ) {
+				if( resource.filePath() != null ) {
+					final Path directory = resource.filePath().toAbsolutePath().normalize().getParent();
+
+					if( !register( directory ) ) {
+						return false;
+					}
+
+					// The root of the template's source, in case it's source isn't able to tell us it's directories
+					if( directory.getFileName().toString().endsWith( ".wo" ) && !register( directory.getParent() ) ) {
+						return false;
+					}
+				}
+			}
+
+			return true;
+		}
+
+		/**
+		 * Registers the given directory with the watch service, unless it's already registered
+		 *
+		 * @return true if the directory is being watched
+		 */
+		private boolean register( final Path directory ) {
+			if( _watchedDirectories.add( directory ) ) {
+				try {
+					directory.register( _watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY );
+				}
+				catch( IOException e ) {
+					_watchedDirectories.remove( directory );
+					logger.warn( "Unable to watch template directory '{}'", directory, e );
+					return false;
+				}
+			}
 
-		final Optional<NGResource> templateBytes = NGApplication.application().resourceManager().obtainComponentTemplateResourceSearchingAllNamespaces( htmlTemplateFilename );
+			return true;
+		}
+
+		private synchronized WatchService watchService() {
+			if( _watchService == null && !_watchServiceFailed ) {
+				try {
+					_watchService = FileSystems.getDefault().newWatchService();
+				}
+				catch( IOException | UnsupportedOperationException e ) {
+					logger.warn( "Unable to watch template files. Templates will be reloaded on every use", e );
+					_watchServiceFailed = true;
+					return null;
+				}
 
-		if( templateBytes.isEmpty() ) {
-			return Optional.empty();
+				final Thread watcherThread = new Thread( this::processEvents, "ng-template-watcher" );
+				watcherThread.setDaemon( true );
+				watcherThread.start();
+			}
+
+			return _watchService;
 		}
 
-		return Optional.of( new String( templateBytes.get().bytes(), StandardCharsets.UTF_8 ) );
+		private void processEvents() {
+			try {
+				while( true ) {
+					final WatchKey key = _watchService.take();
+					final Path directory = (Path)key.watchable();
+					final String directoryName = directory.getFileName().toString();
+
+					for( final WatchEvent<?> event : key.pollEvents() ) {
+						_invalidationCount.incrementAndGet();
+
+						// We've missed events, so any template might be stale
+						if( event.kind() == StandardWatchEventKinds.OVERFLOW ) {
+							_developmentTemplates.clear();
+							continue;
+						}
+
+						if( directoryName.endsWith( ".wo" ) ) {
+							invalidate( componentName( directoryName ) );
+						}
+						else {
+							final Path path = directory.resolve( (Path)event.context() );
+							final String filename = path.getFileName().toString();
+							invalidate( componentName( filename ) );
+
+							// A new template directory, whose files we need to know about once they get added
+							if( event.kind() == StandardWatchEventKinds.ENTRY_CREATE && filename.endsWith( ".wo" ) && Files.isDirectory( path ) && register( path ) ) {
+								// Files might have been added before we started watching
+								_invalidationCount.incrementAndGet();
+								invalidate( componentName( filename ) );
+							}
+						}
+					}
+
+					if( !key.reset() ) {
+						// The directory is gone, so we'll have to register it again if it ever comes back
+						_watchedDirectories.remove( directory );
+						_invalidationCount.incrementAndGet();
+						_developmentTemplates.clear();
+					}
+				}
+			}
+			catch( InterruptedException | ClosedWatchServiceException e ) {
+				// We've been closed, so we're done
+			}
+		}
+
+		private static void invalidate( final String componentName ) {
+			if( _developmentTemplates.remove( componentName ) != null ) {
+				logger.debug( "Template of component '{}' changed", componentName );
+			}
+		}
+
+		/**
+		 * @return The name of the component a template file or directory belongs to, i.e. the filename up to the first period ("Name.wo", "Name.html" and "Name.wod" all belong to "Name")
+		 */
+		private static String componentName( final String filename ) {
+			final int periodIndex = filename.indexOf( '.' );
+			return periodIndex == -1 ? filename : filename.substring( 0, periodIndex );
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package ng.appserver;
+
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ng.appserver.resources.NGResourceLoader;
+import ng.appserver.resources.StandardResourceType;
+
+/**
+ * Loads the definition of every component with a template (resolving the component's class and parsing it's template, along with the classes of the elements it uses) before the application starts handling requests.
+ * Otherwise that work gets done on the first request for each component, making the first requests after startup slow.
+ *
+ * Components are discovered by listing the component templates in the resource loader, so only templates in sources that are able to list their resources get warmed up.
+ */
+
+public class NGComponentWarmUp {
+
+	private static final Logger logger = LoggerFactory.getLogger( NGComponentWarmUp.class );
+
+	/**
+	 * Loads the definitions of all discovered components in parallel
+	 *
+	 * @param parallelism The number of threads to use
+	 * @return The number of components successfully loaded
+	 */
+	public static int warmUp( final NGResourceLoader resourceLoader, final int parallelism ) {
+		Objects.requireNonNull( resourceLoader );
+
+		final long startTime = System.currentTimeMillis();
+		final Set<String> componentNames = componentNames( resourceLoader );
+		final AtomicInteger failureCount = new AtomicInteger();
+
+		final ForkJoinPool pool = new ForkJoinPool( parallelism );
+
+		try {
+			pool.submit( () -> componentNames.parallelStream().forEach( componentName -> {
+				try {
+					// Getting the definition only parses the template of classless components, so we ask for the template explicitly
+					NGComponentDefinition.get( componentName ).template();
+				}
+				catch( RuntimeException e ) {
+					// The component will fail once it's used as well, which is where the error belongs. We just make a note of it.
+					failureCount.incrementAndGet();
+					logger.warn( "Failed to warm up component '{}'", componentName, e );
+				}
+			} ) ).get();
+		}
+		catch( InterruptedException e ) {
+			Thread.currentThread().interrupt();
+		}
+		catch( ExecutionException e ) {
+			throw new RuntimeException( e.getCause() );
+		}
+		finally {
+			pool.shutdown();
+		}
+
+		final int successCount = componentNames.size() - failureCount.get();
+		logger.info( "Warmed up {} components in {} ms ({} failed)", successCount, System.currentTimeMillis() - startTime, failureCount.get() );
+		return successCount;
+	}
+
+	/**
+	 * @return The names of all components with a template in the given resource loader
+	 */
+	static Set<String> componentNames( final NGResourceLoader resourceLoader ) {
+		final Set<String> componentNames = new LinkedHashSet<>();
+
+		for( final String namespace : resourceLoader.namespaces() ) {
+			for( final String resourcePath : resourceLoader.resourcePaths( namespace, StandardResourceType.ComponentTemplate ) ) {
+				final String componentName = componentName( resourcePath );
+
+				if( componentName != null ) {
+					componentNames.add( componentName );
+				}
+			}
+		}
+
+		return componentNames;
+	}
+
+	/**
+	 * @return The name of the component whose html template is at the given path (either Name.wo/Name.html or Name.html), null if the path isn't an html template
+	 */
+	private static String componentName( final String resourcePath ) {
+		if( !resourcePath.endsWith( ".html" ) ) {
+			return null;
+		}
+
+		final String[] pathElements = resourcePath.split( "/" );
+		final String filename = pathElements[pathElements.length - 1];
+		final String componentName = filename.substring( 0, filename.length() - ".html".length() );
+
+		if( pathElements.length == 1 ) {
+			return componentName;
+		}
+
+		if( pathElements.length == 2 && pathElements[0].equals( componentName + ".wo" ) ) {
+			return componentName;
+		}
+
+		return null;
+	}
+}
\ No newline at end of file
@@ -1,10 +1,24 @@
 package ng.appserver;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,17 +59,33 @@ public class NGElementUtils {
 	/**
 	 * Packages that we look for component classes inside
 	 */
-	private static List<String> _packages = new ArrayList<>();
+	private static final List<String> _packages = new CopyOnWriteArrayList<>();
 
 	/**
-	 * Classes registered to be searchable by classWithName()
+	 * Classes registered to be searchable by classWithName(), keyed by both their simple and fully qualified names
 	 */
-	private static final List<Class<?>> _classes = new ArrayList<>();
+	private static final Map<String, Class<?>> _classes = new ConcurrentHashMap<>();
+
+	/**
+	 * Names of the top level classes in each package in _packages, found by scanning the classpath when the package is added. A package is missing from the map if it couldn't be scanned.
+	 * Only used when caching is enabled, since during development classes can appear after the package was scanned.
+	 */
+	private static final Map<String, Set<String>> _classNamesInPackages = new ConcurrentHashMap<>();
+
+	/**
+	 * Maximum number of failed lookups kept in _resolvedClasses. Names can come from URLs (direct actions), so we can't let failures accumulate forever.
+	 */
+	private static final int MAX_CACHED_MISSES = 10_000;
+
+	/**
+	 * Results of previous class lookups, including failed ones (empty optionals). Cleared when a class or a package is added, since that can change the result of any lookup. Only used when caching is enabled.
+	 */
+	private static final Map<String, Optional<Class<?>>> _resolvedClasses = new ConcurrentHashMap<>();
 
 	/**
 	 * A mapping of shortcuts to element classes. For example, mapping of <wo:str /> to <wo:NGString />
 	 */
-	private static final Map<String, String> _shortcutToClassMap = new HashMap<>();
+	private static final Map<String, String> _shortcutToClassMap = new ConcurrentHashMap<>();
 
 	static {
 		addClass( NGActionURL.class, "actionURL" );
@@ -87,61 +117,222 @@ public class NGElementUtils {
 	 * Add a class to make searchable by it's simpleName, full class name or any of the given shortcuts (for tags)
 	 */
 	public static void addClass( final Class<?> clazz, final String... shortcuts ) {
-		_classes.add( clazz );
+		// The first registered class with a given name wins
+		_classes.putIfAbsent( clazz.getName(), clazz );
+		_classes.putIfAbsent( clazz.getSimpleName(), clazz );
 
 		for( String shortcut : shortcuts ) {
 			_shortcutToClassMap.put( shortcut, clazz.getSimpleName() );
 		}
+
+		_resolvedClasses.clear();
 	}
 
 	public static void addPackage( final String packageName ) {
+		Objects.requireNonNull( packageName );
+
+		final Set<String> classNames = classNamesInPackage( packageName );
+
+		if( classNames != null ) {
+			_classNamesInPackages.put( packageName, classNames );
+		}
+
 		_packages.add( packageName );
+		_resolvedClasses.clear();
 	}
 
 	/**
 	 * @return A class matching classNameToSearch for. Searches by fully qualified class name and simpleName.
 	 */
-	private static Class<?> classWithName( String classNameToSearchFor ) {
+	private static Optional<Class<?>> classWithName( final String classNameToSearchFor ) {
 		Objects.requireNonNull( classNameToSearchFor );
 
+		// No class can have that name, and it's not worth a lookup (or a spot in the cache)
+		if( !isClassName( classNameToSearchFor ) ) {
+			return Optional.empty();
+		}
+
+		if( !_cachingEnabled() ) {
+			return Optional.ofNullable( resolveClassWithName( classNameToSearchFor, false ) );
+		}
+
+		Optional<Class<?>> result = _resolvedClasses.get( classNameToSearchFor );
+
+		if( result == null ) {
+			result = Optional.ofNullable( resolveClassWithName( classNameToSearchFor, true ) );
+
+			if( result.isPresent() || _resolvedClasses.size() < MAX_CACHED_MISSES ) {
+				_resolvedClasses.put( classNameToSearchFor, result );
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * @return true if lookup results (and package contents) can be cached. During development, classes can appear (compiled into target/classes) while the application is running. Without an application (like in tests), we cache.
+	 */
+	private static boolean _cachingEnabled() {
+		final NGApplication application = NGApplication.application();
+		return application == null || application.cachingEnabled();
+	}
+
+	/**
+	 * @return true if the given string is a valid (simple or fully qualified) Java class name
+	 */
+	private static boolean isClassName( final String string ) {
+		for( final String part : string.split( "\\.", -1 ) ) {
+			if( part.isEmpty() || !Character.isJavaIdentifierStart( part.charAt( 0 ) ) ) {
+				return false;
+			}
+
+			for( int i = 1; i < part.length(); i++ ) {
+				if( !Character.isJavaIdentifierPart( part.charAt( i ) ) ) {
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return The number of lookup results currently cached
+	 */
+	static int resolvedClassCount() {
+		return _resolvedClasses.size();
+	}
+
+	/**
+	 * @return A class matching classNameToSearch for, null if not found
+	 *
+	 * @param usePackageIndex If true, classes in registered packages are only loaded if they were found when scanning the package
+	 */
+	private static Class<?> resolveClassWithName( final String classNameToSearchFor, final boolean usePackageIndex ) {
 		logger.debug( "Searching for class '{}'", classNameToSearchFor );
 
-		for( Class<?> c : _classes ) {
-			if( c.getName().equals( classNameToSearchFor ) || c.getSimpleName().equals( classNameToSearchFor ) ) {
+		final Class<?> registeredClass = _classes.get( classNameToSearchFor );
+
+		if( registeredClass != null ) {
+			return registeredClass;
+		}
+
+		// If the class isn't registered, let's try it as a fully qualified class name.
+		// We check for the class file first, so we don't have to throw (and catch) ClassNotFoundExceptions for every name that isn't fully qualified
+		if( classFileExists( classNameToSearchFor ) ) {
+			final Class<?> c = loadClass( classNameToSearchFor );
+
+			if( c != null ) {
 				return c;
 			}
 		}
 
-		// If the class isn't found by simple name, let's try constructing from a fully qualified class name.
-		try {
-			logger.debug( "Did not find class '{}'. Trying Class.forName()", classNameToSearchFor );
-			return Class.forName( classNameToSearchFor );
-		}
-		catch( ClassNotFoundException e ) {}
+		// The package index only contains top level classes, so nested classes (Outer$Inner) and classes in subpackages (sub.Name) have to be loaded by name
+		final boolean indexed = usePackageIndex && classNameToSearchFor.indexOf( '.' ) == -1 && classNameToSearchFor.indexOf( '$' ) == -1;
 
 		for( String packageName : _packages ) {
-			try {
-				final String className = packageName + "." + classNameToSearchFor;
-				return Class.forName( className );
+			final String className = packageName + "." + classNameToSearchFor;
+			final Set<String> classNamesInPackage = indexed ? _classNamesInPackages.get( packageName ) : null;
+
+			// If we weren't able to scan the package, we have to try loading the class
+			if( classNamesInPackage == null || classNamesInPackage.contains( classNameToSearchFor ) ) {
+				final Class<?> c = loadClass( className );
+
+				if( c != null ) {
+					return c;
+				}
 			}
-			catch( ClassNotFoundException e ) {}
 		}
 
-		throw new RuntimeException( "Class not found: " + classNameToSearchFor );
+		return null;
 	}
 
 	/**
-	 * FIXME: This is horrible
+	 * @return The named class, null if it can't be loaded
 	 */
-	public static Class classWithNameNullIfNotFound( String classNameToSearchFor ) {
+	private static Class<?> loadClass( final String className ) {
 		try {
-			return classWithName( classNameToSearchFor );
+			return Class.forName( className );
 		}
-		catch( RuntimeException e ) {
+		catch( ClassNotFoundException | NoClassDefFoundError e ) {
 			return null;
 		}
 	}
 
+	/**
+	 * @return true if a class file for the given class name exists on the classpath
+	 */
+	private static boolean classFileExists( final String className ) {
+		return NGElementUtils.class.getClassLoader().getResource( className.replace( '.', '/' ) + ".class" ) != null;
+	}
+
+	/**
+	 * @return The simple names of the top level classes in the given package, found by scanning the classpath. null if the package is located somewhere we don't know how to scan.
+	 */
+	private static Set<String> classNamesInPackage( final String packageName ) {
+		final String packagePath = packageName.replace( '.', '/' );
+		final Set<String> classNames = new HashSet<>();
+
+		try {
+			final Enumeration<URL> packageURLs = NGElementUtils.class.getClassLoader().getResources( packagePath );
+
+			while( packageURLs.hasMoreElements() ) {
+				final URL packageURL = packageURLs.nextElement();
+
+				switch( packageURL.getProtocol() ) {
+					case "file" -> {
+						try( final Stream<Path> files = Files.list( Path.of( packageURL.toURI() ) )) {
+							files.forEach( file -> addClassName( classNames, file.getFileName().toString() ) );
+						}
+					}
+					case "jar" -> {
+						final JarURLConnection connection = (JarURLConnection)packageURL.openConnection();
+						connection.setUseCaches( false );
+
+						try( final JarFile jarFile = connection.getJarFile()) {
+							final Enumeration<JarEntry> entries = jarFile.entries();
+
+							while( entries.hasMoreElements() ) {
+								final String entryName = entries.nextElement().getName();
+
+								// Only direct members of the package, not subpackages
+								if( entryName.startsWith( packagePath + "/" ) && entryName.indexOf( '/', packagePath.length() + 1 ) == -1 ) {
+									addClassName( classNames, entryName.substring( packagePath.length() + 1 ) );
+								}
+							}
+						}
+					}
+					default -> {
+						logger.debug( "Unable to scan package '{}' located at '{}'. Classes in it will be looked up by name", packageName, packageURL );
+						return null;
+					}
+				}
+			}
+		}
+		catch( IOException | URISyntaxException | UncheckedIOException e ) {
+			logger.warn( "Unable to scan package '{}'. Classes in it will be looked up by name", packageName, e );
+			return null;
+		}
+
+		return Set.copyOf( classNames );
+	}
+
+	/**
+	 * Adds the class name of the given class file to the given set, if it's a top level class
+	 */
+	private static void addClassName( final Set<String> classNames, final String filename ) {
+		if( filename.endsWith( ".class" ) && filename.indexOf( '$' ) == -1 ) {
+			classNames.add( filename.substring( 0, filename.length() - ".class".length() ) );
+		}
+	}
+
+	/**
+	 * FIXME: This is horrible
+	 */
+	public static Class classWithNameNullIfNotFound( String classNameToSearchFor ) {
+		return classWithName( classNameToSearchFor ).orElse( null );
+	}
+
 	/**
 	 * Maps tag names to their dynamic element names
 	 *
@@ -0,0 +1,522 @@
+package ng.appserver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ng.appserver.properties.NGProperties;
+
+/**
+ * A session store that persists sessions to disk, allowing them to survive an application restart.
+ *
+ * Sessions are kept in memory (just like NGServerSessionStore) and written to an append only log in the store's directory. When a request is done with a session,
+ * the session gets encoded and queued for writing. Queued records are written in batches by a background thread, with only the latest record for each session getting written.
+ * Removed sessions get a tombstone record. Once the log contains a lot more records than there are live sessions, it's compacted by rewriting it with just the live records.
+ *
+ * What gets persisted is the session's identity, it's timing and it's context counter, along with any custom state written by the session's writeState().
+ * Page caches don't get persisted, since component trees aren't serializable. A restored session thus starts out with an empty page cache.
+ */
+
+public class NGFileSessionStore extends NGServerSessionStore {
+
+	private static final Logger logger = LoggerFactory.getLogger( NGFileSessionStore.class );
+
+	/**
+	 * Name of the log file within the store's directory
+	 */
+	private static final String LOG_FILE_NAME = "sessions.log";
+
+	/**
+	 * We don't bother compacting logs containing fewer records than this
+	 */
+	private static final int MIN_RECORD_COUNT_FOR_COMPACTION = 1000;
+
+	/**
+	 * Records larger than this are considered corrupt when reading the log
+	 */
+	private static final int MAX_RECORD_LENGTH = 64 * 1024 * 1024;
+
+	private static final byte RECORD_TYPE_STORE = 1;
+	private static final byte RECORD_TYPE_REMOVE = 2;
+
+	/**
+	 * The log file
+	 */
+	private final Path _logFile;
+
+	/**
+	 * Encoded records waiting to get written to the log, by sessionID. Only the latest record for each session is kept.
+	 */
+	private final Map<String, byte[]> _pendingRecords = new ConcurrentHashMap<>();
+
+	/**
+	 * Guards all access to the log file
+	 */
+	private final ReentrantLock _logLock = new ReentrantLock();
+
+	/**
+	 * Stream for appending to the log file
+	 */
+	private FileOutputStream _logFileStream;
+
+	private DataOutputStream _logStream;
+
+	/**
+	 * Number of records currently in the log file
+	 */
+	private int _logRecordCount;
+
+	/**
+	 * Set if writing to the log failed, meaning it might end with a partial record. Anything appended after that would be ignored when reading the log, so we rewrite the log before appending to it again.
+	 */
+	private boolean _logDamaged;
+
+	/**
+	 * Runs the write-behind flushing
+	 */
+	private final Timer _flushTimer = new Timer( "SessionWriter", true );
+
+	/**
+	 * @param directory The directory to store the session log in. Gets created if it doesn't exist.
+	 * @param flushInterval Interval at which pending session changes get written to disk
+	 */
+	public NGFileSessionStore( final Path directory, final Duration flushInterval ) {
+		Objects.requireNonNull( directory );
+		Objects.requireNonNull( flushInterval );
+
+		_logFile = directory.resolve( LOG_FILE_NAME );
+
+		try {
+			Files.createDirectories( directory );
+			recover();
+		}
+		catch( IOException e ) {
+			throw new UncheckedIOException( e );
+		}
+
+		_flushTimer.schedule( new TimerTask() {
+			@Override
+			public void run() {
+				// An exception would kill the timer thread, so we make sure not to let one escape
+				try {
+					flush();
+				}
+				catch( RuntimeException e ) {
+					logger.error( "Failed to write sessions to disk", e );
+				}
+			}
+		}, flushInterval.toMillis(), flushInterval.toMillis() );
+	}
+
+	/**
+	 * @return A store configured by the given properties
+	 *
+	 * ng.sessionStore.directory : Directory to store sessions in (required)
+	 * ng.sessionStore.flushIntervalMillis : Interval at which pending session changes get written to disk (default 1000)
+	 */
+	public static NGFileSessionStore fromProperties( final NGProperties properties ) {
+		Objects.requireNonNull( properties );
+
+		final String directory = properties.get( "ng.sessionStore.directory" );
+
+		if( directory == null ) {
+			throw new IllegalArgumentException( "Property 'ng.sessionStore.directory' must be set to use a file session store" );
+		}
+
+		return new NGFileSessionStore( Path.of( directory ), Duration.ofMillis( properties.getLong( "ng.sessionStore.flushIntervalMillis", 1000L ) ) );
+	}
+
+	@Override
+	public void storeSession( final NGSession session ) {
+		super.storeSession( session );
+		_pendingRecords.put( session.sessionID(), encodeStoreRecord( session ) );
+	}
+
+	@Override
+	public void checkinSession( final NGSession session ) {
+		// We encode the session before checking it in, since once it's checked in, another request might be modifying it
+		_pendingRecords.put( session.sessionID(), encodeStoreRecord( session ) );
+
+		// The session might have been removed while we were encoding it, in which case it's tombstone must stay the last word
+		if( sessionWithID( session.sessionID() ) != session ) {
+			_pendingRecords.put( session.sessionID(), encodeRemoveRecord( session.sessionID() ) );
+		}
+
+		super.checkinSession( session );
+	}
+
+	@Override
+	protected void removeSession( final NGSession session ) {
+		super.removeSession( session );
+		_pendingRecords.put( session.sessionID(), encodeRemoveRecord( session.sessionID() ) );
+	}
+
+	/**
+	 * Writes all pending records to disk, compacting the log if it's grown too large
+	 */
+	public void flush() {
+		_logLock.lock();
+
+		try {
+			if( _logStream == null ) {
+				// We've been closed
+				return;
+			}
+
+			if( _logDamaged ) {
+				compact( readLog() );
+			}
+
+			// Records we've taken from the pending records, in case we have to put them back
+			final Map<String, byte[]> writtenRecords = new LinkedHashMap<>();
+
+			try {
+				for( final String sessionID : _pendingRecords.keySet() ) {
+					final byte[] record = _pendingRecords.remove( sessionID );
+
+					if( record != null ) {
+						writtenRecords.put( sessionID, record );
+						writeRecord( _logStream, record );
+					}
+				}
+
+				if( !writtenRecords.isEmpty() ) {
+					_logStream.flush();
+					_logFileStream.getChannel().force( false );
+				}
+			}
+			catch( IOException e ) {
+				// None of the records are guaranteed to be on disk, so they go back into the queue (unless the session has been changed again since, in which case the newer record wins)
+				writtenRecords.forEach( _pendingRecords::putIfAbsent );
+				_logDamaged = true;
+				throw e;
+			}
+
+			if( !writtenRecords.isEmpty() ) {
+				_logRecordCount += writtenRecords.size();
+				logger.debug( "Wrote {} session records", writtenRecords.size() );
+			}
+
+			if( _logRecordCount > Math.max( MIN_RECORD_COUNT_FOR_COMPACTION, activeSessionCount() * 2 ) ) {
+				// Our records made it to disk, so a failed compaction just means we try again next time
+				try {
+					compact( readLog() );
+				}
+				catch( IOException e ) {
+					logger.warn( "Failed to compact session log '{}'", _logFile, e );
+				}
+			}
+		}
+		catch( IOException e ) {
+			throw new UncheckedIOException( e );
+		}
+		finally {
+			_logLock.unlock();
+		}
+	}
+
+	/**
+	 * Writes pending records and closes the log. The store shouldn't be used after it's been closed.
+	 */
+	@Override
+	public void close() {
+		_flushTimer.cancel();
+		flush();
+
+		_logLock.lock();
+
+		try {
+			if( _logStream != null ) {
+				_logStream.close();
+				_logStream = null;
+				_logFileStream = null;
+			}
+		}
+		catch( IOException e ) {
+			throw new UncheckedIOException( e );
+		}
+		finally {
+			_logLock.unlock();
+		}
+
+		super.close();
+	}
+
+	/**
+	 * @return The number of records currently in the log file
+	 */
+	public int logRecordCount() {
+		return _logRecordCount;
+	}
+
+	/**
+	 * Restores sessions from the log and starts out with a freshly compacted log
+	 */
+	private void recover() throws IOException {
+		final long startTime = System.currentTimeMillis();
+
+		final Map<String, SessionRecord> records = readLog();
+
+		int restoredSessionCount = 0;
+
+		for( final SessionRecord record : records.values() ) {
+			final NGSession session = record.restoreSession();
+
+			if( session != null && !session.shouldTerminate() ) {
+				super.storeSession( session );
+				restoredSessionCount++;
+			}
+		}
+
+		_logLock.lock();
+
+		try {
+			compact( records );
+		}
+		finally {
+			_logLock.unlock();
+		}
+
+		logger.info( "Restored {} sessions from '{}' in {} ms", restoredSessionCount, _logFile, System.currentTimeMillis() - startTime );
+	}
+
+	/**
+	 * Rewrites the log with the given records (as read from the log), keeping only records of live sessions. Must be invoked while holding the log lock, after pending records have been written.
+	 *
+	 * If rewriting fails, we keep appending to the existing log.
+	 */
+	private void compact( final Map<String, SessionRecord> records ) throws IOException {
+		final int previousRecordCount = _logRecordCount;
+		final Path compactedFile = _logFile.resolveSibling( LOG_FILE_NAME + ".compact" );
+
+		int recordCount = 0;
+
+		try {
+			try( final DataOutputStream out = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( compactedFile ) ) )) {
+				for( final SessionRecord record : records.values() ) {
+					// The log might contain sessions that were stored while we were down, but have since expired. We're not passing those on
+					if( sessionWithID( record.sessionID() ) != null ) {
+						writeRecord( out, record.bytes() );
+						recordCount++;
+					}
+				}
+			}
+
+			Files.move( compactedFile, _logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+		}
+		catch( IOException e ) {
+			try {
+				Files.deleteIfExists( compactedFile );
+			}
+			catch( IOException deleteException ) {
+				e.addSuppressed( deleteException );
+			}
+
+			throw e;
+		}
+
+		// The old stream now points to the replaced file. Until we've got a stream to the new one, appending would mean writing to the wrong file.
+		_logDamaged = true;
+
+		final FileOutputStream logFileStream = new FileOutputStream( _logFile.toFile(), true );
+
+		if( _logStream != null ) {
+			try {
+				_logStream.close();
+			}
+			catch( IOException e ) {
+				// Whatever the stream didn't manage to write was headed for the replaced file
+				logger.warn( "Failed to close replaced session log", e );
+			}
+		}
+
+		_logFileStream = logFileStream;
+		_logStream = new DataOutputStream( new BufferedOutputStream( logFileStream ) );
+		_logRecordCount = recordCount;
+		_logDamaged = false;
+
+		logger.debug( "Compacted session log from {} to {} records", previousRecordCount, recordCount );
+	}
+
+	/**
+	 * @return The latest record of each session in the log that hasn't been removed, by sessionID
+	 */
+	private Map<String, SessionRecord> readLog() throws IOException {
+		final Map<String, SessionRecord> records = new LinkedHashMap<>();
+
+		if( !Files.exists( _logFile ) ) {
+			return records;
+		}
+
+		try( final DataInputStream in = new DataInputStream( new BufferedInputStream( Files.newInputStream( _logFile ) ) )) {
+			while( true ) {
+				final byte[] bytes = readRecord( in );
+
+				if( bytes == null ) {
+					break;
+				}
+
+				final DataInputStream recordStream = new DataInputStream( new ByteArrayInputStream( bytes ) );
+				final byte type = recordStream.readByte();
+				final String sessionID = recordStream.readUTF();
+
+				if( type == RECORD_TYPE_REMOVE ) {
+					records.remove( sessionID );
+				}
+				else {
+					records.put( sessionID, new SessionRecord( sessionID, bytes ) );
+				}
+			}
+		}
+
+		return records;
+	}
+
+	/**
+	 * Writes a record to the log, prefixed by it's length and checksum
+	 */
+	private static void writeRecord( final DataOutputStream out, final byte[] record ) throws IOException {
+		final CRC32 checksum = new CRC32();
+		checksum.update( record );
+
+		out.writeInt( record.length );
+		out.writeLong( checksum.getValue() );
+		out.write( record );
+	}
+
+	/**
+	 * @return The next record from the log, null if we've reached the end of the log.
+	 *
+	 * A record that's incomplete or fails it's checksum is treated as the end of the log, since it's most likely the result of a crash in the middle of writing.
+	 */
+	private byte[] readRecord( final DataInputStream in ) throws IOException {
+		try {
+			final int length = in.readInt();
+			final long expectedChecksum = in.readLong();
+
+			if( length <= 0 || length > MAX_RECORD_LENGTH ) {
+				logger.warn( "Invalid record length {} in '{}'. Ignoring the rest of the log", length, _logFile );
+				return null;
+			}
+
+			final byte[] record = new byte[length];
+			in.readFully( record );
+
+			final CRC32 checksum = new CRC32();
+			checksum.update( record );
+
+			if( checksum.getValue() != expectedChecksum ) {
+				logger.warn( "Checksum mismatch in '{}'. Ignoring the rest of the log", _logFile );
+				return null;
+			}
+
+			return record;
+		}
+		catch( EOFException e ) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return A record containing the given session's persistent state
+	 */
+	private static byte[] encodeStoreRecord( final NGSession session ) {
+		try {
+			final ByteArrayOutputStream stateBytes = new ByteArrayOutputStream();
+			session.writeState( new DataOutputStream( stateBytes ) );
+
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final DataOutputStream out = new DataOutputStream( bytes );
+			out.writeByte( RECORD_TYPE_STORE );
+			out.writeUTF( session.sessionID() );
+			out.writeUTF( session.getClass().getName() );
+			out.writeLong( session.birthDate().toEpochMilli() );
+			out.writeLong( session.lastTouched().toEpochMilli() );
+			out.writeLong( session.timeOut().toMillis() );
+			out.writeInt( session.currentContextID() );
+			out.writeInt( stateBytes.size() );
+			stateBytes.writeTo( out );
+			return bytes.toByteArray();
+		}
+		catch( IOException e ) {
+			// We're writing to memory, so this should never happen
+			throw new UncheckedIOException( e );
+		}
+	}
+
+	/**
+	 * @return A tombstone record for the session with the given ID
+	 */
+	private static byte[] encodeRemoveRecord( final String sessionID ) {
+		try {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final DataOutputStream out = new DataOutputStream( bytes );
+			out.writeByte( RECORD_TYPE_REMOVE );
+			out.writeUTF( sessionID );
+			return bytes.toByteArray();
+		}
+		catch( IOException e ) {
+			// We're writing to memory, so this should never happen
+			throw new UncheckedIOException( e );
+		}
+	}
+
+	/**
+	 * A session's record, as read from the log
+	 */
+	private record SessionRecord( String sessionID, byte[] bytes ) {
+
+		/**
+		 * @return The session stored in this record, null if it can't be restored
+		 */
+		private NGSession restoreSession() {
+			try( final DataInputStream in = new DataInputStream( new ByteArrayInputStream( bytes ) )) {
+				in.readByte(); // Record type
+				in.readUTF(); // SessionID
+				final String className = in.readUTF();
+				final Instant birthDate = Instant.ofEpochMilli( in.readLong() );
+				final Instant lastTouched = Instant.ofEpochMilli( in.readLong() );
+				final Duration timeOut = Duration.ofMillis( in.readLong() );
+				final int contextID = in.readInt();
+				final int stateLength = in.readInt();
+
+				final NGSession session = (NGSession)Class.forName( className ).getConstructor().newInstance();
+				session._restore( sessionID, birthDate, lastTouched, timeOut, contextID );
+
+				try( final InputStream stateStream = new ByteArrayInputStream( in.readNBytes( stateLength ) )) {
+					session.readState( new DataInputStream( stateStream ) );
+				}
+
+				return session;
+			}
+			catch( Exception e ) {
+				logger.warn( "Failed to restore session '{}'. Discarding it", sessionID, e );
+				return null;
+			}
+		}
+	}
+}
\ No newline at end of file
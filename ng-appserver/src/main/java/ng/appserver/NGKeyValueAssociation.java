@@ -2,15 +2,21 @@ package ng.appserver;
 
 import java.util.Objects;
 
-import ng.kvc.NGKeyValueCodingAdditions;
+import ng.kvc.NGKeyPath;
 
 public class NGKeyValueAssociation extends NGAssociation {
 
 	private final String _keyPath;
 
+	/**
+	 * The keyPath, compiled for evaluation
+	 */
+	private final NGKeyPath _compiledKeyPath;
+
 	public NGKeyValueAssociation( final String keyPath ) {
 		validateKeyPath( keyPath );
 		_keyPath = keyPath;
+		_compiledKeyPath = new NGKeyPath( keyPath );
 	}
 
 	/**
@@ -47,13 +53,13 @@ public class NGKeyValueAssociation extends NGAssociation {
 	@Override
 	public Object valueInComponent( final NGComponent component ) {
 		Objects.requireNonNull( component );
-		return NGKeyValueCodingAdditions.Utility.valueForKeyPath( component, keyPath() );
+		return _compiledKeyPath.valueInObject( component );
 	}
 
 	@Override
 	public void setValue( final Object value, final NGComponent component ) {
 		Objects.requireNonNull( component );
-		NGKeyValueCodingAdditions.Utility.takeValueForKeyPath( component, value, _keyPath );
+		_compiledKeyPath.setValueInObject( value, component );
 	}
 
 	public String keyPath() {
@@ -2,9 +2,11 @@ package ng.appserver;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -38,10 +40,9 @@ public abstract class NGMessage {
 	 *
 	 * FIXME:
 	 * Currently this stores all types of content. We're going to want to use more efficient types for different response types (string/data/streaming)
-	 * For example, it's clear that using a StringBuilder for string responses is significantly more efficient than using the ByteArrayOutputStream
 	 * // Hugi 2023-02-08
 	 */
-	private ByteArrayOutputStream _contentBytes = new ByteArrayOutputStream( DEFAULT_CONTENT_DATA_LENGTH );
+	private ContentBuffer _contentBytes = new ContentBuffer( DEFAULT_CONTENT_DATA_LENGTH );
 
 	/**
 	 * @return The HTTP version of this message
@@ -143,15 +144,34 @@ public abstract class NGMessage {
 	}
 
 	public String contentString() {
-		return new String( contentBytes(), StandardCharsets.UTF_8 );
+		return _contentBytes.toString( StandardCharsets.UTF_8 );
 	}
 
 	public void setContentString( final String contentString ) {
-		setContentBytes( contentString.getBytes( StandardCharsets.UTF_8 ) );
+		_contentBytes = new ContentBuffer( DEFAULT_CONTENT_DATA_LENGTH );
+		appendContentString( contentString );
 	}
 
-	public void appendContentString( final String stringToAppend ) {
-		appendContentBytes( stringToAppend.getBytes( StandardCharsets.UTF_8 ) );
+	/**
+	 * Appends the given characters to the content, UTF-8 encoded
+	 */
+	public void appendContentString( final CharSequence stringToAppend ) {
+		_contentBytes.append( stringToAppend );
+	}
+
+	/**
+	 * Appends the characters from [start] (inclusive) to [end] (exclusive) of the given CharSequence to the content, UTF-8 encoded
+	 */
+	public void appendContentString( final CharSequence stringToAppend, final int start, final int end ) {
+		Objects.checkFromToIndex( start, end, stringToAppend.length() );
+		_contentBytes.append( stringToAppend, start, end );
+	}
+
+	/**
+	 * Appends the given character to the content, UTF-8 encoded
+	 */
+	public void appendContentCharacter( final char characterToAppend ) {
+		_contentBytes.append( characterToAppend );
 	}
 
 	public byte[] contentBytes() {
@@ -173,16 +193,214 @@ public abstract class NGMessage {
 	}
 
 	public void setContentBytes( final byte[] contentBytes ) {
-		_contentBytes = new ByteArrayOutputStream( DEFAULT_CONTENT_DATA_LENGTH );
+		_contentBytes = new ContentBuffer( DEFAULT_CONTENT_DATA_LENGTH );
 		appendContentBytes( contentBytes );
 	}
 
 	public void appendContentBytes( final byte[] contentBytes ) {
-		try {
-			_contentBytes.write( contentBytes );
+		_contentBytes.writeBytes( contentBytes );
+	}
+
+	/**
+	 * A byte buffer that UTF-8 encodes appended characters directly into it's backing array.
+	 *
+	 * Rendering a page means appending a lot of small strings. Encoding them using String.getBytes() would allocate a byte[] for each of them, just to copy it into the buffer.
+	 */
+	private static class ContentBuffer extends ByteArrayOutputStream {
+
+		/**
+		 * The byte we write in place of characters that can't be encoded (unpaired surrogates), same as String.getBytes()
+		 */
+		private static final byte REPLACEMENT_BYTE = '?';
+
+		/**
+		 * A high surrogate appended using append( char ), waiting for the low surrogate to complete it's pair
+		 */
+		private char _pendingHighSurrogate;
+
+		private ContentBuffer( final int size ) {
+			super( size );
+		}
+
+		private void append( final CharSequence chars ) {
+			append( chars, 0, chars.length() );
+		}
+
+		private void append( final CharSequence chars, int start, final int end ) {
+			if( start == end ) {
+				return;
+			}
+
+			if( _pendingHighSurrogate != 0 ) {
+				// We're mid surrogate pair, hand the first character to append( char ) which knows how to resolve it
+				append( chars.charAt( start++ ) );
+			}
+
+			// We work with local copies of the buffer and position, storing the position back into count once we're done
+			byte[] buffer = buf;
+			int position = count;
+
+			for( int i = start; i < end; i++ ) {
+				final char c = chars.charAt( i );
+
+				// Make sure there's room for the longest possible encoding of a character (four bytes for a surrogate pair)
+				if( position + 4 > buffer.length ) {
+					count = position;
+					ensureCapacity( position + 4 + (end - i) );
+					buffer = buf;
+				}
+
+				if( c < 0x80 ) {
+					buffer[position++] = (byte)c;
+				}
+				else if( c < 0x800 ) {
+					buffer[position++] = (byte)(0xC0 | (c >> 6));
+					buffer[position++] = (byte)(0x80 | (c & 0x3F));
+				}
+				else if( Character.isSurrogate( c ) ) {
+					if( Character.isHighSurrogate( c ) && i + 1 < end && Character.isLowSurrogate( chars.charAt( i + 1 ) ) ) {
+						position = writeCodePoint( buffer, position, Character.toCodePoint( c, chars.charAt( ++i ) ) );
+					}
+					else {
+						buffer[position++] = REPLACEMENT_BYTE;
+					}
+				}
+				else {
+					buffer[position++] = (byte)(0xE0 | (c >> 12));
+					buffer[position++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+					buffer[position++] = (byte)(0x80 | (c & 0x3F));
+				}
+			}
+
+			count = position;
 		}
-		catch( IOException e ) {
-			throw new UncheckedIOException( e );
+
+		private void append( final char c ) {
+			ensureCapacity( count + 4 );
+
+			if( _pendingHighSurrogate != 0 ) {
+				if( Character.isLowSurrogate( c ) ) {
+					count = writeCodePoint( buf, count, Character.toCodePoint( _pendingHighSurrogate, c ) );
+					_pendingHighSurrogate = 0;
+					return;
+				}
+
+				writePendingHighSurrogate();
+			}
+
+			if( c < 0x80 ) {
+				buf[count++] = (byte)c;
+			}
+			else if( c < 0x800 ) {
+				buf[count++] = (byte)(0xC0 | (c >> 6));
+				buf[count++] = (byte)(0x80 | (c & 0x3F));
+			}
+			else if( Character.isHighSurrogate( c ) ) {
+				// We can't encode this until we've got the rest of the pair
+				_pendingHighSurrogate = c;
+			}
+			else if( Character.isLowSurrogate( c ) ) {
+				buf[count++] = REPLACEMENT_BYTE;
+			}
+			else {
+				buf[count++] = (byte)(0xE0 | (c >> 12));
+				buf[count++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+				buf[count++] = (byte)(0x80 | (c & 0x3F));
+			}
+		}
+
+		@Override
+		public void write( final int b ) {
+			if( _pendingHighSurrogate != 0 ) {
+				writePendingHighSurrogate();
+			}
+
+			super.write( b );
+		}
+
+		@Override
+		public void write( final byte[] b, final int off, final int len ) {
+			if( _pendingHighSurrogate != 0 ) {
+				writePendingHighSurrogate();
+			}
+
+			super.write( b, off, len );
+		}
+
+		/**
+		 * Reading the content means nobody's waiting for the rest of a pending pair, so it gets written as a replacement byte first (like a high surrogate at the end of an appended string)
+		 */
+		@Override
+		public byte[] toByteArray() {
+			if( _pendingHighSurrogate != 0 ) {
+				writePendingHighSurrogate();
+			}
+
+			return super.toByteArray();
+		}
+
+		@Override
+		public String toString( final Charset charset ) {
+			if( _pendingHighSurrogate != 0 ) {
+				writePendingHighSurrogate();
+			}
+
+			return super.toString( charset );
+		}
+
+		@Override
+		public int size() {
+			if( _pendingHighSurrogate != 0 ) {
+				writePendingHighSurrogate();
+			}
+
+			return super.size();
+		}
+
+		@Override
+		public void writeTo( final OutputStream out ) throws IOException {
+			if( _pendingHighSurrogate != 0 ) {
+				writePendingHighSurrogate();
+			}
+
+			super.writeTo( out );
+		}
+
+		/**
+		 * Discarding the content discards a pending high surrogate along with it
+		 */
+		@Override
+		public void reset() {
+			_pendingHighSurrogate = 0;
+			super.reset();
+		}
+
+		/**
+		 * Gives up on waiting for a low surrogate, writing the replacement byte in place of the high surrogate
+		 */
+		private void writePendingHighSurrogate() {
+			_pendingHighSurrogate = 0;
+			ensureCapacity( count + 1 );
+			buf[count++] = REPLACEMENT_BYTE;
+		}
+
+		/**
+		 * Writes the four byte encoding of a supplementary code point
+		 *
+		 * @return The position after the written bytes
+		 */
+		private static int writeCodePoint( final byte[] buffer, int position, final int codePoint ) {
+			buffer[position++] = (byte)(0xF0 | (codePoint >> 18));
+			buffer[position++] = (byte)(0x80 | ((codePoint >> 12) & 0x3F));
+			buffer[position++] = (byte)(0x80 | ((codePoint >> 6) & 0x3F));
+			buffer[position++] = (byte)(0x80 | (codePoint & 0x3F));
+			return position;
+		}
+
+		private void ensureCapacity( final int minCapacity ) {
+			if( minCapacity > buf.length ) {
+				buf = Arrays.copyOf( buf, Math.max( minCapacity, buf.length * 2 ) );
+			}
 		}
 	}
 }
\ No newline at end of file
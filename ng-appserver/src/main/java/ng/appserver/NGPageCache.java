@@ -1,15 +1,27 @@
 package ng.appserver;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ng.appserver.properties.NGProperties;
+
 /**
  * The page cache is used by stateful actions to store instances of previously rendered components
  *
+ * The cache is safe for concurrent use, since requests within the same session (for example Ajax requests) can arrive in parallel.
+ * How many pages are kept around is determined by the cache's EvictionPolicy, which can be configured using properties (see EvictionPolicy.fromProperties())
+ * Evicted pages can optionally be handed to an EvictedPageStore, a second tier from which they can be restored if they're requested again (see EvictedPageStore.fromProperties())
+ *
  * FIXME: We should probably have separate cache entry types for full pages/partial pages. Going to wait with it a bit while we're at the design stage // Hugi 2024-10-03
  * FIXME: On the same note, a page fragment cache entry should probably just reference it's parent's page instance. Page fragments should always be referencing the same instance anyway // Hugi 2024-10-03
  */
@@ -50,25 +62,405 @@ public class NGPageCache {
 		}
 	}
 
+	/**
+	 * Statistics on the cache's usage
+	 *
+	 * @param hits Number of successful page restorations
+	 * @param misses Number of page restorations that failed since the page wasn't in the cache
+	 * @param evictions Number of (full) pages evicted from the cache
+	 * @param pageCount Number of (full) pages currently in the cache
+	 * @param estimatedBytes Estimated number of bytes retained by the pages in the cache
+	 * @param evictedPageStoreHits Number of page restorations (included in [hits]) that were served by rehydrating a page from the evicted page store
+	 */
+	public record Statistics( long hits, long misses, long evictions, int pageCount, long estimatedBytes, long evictedPageStoreHits ) {}
+
+	/**
+	 * Gets notified when pages are added to or removed from a page cache. Used by session storage to keep track of the total size of all it's sessions' page caches.
+	 *
+	 * Invoked while the page cache's lock is held, so implementations should return quickly and must not access the page cache.
+	 */
+	public interface SizeListener {
+
+		/**
+		 * @param pageCountDelta The change in the number of (full) pages in the cache
+		 * @param estimatedBytesDelta The change in the estimated number of bytes retained by the cache
+		 */
+		public void sizeChanged( int pageCountDelta, long estimatedBytesDelta );
+	}
+
+	/**
+	 * Determines which pages get thrown out of the cache, and when.
+	 *
+	 * Full pages are always evicted in the order they're stored in the cache, oldest first. The policy decides if restoring a page moves it to the top of the cache and when the cache has exceeded it's capacity.
+	 */
+	public interface EvictionPolicy {
+
+		/**
+		 * @return true if a page should be moved to the top of the cache when it's restored
+		 */
+		public boolean retainsOnAccess();
+
+		/**
+		 * @return true if a cache holding the given number of pages, retaining the given estimated number of bytes, has exceeded it's capacity
+		 */
+		public boolean isOverCapacity( int pageCount, long estimatedBytes );
+
+		/**
+		 * @return The estimated number of bytes retained by the given page
+		 */
+		public default long estimatedBytes( final NGComponent page ) {
+			return 0;
+		}
+
+		/**
+		 * @return A policy that keeps the [maxPageCount] most recently used pages
+		 */
+		public static EvictionPolicy leastRecentlyUsed( final int maxPageCount ) {
+			return new CountBoundedPolicy( maxPageCount, true );
+		}
+
+		/**
+		 * @return A policy that keeps the [maxPageCount] most recently stored pages, regardless of how recently they were used
+		 */
+		public static EvictionPolicy countBounded( final int maxPageCount ) {
+			return new CountBoundedPolicy( maxPageCount, false );
+		}
+
+		/**
+		 * @return A policy that keeps the most recently used pages, as long as their estimated total size (as estimated by [sizeEstimator]) doesn't exceed [maxEstimatedBytes]
+		 */
+		public static EvictionPolicy estimatedBytesBounded( final long maxEstimatedBytes, final ToLongFunction<NGComponent> sizeEstimator ) {
+			return new EstimatedBytesBoundedPolicy( maxEstimatedBytes, sizeEstimator );
+		}
+
+		/**
+		 * @return The eviction policy configured by the given properties. If no policy is configured, we keep the 100 most recently used pages.
+		 *
+		 * ng.pageCache.policy : One of "lru" (default), "count" or "memory"
+		 * ng.pageCache.size : Maximum number of pages for the "lru" and "count" policies (default 100)
+		 * ng.pageCache.maxEstimatedBytes : Maximum estimated bytes retained by the "memory" policy (default 32 MB)
+		 * ng.pageCache.estimatedBytesPerComponent : Estimated bytes retained by each component instance in a page, used by the "memory" policy (default 16 KB)
+		 */
+		public static EvictionPolicy fromProperties( final NGProperties properties ) {
+			Objects.requireNonNull( properties );
+
+			final String policyName = properties.get( "ng.pageCache.policy", "lru" );
+
+			return switch( policyName ) {
+				case "lru" -> leastRecentlyUsed( properties.getInteger( "ng.pageCache.size", 100 ) );
+				case "count" -> countBounded( properties.getInteger( "ng.pageCache.size", 100 ) );
+				case "memory" -> {
+					final long maxEstimatedBytes = properties.getLong( "ng.pageCache.maxEstimatedBytes", 32L * 1024 * 1024 );
+					final long estimatedBytesPerComponent = properties.getLong( "ng.pageCache.estimatedBytesPerComponent", 16L * 1024 );
+					yield estimatedBytesBounded( maxEstimatedBytes, page -> componentCount( page ) * estimatedBytesPerComponent );
+				}
+				default -> throw new IllegalArgumentException( "Unknown page cache policy '%s'. Valid values are 'lru', 'count' and 'memory'".formatted( policyName ) );
+			};
+		}
+	}
+
+	/**
+	 * A second tier for pages that have been evicted from the page cache.
+	 *
+	 * When a page (along with it's partial updates) gets evicted, it's handed to the store. If a page that's not in the cache gets requested, the cache asks the store for it before giving up,
+	 * and if found, puts it back in the cache. This allows us to keep a small page cache without users constantly running into expired pages when navigating back.
+	 *
+	 * A store belongs to a single page cache, and is only accessed while holding the cache's lock.
+	 */
+	public interface EvictedPageStore {
+
+		/**
+		 * Stores the given root entry (along with it's children)
+		 */
+		public void store( NGPageCacheEntry rootEntry );
+
+		/**
+		 * @return The root entry containing the page with the given contextID (either as the root entry itself or one of it's children), removing it from the store. Null if not found.
+		 */
+		public NGPageCacheEntry remove( String contextID );
+
+		/**
+		 * @return The store configured by the given properties, null if none is configured
+		 *
+		 * ng.pageCache.evictedPageStore : "none" (default) or "soft"
+		 * ng.pageCache.evictedPageStore.size : Maximum number of pages kept by the "soft" store (default 100)
+		 */
+		public static EvictedPageStore fromProperties( final NGProperties properties ) {
+			Objects.requireNonNull( properties );
+
+			final String storeName = properties.get( "ng.pageCache.evictedPageStore", "none" );
+
+			return switch( storeName ) {
+				case "none" -> null;
+				case "soft" -> new SoftReferenceEvictedPageStore( properties.getInteger( "ng.pageCache.evictedPageStore.size", 100 ) );
+				default -> throw new IllegalArgumentException( "Unknown evicted page store '%s'. Valid values are 'none' and 'soft'".formatted( storeName ) );
+			};
+		}
+	}
+
+	/**
+	 * Keeps evicted pages around using soft references, meaning they'll stay around until the garbage collector decides it needs the memory.
+	 *
+	 * CHECKME: Component trees aren't serializable (they reference their context, their template's elements and associations), so we can't move evicted pages off-heap or to disk.
+	 * Softly referenced pages are still on the heap, but unlike pages in the cache, they're reclaimed before we run out of memory.
+	 */
+	public static class SoftReferenceEvictedPageStore implements EvictedPageStore {
+
+		/**
+		 * Maximum number of root entries we keep references to
+		 */
+		private final int _maxPageCount;
+
+		/**
+		 * References to stored root entries, keyed by the root entry's contextID, in order of insertion
+		 */
+		private final LinkedHashMap<String, EntryReference> _references = new LinkedHashMap<>();
+
+		/**
+		 * Maps the contextIDs of stored pages (both root entries and their children) to the contextID of their root entry
+		 */
+		private final Map<String, String> _rootContextIDs = new HashMap<>();
+
+		/**
+		 * Gets notified by the garbage collector when a referenced entry has been reclaimed
+		 */
+		private final ReferenceQueue<NGPageCacheEntry> _referenceQueue = new ReferenceQueue<>();
+
+		private static class EntryReference extends SoftReference<NGPageCacheEntry> {
+
+			private final String _rootContextID;
+
+			private EntryReference( final NGPageCacheEntry rootEntry, final ReferenceQueue<NGPageCacheEntry> referenceQueue ) {
+				super( rootEntry, referenceQueue );
+				_rootContextID = rootEntry.contextID();
+			}
+		}
+
+		public SoftReferenceEvictedPageStore( final int maxPageCount ) {
+			_maxPageCount = maxPageCount;
+		}
+
+		@Override
+		public void store( final NGPageCacheEntry rootEntry ) {
+			expungeReclaimedEntries();
+
+			_references.put( rootEntry.contextID(), new EntryReference( rootEntry, _referenceQueue ) );
+			_rootContextIDs.put( rootEntry.contextID(), rootEntry.contextID() );
+
+			for( final NGPageCacheEntry childEntry : rootEntry.children().values() ) {
+				_rootContextIDs.put( childEntry.contextID(), rootEntry.contextID() );
+			}
+
+			while( _references.size() > _maxPageCount ) {
+				removeRoot( _references.firstEntry().getKey() );
+			}
+		}
+
+		@Override
+		public NGPageCacheEntry remove( final String contextID ) {
+			expungeReclaimedEntries();
+
+			final String rootContextID = _rootContextIDs.get( contextID );
+
+			if( rootContextID == null ) {
+				return null;
+			}
+
+			return removeRoot( rootContextID );
+		}
+
+		/**
+		 * @return The number of root entries currently referenced by the store (some of which may already have been reclaimed)
+		 */
+		public int size() {
+			return _references.size();
+		}
+
+		/**
+		 * Removes the root entry with the given contextID along with the mappings for it's children
+		 *
+		 * @return The removed entry, null if it had been reclaimed by the garbage collector
+		 */
+		private NGPageCacheEntry removeRoot( final String rootContextID ) {
+			final EntryReference reference = _references.remove( rootContextID );
+			_rootContextIDs.values().removeIf( rootContextID::equals );
+			return reference != null ? reference.get() : null;
+		}
+
+		/**
+		 * Removes mappings for entries reclaimed by the garbage collector
+		 */
+		private void expungeReclaimedEntries() {
+			EntryReference reference;
+
+			while( (reference = (EntryReference)_referenceQueue.poll()) != null ) {
+				// The root might have been removed and stored again since it was reclaimed, in which case the mapping now belongs to a live reference
+				if( _references.get( reference._rootContextID ) == reference ) {
+					removeRoot( reference._rootContextID );
+				}
+			}
+		}
+	}
+
+	private record CountBoundedPolicy( int maxPageCount, boolean retainsOnAccess ) implements EvictionPolicy {
+
+		private CountBoundedPolicy {
+			if( maxPageCount < 1 ) {
+				throw new IllegalArgumentException( "The page cache must be able to hold at least one page" );
+			}
+		}
+
+		@Override
+		public boolean isOverCapacity( final int pageCount, final long estimatedBytes ) {
+			return pageCount > maxPageCount;
+		}
+	}
+
+	private record EstimatedBytesBoundedPolicy( long maxEstimatedBytes, ToLongFunction<NGComponent> sizeEstimator ) implements EvictionPolicy {
+
+		@Override
+		public boolean retainsOnAccess() {
+			return true;
+		}
+
+		@Override
+		public boolean isOverCapacity( final int pageCount, final long estimatedBytes ) {
+			return estimatedBytes > maxEstimatedBytes;
+		}
+
+		@Override
+		public long estimatedBytes( final NGComponent page ) {
+			return sizeEstimator.applyAsLong( page );
+		}
+	}
+
+	/**
+	 * Determines how pages are evicted from the cache
+	 */
+	private final EvictionPolicy _evictionPolicy;
+
+	/**
+	 * Guards all access to the cache's maps
+	 *
+	 * CHECKME: We're using a lock rather than synchronized to play nice with virtual threads
+	 */
+	private final ReentrantLock _lock = new ReentrantLock();
+
 	/**
 	 * Root map, stores only full page updates
 	 */
-	private Map<String, NGPageCacheEntry> _cacheMap = new LinkedHashMap<>();
+	private final LinkedHashMap<String, NGPageCacheEntry> _cacheMap = new LinkedHashMap<>();
 
 	/**
 	 * Maps all contextIDs, regardless of whether they're full page updates or partial updates
 	 *
 	 * FIXME: I don't like having this around, we're going to have to sit down and make a better design of this // Hugi 2024-10-03
 	 */
-	private Map<String, NGPageCacheEntry> _allEntries = new HashMap<>();
+	private final Map<String, NGPageCacheEntry> _allEntries = new HashMap<>();
 
 	/**
-	 * @return Size of the page cache
-	 *
-	 * FIXME: Temporary location for this parameter, should be settable/loaded from Properties // Hugi 2024-023-25
+	 * Estimated number of bytes retained by each root entry, keyed by the root entry's contextID. Partial updates don't count, since they share their root entry's page instance
+	 */
+	private final Map<String, Long> _estimatedBytesByRootContextID = new HashMap<>();
+
+	/**
+	 * Estimated number of bytes retained by all the entries in the cache
+	 */
+	private long _estimatedBytes;
+
+	private final LongAdder _hits = new LongAdder();
+	private final LongAdder _misses = new LongAdder();
+	private final LongAdder _evictions = new LongAdder();
+	private final LongAdder _evictedPageStoreHits = new LongAdder();
+
+	/**
+	 * Second tier for evicted pages. Null if evicted pages are simply discarded
+	 */
+	private final EvictedPageStore _evictedPageStore;
+
+	/**
+	 * Notified of changes in the cache's size. Null if nobody's listening.
+	 */
+	private SizeListener _sizeListener;
+
+	/**
+	 * Constructs a page cache using the eviction policy configured in the application's properties
+	 */
+	public NGPageCache() {
+		this( defaultEvictionPolicy(), defaultEvictedPageStore() );
+	}
+
+	public NGPageCache( final EvictionPolicy evictionPolicy ) {
+		this( evictionPolicy, null );
+	}
+
+	/**
+	 * @param evictionPolicy Determines which pages get evicted
+	 * @param evictedPageStore Stores evicted pages for later restoration. Null to discard evicted pages.
+	 */
+	public NGPageCache( final EvictionPolicy evictionPolicy, final EvictedPageStore evictedPageStore ) {
+		Objects.requireNonNull( evictionPolicy );
+		_evictionPolicy = evictionPolicy;
+		_evictedPageStore = evictedPageStore;
+	}
+
+	/**
+	 * @return The eviction policy configured by the application's properties, or an LRU policy keeping 100 pages if no application is around to ask
+	 */
+	private static EvictionPolicy defaultEvictionPolicy() {
+		final NGProperties properties = applicationProperties();
+
+		if( properties == null ) {
+			return EvictionPolicy.leastRecentlyUsed( 100 );
+		}
+
+		return EvictionPolicy.fromProperties( properties );
+	}
+
+	/**
+	 * @return The evicted page store configured by the application's properties, null if none is configured or no application is around to ask
+	 */
+	private static EvictedPageStore defaultEvictedPageStore() {
+		final NGProperties properties = applicationProperties();
+
+		if( properties == null ) {
+			return null;
+		}
+
+		return EvictedPageStore.fromProperties( properties );
+	}
+
+	/**
+	 * @return The application's properties, null if no application is present (for example when testing)
+	 */
+	private static NGProperties applicationProperties() {
+		final NGApplication application = NGApplication.application();
+
+		if( application == null ) {
+			return null;
+		}
+
+		return application.properties();
+	}
+
+	/**
+	 * @return The number of component instances in the given component's tree (including the component itself)
+	 */
+	private static long componentCount( final NGComponent component ) {
+		long count = 1;
+
+		for( NGComponent child : component.children().values() ) {
+			count += componentCount( child );
+		}
+
+		return count;
+	}
+
+	/**
+	 * @return The cache's eviction policy
 	 */
-	private int pageCacheSize() {
-		return 100;
+	public EvictionPolicy evictionPolicy() {
+		return _evictionPolicy;
 	}
 
 	/**
@@ -82,37 +474,107 @@ public class NGPageCache {
 	public void savePage( final String contextID, final NGComponent page, final String originatingContextID, final String updateContainerID ) {
 		logger.debug( "Saving contextID '{}' with page '{}' originating from context '{}', updateContainerID '{}'", contextID, page.getClass(), originatingContextID, updateContainerID );
 
-		// A little sanity check since if we're storing the same contextID twice, we're probably on our way to do something horrible
-		if( _cacheMap.containsKey( contextID ) ) {
-			throw new IllegalStateException( "Attempted to overwrite page cache key '%s' with component '%s'".formatted( contextID, page.name() ) );
+		// Size estimation walks the component tree, so we do that before acquiring the lock. Partial updates share their root's page instance, so they don't add to it's size
+		final boolean isPartial = originatingContextID != null && updateContainerID != null;
+		final long estimatedBytes = isPartial ? 0 : _evictionPolicy.estimatedBytes( page );
+
+		_lock.lock();
+
+		try {
+			// A little sanity check since if we're storing the same contextID twice, we're probably on our way to do something horrible
+			if( _cacheMap.containsKey( contextID ) ) {
+				throw new IllegalStateException( "Attempted to overwrite page cache key '%s' with component '%s'".formatted( contextID, page.name() ) );
+			}
+
+			// Represents the containing page, if this is a partial page update
+			NGPageCacheEntry parentEntry = null;
+
+			// FIXME: This method of registering the "parent" kind of sucks. Tackle once we migrate to a typed cache (see FIXME in class header) // Hugi 2024-10-03
+			if( isPartial ) {
+				parentEntry = _allEntries.get( originatingContextID );
+
+				// The originating page might have been evicted while this request was being handled. Without a parent, there's nothing to attach the partial update to
+				if( parentEntry == null ) {
+					logger.debug( "Not saving partial contextID '{}' since it's originating context '{}' is no longer in the cache", contextID, originatingContextID );
+					return;
+				}
+			}
+
+			final NGPageCacheEntry cacheEntry = new NGPageCacheEntry( contextID, page, originatingContextID, parentEntry, updateContainerID );
+			final String rootContextID = cacheEntry.rootEntry().contextID();
+
+			// In case of partial updates, the cache entry will get stored with it's parent entry, keyed by the ID of the updateContainer
+			if( cacheEntry.isPartial() ) {
+				final NGPageCacheEntry replacedEntry = cacheEntry.rootEntry().children().put( cacheEntry.updateContainerID(), cacheEntry );
+
+				// The update container's previous content will never get used again
+				if( replacedEntry != null ) {
+					_allEntries.remove( replacedEntry.contextID() );
+				}
+			}
+			else {
+				_cacheMap.put( contextID, cacheEntry );
+			}
+
+			_allEntries.put( contextID, cacheEntry );
+			_estimatedBytesByRootContextID.merge( rootContextID, estimatedBytes, Long::sum );
+			_estimatedBytes += estimatedBytes;
+			notifySizeListener( cacheEntry.isPartial() ? 0 : 1, estimatedBytes );
+
+			evictWhileOverCapacity( rootContextID );
 		}
+		finally {
+			_lock.unlock();
+		}
+	}
 
-		// Represents the containing page, if this is a partial page update
-		NGPageCacheEntry parentEntry = null;
+	/**
+	 * Evicts the oldest root entries until the eviction policy is satisfied. The root entry with the given contextID is never evicted, since that's the page we just stored something in.
+	 */
+	private void evictWhileOverCapacity( final String protectedContextID ) {
+		while( _cacheMap.size() > 1 && _evictionPolicy.isOverCapacity( _cacheMap.size(), _estimatedBytes ) ) {
+			// Since the page cache is a LinkedHashMap (which maintains insertion order), the first entry should be the oldest one
+			NGPageCacheEntry oldestEntry = _cacheMap.firstEntry().getValue();
 
-		// FIXME: This method of registering the "parent" kind of sucks. Tackle once we migrate to a typed cache (see FIXME in class header) // Hugi 2024-10-03
-		if( originatingContextID != null && updateContainerID != null ) {
-			parentEntry = _allEntries.get( originatingContextID );
+			if( oldestEntry.contextID().equals( protectedContextID ) ) {
+				oldestEntry = _cacheMap.sequencedValues().stream().skip( 1 ).findFirst().get();
+			}
+
+			evictEntry( oldestEntry );
 		}
+	}
 
-		final NGPageCacheEntry cacheEntry = new NGPageCacheEntry( contextID, page, originatingContextID, parentEntry, updateContainerID );
+	/**
+	 * Removes the given root entry from the page cache (along with all it's child entries) and hands it to the evicted page store, if present
+	 */
+	private void evictEntry( final NGPageCacheEntry entry ) {
+		removeEntry( entry );
+		_evictions.increment();
 
-		// In case of partial updates, the cache entry will get stored with it's parent entry, keyed by the ID of the updateContainer
-		if( cacheEntry.isPartial() ) {
-			cacheEntry.rootEntry().children().put( cacheEntry.updateContainerID(), cacheEntry );
+		if( _evictedPageStore != null ) {
+			_evictedPageStore.store( entry );
 		}
-		else {
-			_cacheMap.put( contextID, cacheEntry );
+	}
 
-			// If the page cache size has been reached, remove the oldest entry
-			if( _cacheMap.size() > pageCacheSize() ) {
-				// Since the page cache is a LinkedHashMap (which maintains insertion order), the first entry should be the oldest one
-				final NGPageCacheEntry oldestEntry = _cacheMap.values().iterator().next();
-				removeEntry( oldestEntry );
-			}
+	/**
+	 * Puts a root entry that was previously evicted (along with all it's child entries) back in the cache, as the most recently used entry
+	 */
+	private void rehydrateEntry( final NGPageCacheEntry rootEntry ) {
+		final long estimatedBytes = _evictionPolicy.estimatedBytes( rootEntry.page() );
+		_allEntries.put( rootEntry.contextID(), rootEntry );
+
+		for( final NGPageCacheEntry childEntry : rootEntry.children().values() ) {
+			_allEntries.put( childEntry.contextID(), childEntry );
 		}
 
-		_allEntries.put( contextID, cacheEntry );
+		_cacheMap.put( rootEntry.contextID(), rootEntry );
+		_estimatedBytesByRootContextID.put( rootEntry.contextID(), estimatedBytes );
+		_estimatedBytes += estimatedBytes;
+		notifySizeListener( 1, estimatedBytes );
+
+		logger.debug( "Rehydrated contextID '{}' from the evicted page store", rootEntry.contextID() );
+
+		evictWhileOverCapacity( rootEntry.contextID() );
 	}
 
 	/**
@@ -129,40 +591,136 @@ public class NGPageCache {
 		} );
 
 		_allEntries.remove( entry.contextID() );
+
+		final Long estimatedBytes = _estimatedBytesByRootContextID.remove( entry.contextID() );
+
+		if( estimatedBytes != null ) {
+			_estimatedBytes -= estimatedBytes;
+		}
+
+		notifySizeListener( -1, estimatedBytes != null ? -estimatedBytes : 0 );
+
 		logger.debug( "Popped contextID '{}' from page cache", entry.contextID() );
 	}
 
 	/**
-	 * @return The cached page instance with the given contextID
+	 * Evicts the oldest (full) page from the cache, along with it's partial updates.
+	 *
+	 * Used by session storage to enforce an application wide page cache budget. Note that this ignores the cache's eviction policy, and may leave the cache empty.
+	 *
+	 * @return true if a page was evicted, false if the cache was empty
+	 */
+	public boolean evictOldestPage() {
+		_lock.lock();
+
+		try {
+			if( _cacheMap.isEmpty() ) {
+				return false;
+			}
+
+			evictEntry( _cacheMap.firstEntry().getValue() );
+			return true;
+		}
+		finally {
+			_lock.unlock();
+		}
+	}
+
+	/**
+	 * Sets the listener that gets notified of changes to the cache's size.
+	 *
+	 * The cache's current contents are reported as removed to the previous listener (if any) and as added to the new one (if any), so listeners always see a consistent total.
+	 */
+	public void setSizeListener( final SizeListener sizeListener ) {
+		_lock.lock();
+
+		try {
+			notifySizeListener( -_cacheMap.size(), -_estimatedBytes );
+			_sizeListener = sizeListener;
+			notifySizeListener( _cacheMap.size(), _estimatedBytes );
+		}
+		finally {
+			_lock.unlock();
+		}
+	}
+
+	private void notifySizeListener( final int pageCountDelta, final long estimatedBytesDelta ) {
+		if( _sizeListener != null && (pageCountDelta != 0 || estimatedBytesDelta != 0) ) {
+			_sizeListener.sizeChanged( pageCountDelta, estimatedBytesDelta );
+		}
+	}
+
+	/**
+	 * @return The cached page instance with the given contextID, null if the page is not in the cache
 	 */
 	public NGComponent restorePageFromCache( final String contextID ) {
 		logger.debug( "Restoring page from cache with contextID: " + contextID );
 
-		final NGPageCacheEntry cacheEntry = _allEntries.get( contextID );
+		NGPageCacheEntry cacheEntry;
+
+		_lock.lock();
+
+		try {
+			cacheEntry = _allEntries.get( contextID );
+
+			// If the page isn't in the cache, it might have been evicted to the evicted page store
+			if( cacheEntry == null && _evictedPageStore != null ) {
+				final NGPageCacheEntry rootEntry = _evictedPageStore.remove( contextID );
+
+				if( rootEntry != null ) {
+					rehydrateEntry( rootEntry );
+					cacheEntry = _allEntries.get( contextID );
+					_evictedPageStoreHits.increment();
+				}
+			}
+		}
+		finally {
+			_lock.unlock();
+		}
 
-		// FIXME: This might actually be the right place to throw a page restoration error // Hugi 2024-09-30
 		if( cacheEntry == null ) {
-			throw new IllegalStateException( "No cached page was found for contextID '%s'".formatted( contextID ) );
+			_misses.increment();
+			return null;
 		}
 
+		_hits.increment();
 		return cacheEntry.page();
 	}
 
 	/**
 	 * In the case of a full page update, moves the entry to the top of the page cache.
 	 * In the case of a partial update, moves the parent entry to the top of the page cache.
+	 *
+	 * If the cache's eviction policy doesn't retain pages on access, this does nothing.
 	 */
 	public void retainPageWithContextIDInCache( final String contextID ) {
 		logger.debug( "Retaining contextID {} in cache", contextID );
 
-		final NGPageCacheEntry cacheEntry = _allEntries.get( contextID );
+		if( !_evictionPolicy.retainsOnAccess() ) {
+			return;
+		}
+
+		_lock.lock();
 
-		if( cacheEntry.isPartial() ) {
-			logger.debug( "contextID '{}' is partial, so we'll retain it's root entry '{}' instead", cacheEntry.contextID(), cacheEntry.originatingContextID() );
-			retainRootEntry( cacheEntry.rootEntry() );
+		try {
+			final NGPageCacheEntry cacheEntry = _allEntries.get( contextID );
+
+			// The entry might have been evicted by a concurrent request since it was restored. In that case there's nothing to retain.
+			if( cacheEntry == null ) {
+				logger.debug( "contextID '{}' is no longer in the cache, so it can't be retained", contextID );
+				return;
+			}
+
+			if( cacheEntry.isPartial() ) {
+				logger.debug( "contextID '{}' is partial, so we'll retain it's root entry '{}' instead", cacheEntry.contextID(), cacheEntry.originatingContextID() );
+				retainRootEntry( cacheEntry.rootEntry() );
+			}
+			else {
+				retainRootEntry( cacheEntry );
+			}
 		}
-		else {
-			retainRootEntry( cacheEntry );
+		finally {
+			_lock.unlock();
 		}
 	}
 
@@ -180,14 +738,33 @@ public class NGPageCache {
 		_cacheMap.put( cacheEntry.contextID(), rootEntry );
 	}
 
+	/**
+	 * @return Usage statistics for the cache
+	 */
+	public Statistics statistics() {
+		_lock.lock();
+
+		try {
+			return new Statistics( _hits.sum(), _misses.sum(), _evictions.sum(), _cacheMap.size(), _estimatedBytes, _evictedPageStoreHits.sum() );
+		}
+		finally {
+			_lock.unlock();
+		}
+	}
+
 	/**
 	 * Exposed for monitoring the contents of the cache
 	 *
-	 * FIXME: Since this is meant as a read-only view, we might want to return a copy (or an otherwise immutable view) of the actual map to prevent any outside meddling // Hugi 2024-09-30
-	 *
-	 * @return The contents of the cache as a map of contextID -> cache entry
+	 * @return A copy of the contents of the cache as a map of contextID -> cache entry, ordered from the oldest to the newest entry
 	 */
 	public Map<String, NGPageCacheEntry> cacheMap() {
-		return _cacheMap;
+		_lock.lock();
+
+		try {
+			return new LinkedHashMap<>( _cacheMap );
+		}
+		finally {
+			_lock.unlock();
+		}
 	}
 }
\ No newline at end of file
@@ -58,6 +58,11 @@ public class NGRequest extends NGMessage {
 	 */
 	private NGSession _session;
 
+	/**
+	 * Indicates if _session was checked out from the session store, meaning it has to be checked back in once we're done with the request
+	 */
+	private boolean _sessionCheckedOut;
+
 	public NGRequest( final String method, final String uri, final String httpVersion, final Map<String, List<String>> headers, final byte[] contentBytes ) {
 		Objects.requireNonNull( method );
 		Objects.requireNonNull( uri );
@@ -192,6 +197,7 @@ public class NGRequest extends NGMessage {
 			// OK, we have no session. Check the request for a sessionID and see if we have one to restore.
 			if( _sessionIDFromCookie() != null ) {
 				_session = NGApplication.application().sessionStore().checkoutSessionWithID( _sessionIDFromCookie() );
+				_sessionCheckedOut = _session != null;
 
 				// No session found, loudly notify the user
 				if( _session == null && throwIfIDPresentButNoCorrespondingSessionFound ) {
@@ -203,6 +209,9 @@ public class NGRequest extends NGMessage {
 				if( createIfMissing ) {
 					_session = NGApplication.application().createSessionForRequest( this );
 					NGApplication.application().sessionStore().storeSession( _session );
+
+					// Checked out like any restored session, so it gets checked back in (allowing the store to persist whatever we put in it) once we're done with the request
+					_sessionCheckedOut = NGApplication.application().sessionStore().checkoutSessionWithID( _session.sessionID() ) != null;
 				}
 			}
 		}
@@ -210,6 +219,20 @@ public class NGRequest extends NGMessage {
 		return _session;
 	}
 
+	/**
+	 * @return This request's session if it has already been restored or created while handling the request, null otherwise. Unlike existingSession(), this never checks out a session.
+	 */
+	public NGSession _sessionIfLoaded() {
+		return _session;
+	}
+
+	/**
+	 * @return true if this request checked out it's session from the session store (and so has to check it back in)
+	 */
+	public boolean _sessionCheckedOut() {
+		return _sessionCheckedOut;
+	}
+
 	/**
 	 * @return True if this context has an existing session
 	 */
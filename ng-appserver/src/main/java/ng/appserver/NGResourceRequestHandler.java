@@ -1,12 +1,30 @@
 package ng.appserver;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import ng.appserver.NGResponse.FileRegion;
 import ng.appserver.resources.NGMimeTypes;
 import ng.appserver.resources.NGResource;
+import ng.appserver.resources.NGResourceDataCache;
+import ng.appserver.resources.NGResourceDataCache.ResourceData;
+import ng.appserver.resources.NGResourceManager;
 
 /**
  * Request handler for serving webserver-resources
@@ -19,6 +37,31 @@ public class NGResourceRequestHandler extends NGRequestHandler {
 	 */
 	public static final String DEFAULT_PATH = "/wr/";
 
+	/**
+	 * Name of the query parameter marking a resource URL as versioned. Responses to versioned URLs get cached "forever" by clients
+	 */
+	public static final String VERSION_PARAMETER_NAME = "v";
+
+	/**
+	 * Cache-Control header value for resources whose URL identifies a specific version of their content
+	 */
+	private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+	/**
+	 * Matches a fingerprinted resource path, such as "css/main.3fa9c1d2.css". Groups are the path up to the fingerprint, the fingerprint and the extension (if any).
+	 */
+	private static final Pattern FINGERPRINTED_PATH_PATTERN = Pattern.compile( "^(.+)\\.([0-9a-f]{8})((?:\\.[^./]+)?)$" );
+
+	/**
+	 * Formats and parses dates in the format used in HTTP headers
+	 */
+	private static final DateTimeFormatter HTTP_DATE_FORMATTER = DateTimeFormatter.RFC_1123_DATE_TIME.withZone( ZoneOffset.UTC );
+
+	/**
+	 * Marker returned by parseRange() for a range that can't be satisfied
+	 */
+	private static final long[] UNSATISFIABLE_RANGE = new long[0];
+
 	@Override
 	public NGResponse handleRequest( final NGRequest request ) {
 
@@ -47,13 +90,39 @@ public class NGResourceRequestHandler extends NGRequestHandler {
 		namespace = URLDecoder.decode( namespace, StandardCharsets.UTF_8 );
 		resourcePath = URLDecoder.decode( resourcePath, StandardCharsets.UTF_8 );
 
-		final Optional<NGResource> resource = NGApplication.application().resourceManager().obtainWebserverResource( namespace, resourcePath );
+		final NGResourceManager resourceManager = NGApplication.application().resourceManager();
+
+		// Indicates if the URL contains the current fingerprint of the resource, meaning it's content will never change
+		boolean hasCurrentFingerprint = false;
+
+		if( resourceManager.fingerprintingEnabled() ) {
+			final Matcher matcher = FINGERPRINTED_PATH_PATTERN.matcher( resourcePath );
+
+			if( matcher.matches() ) {
+				final String unfingerprintedPath = matcher.group( 1 ) + matcher.group( 3 );
+				final Optional<String> fingerprint = resourceManager.fingerprintForWebserverResource( namespace, unfingerprintedPath );
+
+				// A URL with an outdated fingerprint (for example, from a page rendered before a deployment) still gets the resource, it just doesn't get cached forever
+				if( fingerprint.isPresent() ) {
+					hasCurrentFingerprint = fingerprint.get().equals( matcher.group( 2 ) );
+					resourcePath = unfingerprintedPath;
+				}
+			}
+		}
+
+		final Optional<NGResource> resource = resourceManager.obtainWebserverResource( namespace, resourcePath );
 
 		if( resource.isEmpty() ) {
 			return responseForNonExistentResource( namespace, resourcePath );
 		}
 
-		return responseForResource( resource.get(), resourcePath );
+		final NGResponse response = responseForResource( request, resource.get(), resourcePath );
+
+		if( hasCurrentFingerprint ) {
+			response.setHeader( "Cache-Control", IMMUTABLE_CACHE_CONTROL );
+		}
+
+		return response;
 	}
 
 	/**
@@ -68,6 +137,15 @@ public class NGResourceRequestHandler extends NGRequestHandler {
 		return errorResponse;
 	}
 
+	/**
+	 * @return The response served when the file backing a located resource doesn't exist
+	 */
+	private static NGResponse responseForNonExistentFile( final String resourcePath ) {
+		final NGResponse errorResponse = new NGResponse( "resource '%s' does not exist".formatted( resourcePath ), 404 );
+		errorResponse.setHeader( "content-type", "text/html" );
+		return errorResponse;
+	}
+
 	/**
 	 * @return Response for serving the given resource
 	 *
@@ -75,20 +153,330 @@ public class NGResourceRequestHandler extends NGRequestHandler {
 	 */
 	@Deprecated
 	public static NGResponse responseForResource( final NGResource resource, final String resourcePath ) {
+		return responseForResource( null, resource, resourcePath );
+	}
+
+	/**
+	 * @return Response for serving the given resource in response to [request], handling conditional and range requests. [request] can be null, in which case the whole resource is always served.
+	 *
+	 * Uses the resource manager's data cache if caching is enabled.
+	 *
+	 * FIXME: Shouldn't be static and doesn't belong here
+	 */
+	public static NGResponse responseForResource( final NGRequest request, final NGResource resource, final String resourcePath ) {
+		return responseForResource( request, resource, resourcePath, dataCache() );
+	}
+
+	/**
+	 * @return Response for serving the given resource in response to [request], handling conditional and range requests. [request] can be null, in which case the whole resource is always served.
+	 *
+	 * If a data cache is given, the resource's data is served from the cache, using a precompressed variant if the client accepts one.
+	 * Resources backed by a file that aren't cached are served directly from the file (without reading it's data into memory) and validated using the file's size and modification date.
+	 * Other resources get their data read and validated using a checksum of the data.
+	 *
+	 * @param dataCache The cache to serve the resource's data from. Can be null.
+	 */
+	public static NGResponse responseForResource( final NGRequest request, final NGResource resource, final String resourcePath, final NGResourceDataCache dataCache ) {
 
 		// Extract the name of the served resource to use in the filename header
 		final String resourceName = resourcePath.substring( resourcePath.lastIndexOf( "/" ) + 1 );
 		final String mimeType = NGMimeTypes.mimeTypeForResourceName( resourcePath );
+		final boolean compressible = NGResourceDataCache.isCompressible( mimeType );
+
+		final Path filePath = resource.filePath();
+		BasicFileAttributes attributes = null;
+
+		if( filePath != null ) {
+			try {
+				attributes = Files.readAttributes( filePath, BasicFileAttributes.class );
+			}
+			catch( NoSuchFileException e ) {
+				return responseForNonExistentFile( resourcePath );
+			}
+			catch( IOException e ) {
+				throw new UncheckedIOException( e );
+			}
+
+			if( !attributes.isRegularFile() ) {
+				return responseForNonExistentFile( resourcePath );
+			}
+		}
+
+		ResourceData data = null;
+
+		// Files too large to get cached are better served directly from the file than being read into memory
+		if( dataCache != null && (attributes == null || attributes.size() <= dataCache.maxEntrySize()) ) {
+			data = dataCache.data( resource, compressible );
+		}
 
-		// FIXME: We need to allow some control over the headers for the returned resource, especially with regard to caching // Hugi 2023-02-17
-		final NGResponse response = new NGResponse( resource.bytes(), 200 );
+		final long length;
+		String eTag;
+		final Instant lastModified;
+		final byte[] bytes;
+
+		if( data != null ) {
+			bytes = data.bytes();
+			length = bytes.length;
+			eTag = data.eTag();
+			lastModified = data.lastModified();
+		}
+		else if( attributes != null ) {
+			length = attributes.size();
+			lastModified = attributes.lastModifiedTime().toInstant().truncatedTo( ChronoUnit.SECONDS );
+			eTag = "\"%s-%s\"".formatted( Long.toHexString( length ), Long.toHexString( attributes.lastModifiedTime().toMillis() ) );
+			bytes = null;
+		}
+		else {
+			bytes = resource.bytes();
+			length = bytes.length;
+			lastModified = null;
+			eTag = NGResourceDataCache.eTag( bytes );
+		}
+
+		final NGResponse response = new NGResponse();
 		response.setHeader( "content-disposition", String.format( "inline;filename=\"%s\"", resourceName ) );
 		response.setHeader( "Content-Type", mimeType );
+		response.setHeader( "Accept-Ranges", "bytes" );
+
+		final String rangeHeader = request != null ? request.headerForKey( "range" ) : null;
+
+		// The encoding (and the encoded data) of a compressed variant, if we're serving one
+		String contentEncoding = null;
+		byte[] encodedBytes = null;
+
+		if( data != null && (data.gzipBytes() != null || data.deflateBytes() != null) ) {
+			response.setHeader( "Vary", "Accept-Encoding" );
+
+			// Range requests get served the unencoded data, since ranges of compressed data aren't of much use to anyone
+			if( request != null && rangeHeader == null ) {
+				contentEncoding = NGResponseCompressor.preferredContentEncoding( request.headerForKey( "accept-encoding" ), data.gzipBytes() != null, data.deflateBytes() != null );
+
+				if( contentEncoding != null ) {
+					encodedBytes = contentEncoding.equals( "gzip" ) ? data.gzipBytes() : data.deflateBytes();
+
+					// Each representation needs it's own entity tag
+					eTag = eTag.substring( 0, eTag.length() - 1 ) + "-" + contentEncoding + "\"";
+					response.setHeader( "Content-Encoding", contentEncoding );
+				}
+			}
+		}
+
+		// Compression of cached data has already been attempted by the cache, and data too large to cache isn't worth compressing on every request
+		if( data != null && contentEncoding == null ) {
+			response.setCompressionAllowed( false );
+		}
+
+		response.setHeader( "ETag", eTag );
+
+		if( lastModified != null ) {
+			response.setHeader( "Last-Modified", HTTP_DATE_FORMATTER.format( lastModified ) );
+		}
+
+		if( request != null && isVersioned( request ) ) {
+			response.setHeader( "Cache-Control", IMMUTABLE_CACHE_CONTROL );
+		}
+		else {
+			// The client is free to cache the resource, but has to check if it's still valid before using it (which usually ends with a 304)
+			response.setHeader( "Cache-Control", "no-cache" );
+		}
+
+		if( request != null && isNotModified( request, eTag, lastModified ) ) {
+			response.setStatus( 304 );
+			return response;
+		}
+
+		if( encodedBytes != null ) {
+			response.setContentBytes( encodedBytes );
+			return response;
+		}
+
+		long position = 0;
+		long rangeLength = length;
+
+		if( rangeHeader != null && isRangeApplicable( request, eTag, lastModified ) ) {
+			final long[] range = parseRange( rangeHeader, length );
+
+			if( range == UNSATISFIABLE_RANGE ) {
+				response.setStatus( 416 );
+				response.setHeader( "Content-Range", "bytes */" + length );
+				return response;
+			}
+
+			if( range != null ) {
+				position = range[0];
+				rangeLength = range[1] - range[0] + 1;
+				response.setStatus( 206 );
+				response.setHeader( "Content-Range", "bytes %s-%s/%s".formatted( range[0], range[1], length ) );
+			}
+		}
+
+		if( bytes == null ) {
+			response.setContentFileRegion( new FileRegion( filePath, position, rangeLength ) );
+		}
+		else if( rangeLength == length ) {
+			response.setContentBytes( bytes );
+		}
+		else {
+			response.setContentBytes( Arrays.copyOfRange( bytes, (int)position, (int)(position + rangeLength) ) );
+		}
+
 		return response;
 	}
 
 	/**
-	 * @return The URL for the named resource
+	 * @return The data cache to use for serving resources, null if caching isn't enabled
+	 */
+	private static NGResourceDataCache dataCache() {
+		final NGApplication application = NGApplication.application();
+
+		if( application == null || !application.cachingEnabled() ) {
+			return null;
+		}
+
+		return application.resourceManager().dataCache();
+	}
+
+	/**
+	 * @return true if the requested URL is "versioned", meaning it's content will never change, so it can be cached forever
+	 */
+	private static boolean isVersioned( final NGRequest request ) {
+		return request.formValueForKey( VERSION_PARAMETER_NAME ) != null;
+	}
+
+	/**
+	 * @return true if the request's conditional headers show that the client's cached copy of the resource is still valid.
+	 *
+	 * If-None-Match takes precedence over If-Modified-Since, as per RFC 9110. Entity tags of encoded variants (see NGResponseCompressor) match the tag of the unencoded resource, and vice versa.
+	 */
+	private static boolean isNotModified( final NGRequest request, final String eTag, final Instant lastModified ) {
+		final String ifNoneMatch = request.headerForKey( "if-none-match" );
+
+		if( ifNoneMatch != null ) {
+			for( String candidate : ifNoneMatch.split( "," ) ) {
+				candidate = candidate.strip();
+
+				// Weak comparison is used for If-None-Match
+				if( candidate.startsWith( "W/" ) ) {
+					candidate = candidate.substring( 2 );
+				}
+
+				if( candidate.equals( "*" ) || candidate.equals( eTag ) || withoutContentEncoding( candidate ).equals( withoutContentEncoding( eTag ) ) ) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		final String ifModifiedSince = request.headerForKey( "if-modified-since" );
+
+		if( ifModifiedSince != null && lastModified != null ) {
+			final Instant date = parseHTTPDate( ifModifiedSince );
+			return date != null && !lastModified.isAfter( date );
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return The given entity tag without the content encoding suffix added for encoded variants (like "abc-gzip" -> "abc")
+	 */
+	private static String withoutContentEncoding( final String eTag ) {
+		for( final String suffix : new String[] { "-gzip\"", "-deflate\"" } ) {
+			if( eTag.endsWith( suffix ) ) {
+				return eTag.substring( 0, eTag.length() - suffix.length() ) + "\"";
+			}
+		}
+
+		return eTag;
+	}
+
+	/**
+	 * @return false if the request has an If-Range header that doesn't match the current version of the resource (meaning the whole resource should be served)
+	 */
+	private static boolean isRangeApplicable( final NGRequest request, final String eTag, final Instant lastModified ) {
+		final String ifRange = request.headerForKey( "if-range" );
+
+		if( ifRange == null ) {
+			return true;
+		}
+
+		if( ifRange.startsWith( "\"" ) ) {
+			// If-Range requires strong comparison
+			return ifRange.equals( eTag );
+		}
+
+		final Instant date = parseHTTPDate( ifRange );
+		return date != null && lastModified != null && lastModified.equals( date );
+	}
+
+	/**
+	 * @return The first and last byte index (inclusive) of the range specified by the given Range header.
+	 * null if the header can't be parsed or specifies multiple ranges (in which case the whole resource should be served), UNSATISFIABLE_RANGE if the range lies outside of the resource.
+	 *
+	 * CHECKME: We don't serve multipart/byteranges responses, since they're rarely used in practice
+	 */
+	private static long[] parseRange( final String rangeHeader, final long length ) {
+		if( !rangeHeader.startsWith( "bytes=" ) || rangeHeader.indexOf( ',' ) != -1 ) {
+			return null;
+		}
+
+		final String spec = rangeHeader.substring( "bytes=".length() ).strip();
+		final int dashIndex = spec.indexOf( '-' );
+
+		if( dashIndex == -1 ) {
+			return null;
+		}
+
+		final long first;
+		final long last;
+
+		try {
+			if( dashIndex == 0 ) {
+				// A suffix range, i.e. the last n bytes
+				final long suffixLength = Long.parseLong( spec.substring( 1 ) );
+
+				if( suffixLength == 0 ) {
+					return UNSATISFIABLE_RANGE;
+				}
+
+				first = Math.max( 0, length - suffixLength );
+				last = length - 1;
+			}
+			else {
+				first = Long.parseLong( spec.substring( 0, dashIndex ) );
+				last = dashIndex == spec.length() - 1 ? length - 1 : Math.min( Long.parseLong( spec.substring( dashIndex + 1 ) ), length - 1 );
+
+				if( last < first && first < length ) {
+					return null;
+				}
+			}
+		}
+		catch( NumberFormatException e ) {
+			return null;
+		}
+
+		if( first >= length || first < 0 ) {
+			return UNSATISFIABLE_RANGE;
+		}
+
+		return new long[] { first, last };
+	}
+
+	/**
+	 * @return The given HTTP date parsed, null if it's not a valid date
+	 */
+	private static Instant parseHTTPDate( final String string ) {
+		try {
+			return Instant.from( HTTP_DATE_FORMATTER.parse( string.strip() ) );
+		}
+		catch( DateTimeParseException e ) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return The URL for the named resource. If fingerprinting is enabled, the URL contains a fingerprint of the resource's content, letting it get cached forever by clients.
 	 *
 	 * FIXME: Shouldn't be static and doesn't belong here. Should end up as a part of a forthcoming standard route URL generation mechanism // Hugi 2024-10-12
 	 * FIXME: Determine if the resource exists before generating URLs // Hugi 2024-10-12
@@ -103,6 +491,16 @@ public class NGResourceRequestHandler extends NGRequestHandler {
 			resourcePath = resourcePath.substring( 1 );
 		}
 
+		final NGApplication application = NGApplication.application();
+
+		if( application != null && application.resourceManager().fingerprintingEnabled() ) {
+			final Optional<String> fingerprint = application.resourceManager().fingerprintForWebserverResource( namespace, resourcePath );
+
+			if( fingerprint.isPresent() ) {
+				resourcePath = fingerprintedPath( resourcePath, fingerprint.get() );
+			}
+		}
+
 		final StringBuilder b = new StringBuilder();
 		b.append( DEFAULT_PATH );
 		b.append( namespace );
@@ -110,4 +508,19 @@ public class NGResourceRequestHandler extends NGRequestHandler {
 		b.append( resourcePath );
 		return Optional.of( b.toString() );
 	}
+
+	/**
+	 * @return The given resource path with the fingerprint inserted before the filename's extension, i.e. "css/main.css" becomes "css/main.3fa9c1d2.css"
+	 */
+	static String fingerprintedPath( final String resourcePath, final String fingerprint ) {
+		final int lastSlashIndex = resourcePath.lastIndexOf( '/' );
+		final int lastDotIndex = resourcePath.lastIndexOf( '.' );
+
+		// No extension (a dot at the start of the filename doesn't start an extension)
+		if( lastDotIndex <= lastSlashIndex + 1 ) {
+			return resourcePath + "." + fingerprint;
+		}
+
+		return resourcePath.substring( 0, lastDotIndex ) + "." + fingerprint + resourcePath.substring( lastDotIndex );
+	}
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package ng.appserver;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -34,6 +37,51 @@ public class NGResponse extends NGMessage implements NGActionResults {
 	 */
 	private long _contentInputStreamLength;
 
+	/**
+	 * Writes the response's content directly to the client
+	 */
+	private ContentWriter _contentWriter;
+
+	/**
+	 * Generates a response's content by writing it directly to the client's stream, once the response's status and headers have been sent.
+	 *
+	 * The response's content then never has to be held in memory in it's entirety, and the client starts receiving it as soon as it's generated.
+	 * Since the length of the content isn't known up front, it's sent using chunked transfer encoding (or, with HTTP/1.0, by closing the connection when done).
+	 *
+	 * Note that the writer gets invoked after the application is done handling the request (and the session has been checked back in), meaning it must not touch the session or any components.
+	 * Responses whose content can only be generated while handling the request (like component actions, where the page needs to be stored in the page cache once generated) get buffered.
+	 */
+	@FunctionalInterface
+	public interface ContentWriter {
+		public void writeTo( OutputStream out ) throws IOException;
+	}
+
+	/**
+	 * A file (or a part of one) to serve as the response's content
+	 */
+	private FileRegion _contentFileRegion;
+
+	/**
+	 * Indicates if NGResponseCompressor is allowed to compress the response's content. Defaults to true.
+	 */
+	private boolean _compressionAllowed = true;
+
+	/**
+	 * A region of a file, served as the response's content.
+	 *
+	 * Lets the adaptor send the file's data without it ever passing through the application's heap (for example, by memory mapping the file).
+	 */
+	public record FileRegion( Path path, long position, long length ) {
+
+		public FileRegion {
+			Objects.requireNonNull( path );
+
+			if( position < 0 || length < 0 ) {
+				throw new IllegalArgumentException( "position and length must be non-negative" );
+			}
+		}
+	}
+
 	/**
 	 * Creates an empty NGResponse with status 200
 	 */
@@ -85,6 +133,48 @@ public class NGResponse extends NGMessage implements NGActionResults {
 		return _contentInputStreamLength;
 	}
 
+	/**
+	 * Sets a writer that generates the response's content while it's being sent to the client. If set, any other content set on the response is ignored.
+	 */
+	public void setContentWriter( final ContentWriter contentWriter ) {
+		_contentWriter = contentWriter;
+	}
+
+	/**
+	 * @return The writer that generates the response's content while it's being sent to the client, null if the response's content is buffered
+	 */
+	public ContentWriter contentWriter() {
+		return _contentWriter;
+	}
+
+	/**
+	 * Sets a region of a file to serve as the response's content. If set, any buffered content set on the response is ignored.
+	 */
+	public void setContentFileRegion( final FileRegion contentFileRegion ) {
+		_contentFileRegion = contentFileRegion;
+	}
+
+	/**
+	 * @return The region of a file to serve as the response's content, null if none
+	 */
+	public FileRegion contentFileRegion() {
+		return _contentFileRegion;
+	}
+
+	/**
+	 * @return true if NGResponseCompressor may compress the response's content
+	 */
+	public boolean isCompressionAllowed() {
+		return _compressionAllowed;
+	}
+
+	/**
+	 * Set to false to keep NGResponseCompressor from compressing the response's content (for example because compressing it has already been attempted)
+	 */
+	public void setCompressionAllowed( final boolean compressionAllowed ) {
+		_compressionAllowed = compressionAllowed;
+	}
+
 	@Override
 	public NGResponse generateResponse() {
 		return this;
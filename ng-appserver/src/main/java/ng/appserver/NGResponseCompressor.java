@@ -0,0 +1,298 @@
+package ng.appserver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import ng.appserver.NGResponse.ContentWriter;
+import ng.appserver.properties.NGProperties;
+import ng.appserver.resources.NGResourceDataCache;
+
+/**
+ * Compresses responses on their way out of NGApplication.dispatchRequest(), if the client accepts it.
+ *
+ * Only successful responses with a compressible content type get compressed. Buffered responses (and streams with a known length) must be at least [minSize] bytes, since compressing tiny responses costs more than it saves.
+ * Responses that already have a content encoding (like precompressed resources) and responses served from files are left alone.
+ * Responses whose content shouldn't be compressed can be marked using NGResponse.setCompressionAllowed( false ).
+ */
+
+public class NGResponseCompressor {
+
+	/**
+	 * Minimum size of a response's content for it to get compressed
+	 */
+	private final long _minSize;
+
+	/**
+	 * Compression level (0-9) passed on to the Deflater
+	 */
+	private final int _level;
+
+	public NGResponseCompressor( final long minSize, final int level ) {
+		if( minSize < 0 ) {
+			throw new IllegalArgumentException( "minSize must be non-negative" );
+		}
+
+		if( level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION ) {
+			throw new IllegalArgumentException( "level must be between 0 and 9" );
+		}
+
+		_minSize = minSize;
+		_level = level;
+	}
+
+	/**
+	 * @return A compressor configured by the given properties, null if compression is disabled
+	 *
+	 * ng.compression.enabled : Compress responses (default true)
+	 * ng.compression.minSize : Minimum size of a response in bytes for it to get compressed (default 1024)
+	 * ng.compression.level : Compression level, 1 (fastest) to 9 (smallest) (default 6)
+	 */
+	public static NGResponseCompressor fromProperties( final NGProperties properties ) {
+		Objects.requireNonNull( properties );
+
+		if( !properties.getBoolean( "ng.compression.enabled", true ) ) {
+			return null;
+		}
+
+		return new NGResponseCompressor( properties.getLong( "ng.compression.minSize", 1024L ), properties.getInteger( "ng.compression.level", 6 ) );
+	}
+
+	/**
+	 * Compresses the given response's content in place, if it's eligible for compression and the request accepts a content encoding we support
+	 */
+	public void compress( final NGRequest request, final NGResponse response ) {
+		Objects.requireNonNull( request );
+		Objects.requireNonNull( response );
+
+		if( !isEligible( response ) ) {
+			return;
+		}
+
+		// The response's representation now depends on the request's Accept-Encoding, whether we end up compressing or not
+		if( !response.headersForKey( "Vary" ).stream().anyMatch( value -> value.toLowerCase().contains( "accept-encoding" ) ) ) {
+			response.appendHeader( "Vary", "Accept-Encoding" );
+		}
+
+		final String contentEncoding = preferredContentEncoding( request.headerForKey( "accept-encoding" ), true, true );
+
+		if( contentEncoding == null ) {
+			return;
+		}
+
+		if( response.contentWriter() != null ) {
+			final ContentWriter writer = response.contentWriter();
+			response.setContentWriter( out -> {
+				try( final OutputStream compressingStream = compressingStream( contentEncoding, new NonClosingOutputStream( out ) )) {
+					writer.writeTo( compressingStream );
+				}
+			} );
+		}
+		else if( response.contentInputStream() != null ) {
+			// We don't know the length of the compressed stream, so it gets streamed using a content writer
+			final InputStream inputStream = response.contentInputStream();
+			response.setContentInputStream( null, 0 );
+			response.setContentWriter( out -> {
+				try( final InputStream in = inputStream; final OutputStream compressingStream = compressingStream( contentEncoding, new NonClosingOutputStream( out ) )) {
+					in.transferTo( compressingStream );
+				}
+			} );
+		}
+		else {
+			final ByteArrayOutputStream compressedBytes = new ByteArrayOutputStream( (int)(response.contentBytesLength() / 4) );
+
+			try( final OutputStream compressingStream = compressingStream( contentEncoding, compressedBytes )) {
+				response.contentByteStream().writeTo( compressingStream );
+			}
+			catch( IOException e ) {
+				throw new UncheckedIOException( e );
+			}
+
+			// No use in sending a "compressed" response that's larger than the original
+			if( compressedBytes.size() >= response.contentBytesLength() ) {
+				return;
+			}
+
+			response.setContentBytes( compressedBytes.toByteArray() );
+		}
+
+		response.setHeader( "Content-Encoding", contentEncoding );
+
+		// Each representation needs it's own entity tag. Weak tags are fine as they are, since they only promise semantic equivalence
+		final String eTag = response.headerForKey( "ETag" );
+
+		if( eTag != null && eTag.startsWith( "\"" ) ) {
+			response.setHeader( "ETag", eTag.substring( 0, eTag.length() - 1 ) + "-" + contentEncoding + "\"" );
+		}
+	}
+
+	/**
+	 * @return true if the given response is a candidate for compression, regardless of what the client accepts
+	 */
+	private boolean isEligible( final NGResponse response ) {
+
+		// Partial content, redirects, 304s etc. either have no content or content we can't touch
+		if( response.status() != 200 ) {
+			return false;
+		}
+
+		if( !response.isCompressionAllowed() ) {
+			return false;
+		}
+
+		if( response.headerForKey( "Content-Encoding" ) != null ) {
+			return false;
+		}
+
+		// File regions are sent without ever passing through the heap. Files worth compressing should be served from NGResourceDataCache, which keeps compressed variants
+		if( response.contentFileRegion() != null ) {
+			return false;
+		}
+
+		if( !isCompressible( response.headerForKey( "Content-Type" ) ) ) {
+			return false;
+		}
+
+		if( response.contentWriter() != null ) {
+			// We don't know the length of written content, but it's usually written that way because it's big
+			return true;
+		}
+
+		if( response.contentInputStream() != null ) {
+			return response.contentInputStreamLength() >= _minSize;
+		}
+
+		return response.contentBytesLength() >= _minSize;
+	}
+
+	/**
+	 * @return true if content of the given content type is worth compressing
+	 */
+	private static boolean isCompressible( String contentType ) {
+		if( contentType == null ) {
+			return false;
+		}
+
+		final int parameterIndex = contentType.indexOf( ';' );
+
+		if( parameterIndex != -1 ) {
+			contentType = contentType.substring( 0, parameterIndex );
+		}
+
+		return NGResourceDataCache.isCompressible( contentType.strip().toLowerCase() );
+	}
+
+	/**
+	 * @return A stream compressing the data written to it using the given content encoding (at our configured level) to [out]
+	 */
+	private OutputStream compressingStream( final String contentEncoding, final OutputStream out ) throws IOException {
+		return switch( contentEncoding ) {
+			case "gzip" -> new GZIPOutputStream( out, 8192 ) {
+				{
+					// Nothing's been compressed yet, so we can still change the level of the stream's own deflater
+					def.setLevel( _level );
+				}
+			};
+			case "deflate" -> new DeflaterOutputStream( out ) {
+				{
+					def.setLevel( _level );
+				}
+			};
+			default -> throw new IllegalArgumentException( "Unsupported content encoding: " + contentEncoding );
+		};
+	}
+
+	/**
+	 * @return The content encoding to use based on the given Accept-Encoding header ("gzip" or "deflate"), null if the client doesn't accept any of the encodings we have available
+	 *
+	 * The encoding with the highest q-value wins, gzip being preferred if they're equal (it's the more widely supported one).
+	 */
+	public static String preferredContentEncoding( final String acceptEncoding, final boolean gzipAvailable, final boolean deflateAvailable ) {
+		if( acceptEncoding == null ) {
+			return null;
+		}
+
+		// q-values of the encodings we have. -1 means the encoding wasn't mentioned
+		double gzipQ = -1;
+		double deflateQ = -1;
+		double wildcardQ = -1;
+
+		for( final String coding : acceptEncoding.split( "," ) ) {
+			final String[] parts = coding.split( ";" );
+			final String name = parts[0].strip().toLowerCase();
+			double q = 1;
+
+			for( int i = 1; i < parts.length; i++ ) {
+				final String parameter = parts[i].strip();
+
+				if( parameter.startsWith( "q=" ) ) {
+					try {
+						q = Double.parseDouble( parameter.substring( 2 ) );
+					}
+					catch( NumberFormatException e ) {
+						q = 0;
+					}
+				}
+			}
+
+			switch( name ) {
+				case "gzip", "x-gzip" -> gzipQ = q;
+				case "deflate" -> deflateQ = q;
+				case "*" -> wildcardQ = q;
+			}
+		}
+
+		if( gzipQ == -1 ) {
+			gzipQ = Math.max( wildcardQ, 0 );
+		}
+
+		if( deflateQ == -1 ) {
+			deflateQ = Math.max( wildcardQ, 0 );
+		}
+
+		if( !gzipAvailable ) {
+			gzipQ = 0;
+		}
+
+		if( !deflateAvailable ) {
+			deflateQ = 0;
+		}
+
+		if( gzipQ > 0 && gzipQ >= deflateQ ) {
+			return "gzip";
+		}
+
+		if( deflateQ > 0 ) {
+			return "deflate";
+		}
+
+		return null;
+	}
+
+	/**
+	 * Keeps the compressing stream from closing the adaptor's stream, which the adaptor closes itself once it's done with it
+	 */
+	private static class NonClosingOutputStream extends FilterOutputStream {
+
+		public NonClosingOutputStream( final OutputStream out ) {
+			super( out );
+		}
+
+		@Override
+		public void write( final byte[] b, final int off, final int len ) throws IOException {
+			out.write( b, off, len );
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
\ No newline at end of file
@@ -1,16 +1,30 @@
 package ng.appserver;
 
 import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ng.appserver.NGPageCache.SizeListener;
+import ng.appserver.properties.NGProperties;
+
 /**
  * Default session store
  */
@@ -19,8 +33,53 @@ public class NGServerSessionStore extends NGSessionStore {
 
 	private static final Logger logger = LoggerFactory.getLogger( NGServerSessionStore.class );
 
+	/**
+	 * Number of sessions selected in each pass over the stored sessions when enforcing the page cache budget
+	 */
+	private static final int ENFORCEMENT_BATCH_SIZE = 16;
+
 	final Map<String, NGSession> _sessions = new ConcurrentHashMap<>();
 
+	/**
+	 * Scheduled expiration checks for stored sessions, ordered by the time they're due. Allows the reaper to only visit sessions that might actually have expired.
+	 *
+	 * Touching a session doesn't update it's scheduled check (that would mean reordering the queue on every request). Since touching only postpones expiration, the scheduled time is always
+	 * at or before the session's actual expiration date. When a check comes due for a session that has been touched in the meantime, we just reschedule it for it's new expiration date.
+	 */
+	private final PriorityBlockingQueue<ExpirationCheck> _expirationChecks = new PriorityBlockingQueue<>( 11, Comparator.comparing( ExpirationCheck::dueDate ) );
+
+	/**
+	 * The currently scheduled expiration check for each stored session, by sessionID. Checks in the queue that aren't current (superseded by an earlier check or belonging to a removed session) are discarded when they come due.
+	 */
+	private final Map<String, ExpirationCheck> _currentExpirationChecks = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of sessions removed by the reaper since the store was created
+	 */
+	private final LongAdder _reapedSessionCount = new LongAdder();
+
+	/**
+	 * A scheduled check on whether the session with the given ID has expired.
+	 *
+	 * References the session by ID rather than holding on to it, since superseded checks stay in the queue until they come due and shouldn't keep removed sessions (and their page caches) alive.
+	 */
+	private record ExpirationCheck( Instant dueDate, String sessionID ) {}
+
+	/**
+	 * Runs the session reaper, along with page cache budget enforcement
+	 */
+	private final Timer _timer = new Timer( "SessionReaper", true );
+
+	/**
+	 * Application wide limit on the size of all stored sessions' page caches. Unlimited by default.
+	 */
+	private volatile PageCacheBudget _pageCacheBudget = PageCacheBudget.UNLIMITED;
+
+	/**
+	 * Keeps track of the total size of all stored sessions' page caches
+	 */
+	private final PageCacheUsage _pageCacheUsage = new PageCacheUsage();
+
 	public NGServerSessionStore() {
 		startExpiredSessionReaperThread();
 	}
@@ -32,35 +91,316 @@ public class NGServerSessionStore extends NGSessionStore {
 		final TimerTask sessionReaperTask = new TimerTask() {
 			@Override
 			public void run() {
-
-				// FIXME: This is, of course, horribly inefficient // Hugi 2023-01-21
-				for( final NGSession session : sessions() ) {
-					if( session.shouldTerminate() ) {
-						_sessions.remove( session.sessionID() );
-						logger.debug( "Terminated session with ID {}", session.sessionID() );
-					}
+				// An exception would kill the timer thread, so we make sure not to let one escape
+				try {
+					reapExpiredSessions();
+				}
+				catch( RuntimeException e ) {
+					logger.error( "Failed to reap expired sessions", e );
 				}
 			}
 		};
 
-		final Timer timer = new Timer( "SessionReaper", true );
 		final long timeBeforeFirstExecution = Duration.ofSeconds( 5 ).toMillis();
 		final long timeBetweenExecutions = Duration.ofSeconds( 5 ).toMillis();
-		timer.schedule( sessionReaperTask, timeBeforeFirstExecution, timeBetweenExecutions ); // FIXME: These execution times need further consideration // Hugi 2023-01-21
+		_timer.schedule( sessionReaperTask, timeBeforeFirstExecution, timeBetweenExecutions ); // FIXME: These execution times need further consideration // Hugi 2023-01-21
+	}
+
+	/**
+	 * Removes sessions whose expiration checks have come due and that have actually expired (or been terminated). Sessions that have been touched since their check was scheduled get rescheduled.
+	 *
+	 * Only invoked by the reaper thread (and tests), so we're the only consumer of the queue.
+	 */
+	void reapExpiredSessions() {
+		final Instant now = Instant.now();
+
+		ExpirationCheck check;
+
+		while( (check = _expirationChecks.peek()) != null && !check.dueDate().isAfter( now ) ) {
+			_expirationChecks.poll();
+
+			if( _currentExpirationChecks.get( check.sessionID() ) != check ) {
+				continue;
+			}
+
+			final NGSession session = _sessions.get( check.sessionID() );
+
+			if( session == null ) {
+				_currentExpirationChecks.remove( check.sessionID() );
+				continue;
+			}
+
+			if( session.shouldTerminate() ) {
+				removeSession( session );
+				_reapedSessionCount.increment();
+				logger.debug( "Terminated session with ID {}", session.sessionID() );
+			}
+			else {
+				final ExpirationCheck rescheduledCheck = new ExpirationCheck( session.expirationDate(), session.sessionID() );
+
+				// If the session's expiration listener scheduled a check since we polled ours (say, because the session just got terminated), that check stands
+				if( _currentExpirationChecks.replace( session.sessionID(), check, rescheduledCheck ) ) {
+					_expirationChecks.add( rescheduledCheck );
+				}
+			}
+		}
+	}
+
+	/**
+	 * Schedules a check on the given session's expiration at the given time
+	 */
+	private void scheduleExpirationCheck( final NGSession session, final Instant dueDate ) {
+		final ExpirationCheck check = new ExpirationCheck( dueDate, session.sessionID() );
+		_currentExpirationChecks.put( session.sessionID(), check );
+		_expirationChecks.add( check );
 	}
 
 	@Override
-	public NGSession checkoutSessionWithID( final String sessionID ) {
+	protected NGSession sessionWithID( final String sessionID ) {
 		return _sessions.get( sessionID );
 	}
 
 	@Override
 	public void storeSession( NGSession session ) {
 		_sessions.put( session.sessionID(), session );
+		session.pageCache().setSizeListener( _pageCacheUsage );
+
+		// If the session's expiration date moves closer, we schedule a check for the new date (superseding the one already scheduled)
+		session.setExpirationListener( s -> scheduleExpirationCheck( s, s.shouldTerminate() ? Instant.now() : s.expirationDate() ) );
+		scheduleExpirationCheck( session, session.expirationDate() );
+	}
+
+	/**
+	 * Removes the given session from the store
+	 */
+	protected void removeSession( final NGSession session ) {
+		_sessions.remove( session.sessionID() );
+		session.pageCache().setSizeListener( null );
+		session.setExpirationListener( null );
+		_currentExpirationChecks.remove( session.sessionID() );
 	}
 
 	@Override
 	public List<NGSession> sessions() {
 		return new ArrayList<>( _sessions.values() );
 	}
+
+	/**
+	 * Stops the session reaper. The store shouldn't be used after it's been closed.
+	 */
+	public void close() {
+		_timer.cancel();
+	}
+
+	/**
+	 * @return The number of sessions currently in the store
+	 */
+	public int activeSessionCount() {
+		return _sessions.size();
+	}
+
+	/**
+	 * @return The number of expired/terminated sessions removed by the session reaper since the store was created
+	 */
+	public long reapedSessionCount() {
+		return _reapedSessionCount.sum();
+	}
+
+	/**
+	 * @return The application wide page cache budget
+	 */
+	public PageCacheBudget pageCacheBudget() {
+		return _pageCacheBudget;
+	}
+
+	/**
+	 * Sets the application wide page cache budget. When the total size of all sessions' page caches exceeds the budget, pages get evicted from the least recently touched sessions first.
+	 */
+	public void setPageCacheBudget( final PageCacheBudget pageCacheBudget ) {
+		Objects.requireNonNull( pageCacheBudget );
+		_pageCacheBudget = pageCacheBudget;
+		_pageCacheUsage.scheduleEnforcementIfOverBudget();
+	}
+
+	/**
+	 * @return The total number of pages currently stored in all sessions' page caches
+	 */
+	public long pageCacheTotalPageCount() {
+		return _pageCacheUsage._pageCount.get();
+	}
+
+	/**
+	 * @return The estimated number of bytes currently retained by all sessions' page caches
+	 */
+	public long pageCacheTotalEstimatedBytes() {
+		return _pageCacheUsage._estimatedBytes.get();
+	}
+
+	/**
+	 * Evicts pages until we're within the page cache budget.
+	 *
+	 * The coldest pages of the coldest sessions go first, i.e. we start evicting the oldest pages of the least recently touched session, and only move on to the next session once that session's page cache is empty.
+	 */
+	private void enforcePageCacheBudget() {
+		if( !_pageCacheBudget.isExceeded( pageCacheTotalPageCount(), pageCacheTotalEstimatedBytes() ) ) {
+			return;
+		}
+
+		// Sessions we've already emptied, so the next batch doesn't select them again
+		final Set<NGSession> visitedSessions = Collections.newSetFromMap( new IdentityHashMap<>() );
+
+		int evictedPageCount = 0;
+
+		while( _pageCacheBudget.isExceeded( pageCacheTotalPageCount(), pageCacheTotalEstimatedBytes() ) ) {
+			final List<NGSession> coldestSessions = coldestSessions( visitedSessions );
+
+			if( coldestSessions.isEmpty() ) {
+				// Every session's page cache is empty, nothing left to evict
+				break;
+			}
+
+			for( final NGSession session : coldestSessions ) {
+				visitedSessions.add( session );
+
+				while( _pageCacheBudget.isExceeded( pageCacheTotalPageCount(), pageCacheTotalEstimatedBytes() ) ) {
+					if( !session.pageCache().evictOldestPage() ) {
+						// This session's page cache is empty, move on to the next one
+						break;
+					}
+
+					evictedPageCount++;
+				}
+
+				if( !_pageCacheBudget.isExceeded( pageCacheTotalPageCount(), pageCacheTotalEstimatedBytes() ) ) {
+					break;
+				}
+			}
+		}
+
+		logger.debug( "Evicted {} pages to enforce the page cache budget. Page cache now holds {} pages, estimated at {} bytes", evictedPageCount, pageCacheTotalPageCount(), pageCacheTotalEstimatedBytes() );
+	}
+
+	/**
+	 * @return Up to ENFORCEMENT_BATCH_SIZE of the least recently touched stored sessions, least recently touched first, not including [excludedSessions]
+	 *
+	 * Selected in a single pass over the stored sessions using a bounded heap, so enforcing the budget doesn't mean copying and sorting every stored session.
+	 * Each session's lastTouched is read once, since sessions keep getting touched while we're looking.
+	 */
+	private List<NGSession> coldestSessions( final Set<NGSession> excludedSessions ) {
+		final Comparator<SessionLastTouched> coldestFirst = Comparator.comparing( SessionLastTouched::lastTouched );
+
+		// The heap's head is the most recently touched session we've selected, i.e. the first one to go once we find a colder one
+		final PriorityQueue<SessionLastTouched> heap = new PriorityQueue<>( ENFORCEMENT_BATCH_SIZE + 1, coldestFirst.reversed() );
+
+		for( final NGSession session : _sessions.values() ) {
+			if( !excludedSessions.contains( session ) ) {
+				heap.add( new SessionLastTouched( session, session.lastTouched() ) );
+
+				if( heap.size() > ENFORCEMENT_BATCH_SIZE ) {
+					heap.poll();
+				}
+			}
+		}
+
+		return heap
+				.stream()
+				.sorted( coldestFirst )
+				.map( SessionLastTouched::session )
+				.toList();
+	}
+
+	private record SessionLastTouched( NGSession session, Instant lastTouched ) {}
+
+	/**
+	 * An application wide limit on the total size of the page caches of all sessions.
+	 *
+	 * @param maxPageCount Maximum number of pages, null for no limit
+	 * @param maxEstimatedBytes Maximum estimated number of bytes retained by the pages, null for no limit. Only pages cached using an eviction policy that estimates page sizes count towards this limit.
+	 */
+	public record PageCacheBudget( Long maxPageCount, Long maxEstimatedBytes ) {
+
+		public static final PageCacheBudget UNLIMITED = new PageCacheBudget( null, null );
+
+		/**
+		 * @return true if the given page count/estimated size exceeds the budget
+		 */
+		public boolean isExceeded( final long pageCount, final long estimatedBytes ) {
+			if( maxPageCount != null && pageCount > maxPageCount ) {
+				return true;
+			}
+
+			if( maxEstimatedBytes != null && estimatedBytes > maxEstimatedBytes ) {
+				return true;
+			}
+
+			return false;
+		}
+
+		/**
+		 * @return The budget configured by the given properties
+		 *
+		 * ng.pageCache.budget.maxPageCount : Maximum total number of pages in all sessions' page caches (default unlimited)
+		 * ng.pageCache.budget.maxEstimatedBytes : Maximum total estimated number of bytes retained by all sessions' page caches (default unlimited). Only has an effect with the "memory" page cache policy.
+		 */
+		public static PageCacheBudget fromProperties( final NGProperties properties ) {
+			Objects.requireNonNull( properties );
+
+			final Long maxEstimatedBytes = properties.getLong( "ng.pageCache.budget.maxEstimatedBytes", null );
+
+			// Other policies don't estimate page sizes, so their pages count as zero bytes and the limit would silently never be reached
+			if( maxEstimatedBytes != null && !"memory".equals( properties.get( "ng.pageCache.policy", "lru" ) ) ) {
+				logger.warn( "ng.pageCache.budget.maxEstimatedBytes is set, but only pages cached using the 'memory' page cache policy (ng.pageCache.policy) have estimated sizes. The limit will not be enforced" );
+			}
+
+			return new PageCacheBudget( properties.getLong( "ng.pageCache.budget.maxPageCount", null ), maxEstimatedBytes );
+		}
+	}
+
+	/**
+	 * Listens to changes in the sessions' page caches to keep a running total of their size
+	 */
+	private class PageCacheUsage implements SizeListener {
+
+		private final AtomicLong _pageCount = new AtomicLong();
+		private final AtomicLong _estimatedBytes = new AtomicLong();
+
+		/**
+		 * Set while a budget enforcement is scheduled, so we only ever have one enforcement in the queue
+		 */
+		private final AtomicBoolean _enforcementScheduled = new AtomicBoolean();
+
+		@Override
+		public void sizeChanged( final int pageCountDelta, final long estimatedBytesDelta ) {
+			_pageCount.addAndGet( pageCountDelta );
+			_estimatedBytes.addAndGet( estimatedBytesDelta );
+
+			if( pageCountDelta > 0 || estimatedBytesDelta > 0 ) {
+				scheduleEnforcementIfOverBudget();
+			}
+		}
+
+		/**
+		 * Schedules enforcement of the budget on the store's timer thread.
+		 *
+		 * We don't enforce directly, since we get notified while a page cache's lock is held, and enforcement means evicting from other sessions' page caches.
+		 */
+		private void scheduleEnforcementIfOverBudget() {
+			if( _pageCacheBudget.isExceeded( _pageCount.get(), _estimatedBytes.get() ) && _enforcementScheduled.compareAndSet( false, true ) ) {
+				_timer.schedule( new TimerTask() {
+					@Override
+					public void run() {
+						_enforcementScheduled.set( false );
+
+						// An exception would kill the timer thread (along with the session reaper), so we make sure not to let one escape
+						try {
+							enforcePageCacheBudget();
+						}
+						catch( RuntimeException e ) {
+							logger.error( "Failed to enforce the page cache budget", e );
+						}
+					}
+				}, 0 );
+			}
+		}
+	}
 }
\ No newline at end of file
@@ -1,8 +1,12 @@
 package ng.appserver;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,13 +21,15 @@ public class NGSession {
 
 	/**
 	 * A unique identifier for this session
+	 *
+	 * CHECKME: Not final since a persistent session store needs to restore it after constructing the session instance. See _restore()
 	 */
-	private final String _sessionID;
+	private String _sessionID;
 
 	/**
 	 * The birth date of this session
 	 */
-	private final Instant _birthDate;
+	private Instant _birthDate;
 
 	/**
 	 * The time at which this session was last touched
@@ -50,6 +56,12 @@ public class NGSession {
 	 */
 	private NGPageCache _pageCache = new NGPageCache();
 
+	/**
+	 * Notified when the session's expiration date moves closer (i.e. when it's terminated or it's timeout is changed), allowing session storage to check on it sooner than planned.
+	 * Not notified by touch() since that only ever postpones expiration.
+	 */
+	private volatile Consumer<NGSession> _expirationListener;
+
 	public NGSession() {
 		this( UUID.randomUUID().toString() );
 	}
@@ -73,6 +85,37 @@ public class NGSession {
 		return contextID;
 	}
 
+	/**
+	 * @return The ID the next context rendered by this session will get
+	 */
+	int currentContextID() {
+		return currentContextID;
+	}
+
+	/**
+	 * Restores the state of a session that has been persisted by a session store. Invoked on a freshly constructed session instance, before it's handed out.
+	 */
+	void _restore( final String sessionID, final Instant birthDate, final Instant lastTouched, final Duration timeOut, final int contextID ) {
+		_sessionID = sessionID;
+		_birthDate = birthDate;
+		_lastTouched = lastTouched;
+		_timeOut = timeOut;
+		currentContextID = contextID;
+	}
+
+	/**
+	 * Writes any custom state that should survive an application restart when using a persistent session store (for example the ID of a logged in user).
+	 * Does nothing by default. Subclasses overriding this must override readState() as well.
+	 *
+	 * Note that the session's page cache never gets persisted.
+	 */
+	protected void writeState( final DataOutput out ) throws IOException {}
+
+	/**
+	 * Reads custom state written by writeState() when the session is restored by a persistent session store
+	 */
+	protected void readState( final DataInput in ) throws IOException {}
+
 	/**
 	 * @return This session's ID (stored in a cookie on the client browser to identify the session)
 	 */
@@ -108,6 +151,18 @@ public class NGSession {
 		return _timeOut;
 	}
 
+	/**
+	 * Sets the session's timeout
+	 */
+	public void setTimeOut( final Duration timeOut ) {
+		final Duration previousTimeOut = _timeOut;
+		_timeOut = timeOut;
+
+		if( timeOut.compareTo( previousTimeOut ) < 0 ) {
+			notifyExpirationListener();
+		}
+	}
+
 	/**
 	 * @return The default timeout for a session
 	 *
@@ -121,7 +176,14 @@ public class NGSession {
 	 * @return true if the session has timed out (and is thus due to be harvested/erased
 	 */
 	private boolean isTimedOut() {
-		return lastTouched().plus( timeOut() ).isBefore( Instant.now() );
+		return expirationDate().isBefore( Instant.now() );
+	}
+
+	/**
+	 * @return The time at which this session will time out, unless touched before that
+	 */
+	public Instant expirationDate() {
+		return lastTouched().plus( timeOut() );
 	}
 
 	/**
@@ -136,6 +198,22 @@ public class NGSession {
 	 */
 	public void terminate() {
 		_manuallyTerminated = true;
+		notifyExpirationListener();
+	}
+
+	/**
+	 * Sets the listener to notify when the session's expiration date moves closer. Used by session storage.
+	 */
+	void setExpirationListener( final Consumer<NGSession> expirationListener ) {
+		_expirationListener = expirationListener;
+	}
+
+	private void notifyExpirationListener() {
+		final Consumer<NGSession> expirationListener = _expirationListener;
+
+		if( expirationListener != null ) {
+			expirationListener.accept( this );
+		}
 	}
 
 	/**
@@ -0,0 +1,21 @@
+package ng.appserver;
+
+import java.time.Duration;
+
+/**
+ * Thrown when a request gives up waiting for a session checked out by another request
+ */
+
+public class NGSessionCheckoutTimeoutException extends RuntimeException {
+
+	private final String _sessionID;
+
+	public NGSessionCheckoutTimeoutException( final String sessionID, final Duration checkoutTimeout ) {
+		super( "Timed out after %s ms waiting to check out session '%s'".formatted( checkoutTimeout.toMillis(), sessionID ) );
+		_sessionID = sessionID;
+	}
+
+	public String sessionID() {
+		return _sessionID;
+	}
+}
\ No newline at end of file
@@ -1,14 +1,37 @@
 package ng.appserver;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Defines the basic methods required for a session store implementation
+ *
+ * Requests using the same session are serialized. A request checks out it's session using checkoutSessionWithID() and checks it back in using checkinSession() once it's done with it,
+ * and while a session is checked out, other requests for it wait (in the order they arrived) for it to be checked back in.
+ * Each session gets it's own lock, so requests for different sessions never wait for each other. A lock only exists while a request is using (or waiting for) the session.
  */
 
 public abstract class NGSessionStore {
 
-	public abstract NGSession checkoutSessionWithID( final String sessionID );
+	/**
+	 * Locks used for serializing access to sessions, keyed by session ID. Fair, so requests for a session get served in the order they arrived.
+	 */
+	private final Map<String, SessionLock> _sessionLocks = new ConcurrentHashMap<>();
+
+	/**
+	 * The maximum time a request will wait to check out a session currently checked out by another request
+	 */
+	private volatile Duration _checkoutTimeout = Duration.ofSeconds( 30 );
+
+	/**
+	 * @return The session with the given ID, null if not found. Does not check the session out.
+	 */
+	protected abstract NGSession sessionWithID( final String sessionID );
 
 	public abstract void storeSession( final NGSession session );
 
@@ -16,4 +39,103 @@ public abstract class NGSessionStore {
 	 * @return All sessions stored by this session store.
 	 */
 	public abstract List<NGSession> sessions();
+
+	/**
+	 * @return The session with the given ID, null if not found. If the session is found, it's checked out by the current thread until it's checked back in using checkinSession().
+	 *
+	 * If the session is currently checked out by another thread, waits for it to be checked back in, throwing an NGSessionCheckoutTimeoutException if that takes longer than the store's checkout timeout.
+	 */
+	public NGSession checkoutSessionWithID( final String sessionID ) {
+		Objects.requireNonNull( sessionID );
+
+		final SessionLock lock = acquireLock( sessionID );
+
+		try {
+			if( !lock.tryLock( _checkoutTimeout.toMillis(), TimeUnit.MILLISECONDS ) ) {
+				releaseLock( sessionID );
+				throw new NGSessionCheckoutTimeoutException( sessionID, _checkoutTimeout );
+			}
+		}
+		catch( InterruptedException e ) {
+			releaseLock( sessionID );
+			Thread.currentThread().interrupt();
+			throw new NGSessionCheckoutTimeoutException( sessionID, _checkoutTimeout );
+		}
+
+		final NGSession session = sessionWithID( sessionID );
+
+		// Nothing to check out, so no reason to keep other requests waiting
+		if( session == null ) {
+			lock.unlock();
+			releaseLock( sessionID );
+		}
+
+		return session;
+	}
+
+	/**
+	 * Invoked once the application is done handling a request that used the given session, allowing other requests to check it out.
+	 *
+	 * Does nothing if the current thread doesn't have the session checked out
+	 */
+	public void checkinSession( final NGSession session ) {
+		final SessionLock lock = _sessionLocks.get( session.sessionID() );
+
+		if( lock != null && lock.isHeldByCurrentThread() ) {
+			lock.unlock();
+			releaseLock( session.sessionID() );
+		}
+	}
+
+	/**
+	 * @return The maximum time a request will wait to check out a session currently checked out by another request
+	 */
+	public Duration checkoutTimeout() {
+		return _checkoutTimeout;
+	}
+
+	/**
+	 * Sets the maximum time a request will wait to check out a session currently checked out by another request
+	 */
+	public void setCheckoutTimeout( final Duration checkoutTimeout ) {
+		Objects.requireNonNull( checkoutTimeout );
+		_checkoutTimeout = checkoutTimeout;
+	}
+
+	/**
+	 * @return The number of sessions currently checked out or waited for
+	 */
+	int sessionLockCount() {
+		return _sessionLocks.size();
+	}
+
+	/**
+	 * @return The lock guarding the session with the given ID, registering the current thread as one of it's users
+	 */
+	private SessionLock acquireLock( final String sessionID ) {
+		return _sessionLocks.compute( sessionID, ( id, existingLock ) -> {
+			final SessionLock lock = existingLock != null ? existingLock : new SessionLock();
+			lock._userCount++;
+			return lock;
+		} );
+	}
+
+	/**
+	 * Unregisters a user of the given session's lock, discarding the lock once it has no users left
+	 */
+	private void releaseLock( final String sessionID ) {
+		_sessionLocks.computeIfPresent( sessionID, ( id, lock ) -> --lock._userCount == 0 ? null : lock );
+	}
+
+	/**
+	 * A session's lock, along with the number of checkouts holding or waiting for it. The user count is only modified within the lock map's compute methods.
+	 */
+	private static class SessionLock extends ReentrantLock {
+
+		private int _userCount;
+
+		public SessionLock() {
+			super( true );
+		}
+	}
 }
\ No newline at end of file
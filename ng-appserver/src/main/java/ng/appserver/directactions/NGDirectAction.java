@@ -1,9 +1,17 @@
 package ng.appserver.directactions;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import ng.appserver.NGActionResults;
 import ng.appserver.NGApplication;
 import ng.appserver.NGComponent;
@@ -43,15 +51,102 @@ public class NGDirectAction {
 	 * Invokes the method with the given name + "Action" and returns the result.
 	 */
 	public NGActionResults performActionNamed( final String directActionName ) {
+		final MethodHandle action = DirectActionClass.of( getClass() ).action( directActionName );
+
+		if( action == null ) {
+			return new NGResponse( "No direct action method called " + directActionName, 404 );
+		}
+
 		try {
-			final Method method = getClass().getMethod( directActionName + "Action", new Class[] {} );
-			return (NGActionResults)method.invoke( this );
+			return (NGActionResults)action.invokeExact( this );
 		}
-		catch( final NoSuchMethodException e ) {
-			return new NGResponse( "No direct action method called " + directActionName, 404 );
+		catch( RuntimeException | Error e ) {
+			throw e;
 		}
-		catch( SecurityException | IllegalAccessException | IllegalArgumentException | InvocationTargetException e ) {
+		catch( Throwable e ) {
 			throw new RuntimeException( e );
 		}
 	}
+
+	/**
+	 * The constructor and action methods of a direct action class, resolved once per class and invoked through MethodHandles.
+	 * Resolving them by reflection on every request is way too expensive.
+	 */
+	static class DirectActionClass {
+
+		private static final Logger logger = LoggerFactory.getLogger( DirectActionClass.class );
+
+		private static final ClassValue<DirectActionClass> _directActionClasses = new ClassValue<>() {
+			@Override
+			protected DirectActionClass computeValue( final Class<?> type ) {
+				return new DirectActionClass( type.asSubclass( NGDirectAction.class ) );
+			}
+		};
+
+		/**
+		 * The class' (NGRequest) constructor, typed as (NGRequest)NGDirectAction. null if the class doesn't have an accessible one.
+		 */
+		private final MethodHandle _constructor;
+
+		/**
+		 * The class' action methods keyed by action name (method name without the "Action" suffix), typed as (NGDirectAction)NGActionResults
+		 */
+		private final Map<String, MethodHandle> _actions;
+
+		private DirectActionClass( final Class<? extends NGDirectAction> directActionClass ) {
+			final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+			MethodHandle constructor = null;
+
+			try {
+				constructor = lookup
+						.findConstructor( directActionClass, MethodType.methodType( void.class, NGRequest.class ) )
+						.asType( MethodType.methodType( NGDirectAction.class, NGRequest.class ) );
+			}
+			catch( NoSuchMethodException | IllegalAccessException e ) {
+				logger.debug( "Direct action class '{}' has no accessible constructor taking an NGRequest", directActionClass.getName() );
+			}
+
+			_constructor = constructor;
+
+			final Map<String, MethodHandle> actions = new HashMap<>();
+
+			for( final Method method : directActionClass.getMethods() ) {
+				final String methodName = method.getName();
+
+				if( methodName.endsWith( "Action" ) && method.getParameterCount() == 0 && !Modifier.isStatic( method.getModifiers() ) && NGActionResults.class.isAssignableFrom( method.getReturnType() ) ) {
+					try {
+						final String actionName = methodName.substring( 0, methodName.length() - "Action".length() );
+						actions.put( actionName, lookup.unreflect( method ).asType( MethodType.methodType( NGActionResults.class, NGDirectAction.class ) ) );
+					}
+					catch( IllegalAccessException e ) {
+						logger.warn( "Direct action method '{}' is not accessible", method, e );
+					}
+				}
+			}
+
+			_actions = Map.copyOf( actions );
+		}
+
+		/**
+		 * @return The dispatch information for the given direct action class
+		 */
+		static DirectActionClass of( final Class<? extends NGDirectAction> directActionClass ) {
+			return _directActionClasses.get( directActionClass );
+		}
+
+		/**
+		 * @return A handle for the class' (NGRequest) constructor, null if it doesn't have an accessible one
+		 */
+		MethodHandle constructor() {
+			return _constructor;
+		}
+
+		/**
+		 * @return A handle for the named action's method, null if the class doesn't have the action
+		 */
+		MethodHandle action( final String actionName ) {
+			return _actions.get( actionName );
+		}
+	}
 }
\ No newline at end of file
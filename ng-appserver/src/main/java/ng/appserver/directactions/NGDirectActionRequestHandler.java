@@ -1,7 +1,6 @@
 package ng.appserver.directactions;
 
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
 import java.util.Optional;
 
 import ng.appserver.NGActionResults;
@@ -9,10 +8,13 @@ import ng.appserver.NGElementUtils;
 import ng.appserver.NGRequest;
 import ng.appserver.NGRequestHandler;
 import ng.appserver.NGResponse;
+import ng.appserver.directactions.NGDirectAction.DirectActionClass;
 import ng.appserver.privates.NGParsedURI;
 
 /**
- * CHECKME: We need to cache both action classes and methods // Hugi 2024-08-14
+ * Handles requests for direct actions, i.e. URLs of the form /wa/[DirectActionClass]/[actionName]
+ *
+ * Direct action classes are resolved by NGElementUtils, while their constructors and action methods get resolved once per class (see NGDirectAction.DirectActionClass).
  */
 
 public class NGDirectActionRequestHandler extends NGRequestHandler {
@@ -38,16 +40,33 @@ public class NGDirectActionRequestHandler extends NGRequestHandler {
 			directActionMethodName = Optional.of( "default" );
 		}
 
+		// FIXME: We're using the Dynamic Element class locator to find the class by the simple name. This needs redesign // Hugi 2023-03-17
+		final Class<?> directActionClass = NGElementUtils.classWithNameNullIfNotFound( directActionClassName.get() );
+
+		// Only direct action classes get to handle requests, not just any class with a matching name
+		if( directActionClass == null || !NGDirectAction.class.isAssignableFrom( directActionClass ) ) {
+			return new NGResponse( "No direct action class named " + directActionClassName.get(), 404 );
+		}
+
+		final MethodHandle constructor = DirectActionClass.of( directActionClass.asSubclass( NGDirectAction.class ) ).constructor();
+
+		if( constructor == null ) {
+			throw new IllegalStateException( "Direct action class '%s' does not have a public constructor taking an NGRequest".formatted( directActionClass.getName() ) );
+		}
+
+		final NGDirectAction instance;
+
 		try {
-			// FIXME: We're using the Dynamic Element class locator to find the class by the simple name. This needs redesign // Hugi 2023-03-17
-			final Class<? extends NGDirectAction> directActionClass = NGElementUtils.classWithNameNullIfNotFound( directActionClassName.get() );
-			final Constructor<? extends NGDirectAction> constructor = directActionClass.getConstructor( NGRequest.class );
-			final NGDirectAction instance = constructor.newInstance( request );
-			final NGActionResults actionResults = instance.performActionNamed( directActionMethodName.get() );
-			return actionResults.generateResponse();
+			instance = (NGDirectAction)constructor.invokeExact( request );
 		}
-		catch( /* ClassNotFoundException |*/ InstantiationException | IllegalAccessException | IllegalArgumentException | InvocationTargetException | NoSuchMethodException | SecurityException e ) {
+		catch( RuntimeException | Error e ) {
+			throw e;
+		}
+		catch( Throwable e ) {
 			throw new RuntimeException( e );
 		}
+
+		final NGActionResults actionResults = instance.performActionNamed( directActionMethodName.get() );
+		return actionResults.generateResponse();
 	}
 }
\ No newline at end of file
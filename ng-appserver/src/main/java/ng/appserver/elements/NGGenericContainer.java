@@ -8,6 +8,8 @@ import ng.appserver.NGBindingConfigurationException;
 import ng.appserver.NGContext;
 import ng.appserver.NGElement;
 import ng.appserver.NGResponse;
+import ng.appserver.privates.NGHTMLUtilities;
+import ng.appserver.privates.NGHTMLUtilities.EscapeMode;
 import ng.appserver.privates._NGUtilities;
 
 public class NGGenericContainer extends NGDynamicGroup {
@@ -42,26 +44,26 @@ public class NGGenericContainer extends NGDynamicGroup {
 		else {
 			final String elementName = (String)elementNameAssociation.valueInComponent( context.component() );
 
-			final StringBuilder b = new StringBuilder();
-
-			b.append( "<" + elementName );
+			response.appendContentCharacter( '<' );
+			response.appendContentString( elementName );
 
 			_additionalAssociations.forEach( ( name, ass ) -> {
 				final Object value = ass.valueInComponent( context.component() );
 
 				if( value != null ) {
-					b.append( " " );
-					b.append( name );
-					b.append( "=" );
-					b.append( "\"" + value + "\"" );
+					response.appendContentCharacter( ' ' );
+					response.appendContentString( name );
+					response.appendContentString( "=\"" );
+					NGHTMLUtilities.appendEscapedHTML( response, value.toString(), EscapeMode.ATTRIBUTE );
+					response.appendContentCharacter( '"' );
 				}
 			} );
 
-			b.append( ">" );
-
-			response.appendContentString( b.toString() );
+			response.appendContentCharacter( '>' );
 			appendChildrenToResponse( response, context );
-			response.appendContentString( "</" + elementName + ">" );
+			response.appendContentString( "</" );
+			response.appendContentString( elementName );
+			response.appendContentCharacter( '>' );
 		}
 	}
 }
\ No newline at end of file
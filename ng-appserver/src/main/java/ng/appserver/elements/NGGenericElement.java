@@ -9,6 +9,8 @@ import ng.appserver.NGContext;
 import ng.appserver.NGDynamicElement;
 import ng.appserver.NGElement;
 import ng.appserver.NGResponse;
+import ng.appserver.privates.NGHTMLUtilities;
+import ng.appserver.privates.NGHTMLUtilities.EscapeMode;
 
 /**
  * CHECKME: NGGenericElement and NGGenericContainer share a lot of code, we could probably simplify this // Hugi 2022-10-13
@@ -38,24 +40,22 @@ public class NGGenericElement extends NGDynamicElement {
 	public void appendToResponse( NGResponse response, NGContext context ) {
 		final String elementName = (String)elementNameAssociation.valueInComponent( context.component() );
 
-		final StringBuilder b = new StringBuilder();
-
-		b.append( "<" + elementName );
+		response.appendContentCharacter( '<' );
+		response.appendContentString( elementName );
 
 		_additionalAssociations.forEach( ( name, ass ) -> {
 			final Object value = ass.valueInComponent( context.component() );
 
 			if( value != null ) {
-				b.append( " " );
-				b.append( name );
-				b.append( "=" );
-				b.append( "\"" + value + "\"" );
+				response.appendContentCharacter( ' ' );
+				response.appendContentString( name );
+				response.appendContentString( "=\"" );
+				NGHTMLUtilities.appendEscapedHTML( response, value.toString(), EscapeMode.ATTRIBUTE );
+				response.appendContentCharacter( '"' );
 			}
 		} );
 
 		// We might want to add a binding to specify if non-container elements are "closed" (i.e. a closing slash is added)
-		b.append( " />" );
-
-		response.appendContentString( b.toString() );
+		response.appendContentString( " />" );
 	}
 }
\ No newline at end of file
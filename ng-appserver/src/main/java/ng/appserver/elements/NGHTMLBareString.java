@@ -1,23 +1,39 @@
 package ng.appserver.elements;
 
+import java.nio.charset.StandardCharsets;
+
 import ng.appserver.NGContext;
 import ng.appserver.NGElement;
 import ng.appserver.NGResponse;
 
 /**
  * Represents a plain, non-dynamic HTML string
+ *
+ * The string is UTF-8 encoded once at construction, so rendering it is just a copy of the bytes into the response.
  */
 
 public class NGHTMLBareString implements NGElement {
 
-	private final String _string;
+	private final byte[] _bytes;
 
 	public NGHTMLBareString( final String string ) {
-		_string = string;
+		_bytes = string.getBytes( StandardCharsets.UTF_8 );
+	}
+
+	/**
+	 * @return The string this element renders
+	 */
+	public String string() {
+		return new String( _bytes, StandardCharsets.UTF_8 );
 	}
 
 	@Override
 	public void appendToResponse( final NGResponse response, final NGContext context ) {
-		response.appendContentString( _string );
+		response.appendContentBytes( _bytes );
+	}
+
+	@Override
+	public String toString() {
+		return "NGHTMLBareString [" + string() + "]";
 	}
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ import ng.appserver.NGDynamicElement;
 import ng.appserver.NGElement;
 import ng.appserver.NGResponse;
 import ng.appserver.privates.NGHTMLUtilities;
+import ng.appserver.privates.NGHTMLUtilities.EscapeMode;
 
 public class NGString extends NGDynamicElement {
 
@@ -78,7 +79,7 @@ public class NGString extends NGDynamicElement {
 				escapeHTML = (boolean)_escapeHTMLAssociation.valueInComponent( context.component() );
 			}
 
-			String string;
+			final String string;
 
 			if( _formatterAssociation != null ) {
 				final Format formatter = (Format)_formatterAssociation.valueInComponent( context.component() );
@@ -89,10 +90,12 @@ public class NGString extends NGDynamicElement {
 			}
 
 			if( escapeHTML ) {
-				string = NGHTMLUtilities.escapeHTML( string );
+				// We escape quotes as well, since a string can be used within an attribute value in a template
+				NGHTMLUtilities.appendEscapedHTML( response, string, EscapeMode.ATTRIBUTE );
+			}
+			else {
+				response.appendContentString( string );
 			}
-
-			response.appendContentString( string );
 		}
 	}
 
@@ -12,6 +12,7 @@ import ng.appserver.NGElement;
 import ng.appserver.NGRequest;
 import ng.appserver.NGResponse;
 import ng.appserver.privates.NGHTMLUtilities;
+import ng.appserver.privates.NGHTMLUtilities.EscapeMode;
 
 /**
  * A text area
@@ -81,8 +82,7 @@ public class NGText extends NGDynamicElement {
 		response.appendContentString( NGHTMLUtilities.createElementStringWithAttributes( "textarea", attributes, false ) );
 
 		if( value != null ) {
-			final String escapedValue = NGHTMLUtilities.escapeHTML( value.toString() );
-			response.appendContentString( escapedValue );
+			NGHTMLUtilities.appendEscapedHTML( response, value.toString(), EscapeMode.TEXT );
 		}
 
 		response.appendContentString( "</textarea>" );
@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import ng.appserver.NGAssociation;
 import ng.appserver.NGComponent;
 import ng.appserver.NGContext;
+import ng.appserver.NGMessage;
 
 public class NGHTMLUtilities {
 
@@ -28,8 +29,9 @@ public class NGHTMLUtilities {
 			if( value != null ) {
 				b.append( " " );
 				b.append( name );
-				b.append( "=" );
-				b.append( "\"" + value + "\"" );
+				b.append( "=\"" );
+				appendEscapedHTML( b, value, EscapeMode.ATTRIBUTE );
+				b.append( '"' );
 			}
 		} );
 
@@ -62,17 +64,123 @@ public class NGHTMLUtilities {
 	}
 
 	/**
-	 * @return The string with HTML values escaped
+	 * Determines which characters get escaped
+	 */
+	public enum EscapeMode {
+
+		/**
+		 * For element content. Escapes &amp;, &lt; and &gt;
+		 */
+		TEXT,
+
+		/**
+		 * For attribute values (and content that might end up inside one). Escapes &amp;, &lt;, &gt;, double quote and single quote
+		 */
+		ATTRIBUTE
+	}
+
+	/**
+	 * @return The string with HTML values escaped, safe for use both in element content and attribute values
 	 */
 	public static String escapeHTML( final String string ) {
+		return escapeHTML( string, EscapeMode.ATTRIBUTE );
+	}
+
+	/**
+	 * @return The string with HTML values escaped according to [mode]. If nothing needs escaping, the string itself is returned.
+	 */
+	public static String escapeHTML( final String string, final EscapeMode mode ) {
 		Objects.requireNonNull( string );
+		Objects.requireNonNull( mode );
+
+		final int firstIndex = indexOfEscapable( string, 0, mode );
+
+		if( firstIndex == -1 ) {
+			return string;
+		}
 
-		return string
-				.replace( "&", "&amp;" )
-				.replace( "<", "&lt;" )
-				.replace( ">", "&gt;" )
-				.replace( "\"", "&quot;" )
-				.replace( "'", "&#39;" );
+		final StringBuilder b = new StringBuilder( string.length() + 16 );
+		b.append( string, 0, firstIndex );
+		appendEscapedHTML( b, string, firstIndex, mode );
+		return b.toString();
+	}
+
+	/**
+	 * Appends the string to the given StringBuilder, with HTML values escaped according to [mode]
+	 */
+	public static void appendEscapedHTML( final StringBuilder b, final String string, final EscapeMode mode ) {
+		Objects.requireNonNull( string );
+		Objects.requireNonNull( mode );
+
+		appendEscapedHTML( b, string, 0, mode );
+	}
+
+	/**
+	 * Appends the string to the message's content, with HTML values escaped according to [mode]. Unescaped runs are written directly without creating intermediate strings.
+	 */
+	public static void appendEscapedHTML( final NGMessage message, final String string, final EscapeMode mode ) {
+		Objects.requireNonNull( string );
+		Objects.requireNonNull( mode );
+
+		int start = 0;
+		int index;
+
+		while( (index = indexOfEscapable( string, start, mode )) != -1 ) {
+			message.appendContentString( string, start, index );
+			message.appendContentString( entity( string.charAt( index ) ) );
+			start = index + 1;
+		}
+
+		message.appendContentString( string, start, string.length() );
+	}
+
+	private static void appendEscapedHTML( final StringBuilder b, final String string, int start, final EscapeMode mode ) {
+		int index;
+
+		while( (index = indexOfEscapable( string, start, mode )) != -1 ) {
+			b.append( string, start, index );
+			b.append( entity( string.charAt( index ) ) );
+			start = index + 1;
+		}
+
+		b.append( string, start, string.length() );
+	}
+
+	/**
+	 * @return The index of the first character at or after [start] that needs escaping in [mode], -1 if none
+	 */
+	private static int indexOfEscapable( final String string, final int start, final EscapeMode mode ) {
+		final boolean attribute = mode == EscapeMode.ATTRIBUTE;
+		final int length = string.length();
+
+		for( int i = start; i < length; i++ ) {
+			final char c = string.charAt( i );
+
+			// Everything we escape is below '?', so this takes care of most characters with a single comparison
+			if( c > '>' ) {
+				continue;
+			}
+
+			if( c == '&' || c == '<' || c == '>' || (attribute && (c == '"' || c == '\'')) ) {
+				return i;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * @return The entity representing the given escapable character
+	 */
+	private static String entity( final char c ) {
+		return switch( c ) {
+			case '&' -> "&amp;";
+			case '<' -> "&lt;";
+			case '>' -> "&gt;";
+			case '"' -> "&quot;";
+			case '\'' -> "&#39;";
+			default -> throw new IllegalArgumentException( "Character '" + c + "' doesn't need escaping" );
+		};
 	}
 
 	/**
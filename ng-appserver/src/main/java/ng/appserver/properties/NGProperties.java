@@ -254,19 +254,65 @@ public class NGProperties {
 		return _allProperties.get( key );
 	}
 
+	/**
+	 * @return The named property, [defaultValue] if not set
+	 */
+	public String get( final String key, final String defaultValue ) {
+		final String value = get( key );
+
+		if( value == null ) {
+			return defaultValue;
+		}
+
+		return value;
+	}
+
 	/**
 	 * @return The named integer property
 	 */
 	public Integer getInteger( final String key ) {
+		return getInteger( key, null );
+	}
+
+	/**
+	 * @return The named integer property, [defaultValue] if not set
+	 */
+	public Integer getInteger( final String key, final Integer defaultValue ) {
 		final String value = get( key );
 
 		if( value == null ) {
-			return null;
+			return defaultValue;
 		}
 
 		return Integer.valueOf( value );
 	}
 
+	/**
+	 * @return The named long property, [defaultValue] if not set
+	 */
+	public Long getLong( final String key, final Long defaultValue ) {
+		final String value = get( key );
+
+		if( value == null ) {
+			return defaultValue;
+		}
+
+		return Long.valueOf( value );
+	}
+
+	/**
+	 * @return The named boolean property, [defaultValue] if not set
+	 */
+	public Boolean getBoolean( final String key, final Boolean defaultValue ) {
+		final String value = get( key );
+
+		if( value == null ) {
+			return defaultValue;
+		}
+
+		return Boolean.valueOf( value );
+	}
+
 	/**
 	 * FIXME: I probably don't want this here. I still feel it's better than exposing the properties map at this stage
 	 */
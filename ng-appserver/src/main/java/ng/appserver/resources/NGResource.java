@@ -3,10 +3,12 @@ package ng.appserver.resources;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.concurrent.Callable;
 
 /**
- * FIXME: We're currently missing caching of the resource's data // Hugi 2024-06-22
+ * A resource. Reading it's data always reads it from it's source, caching of served resource data is handled by NGResourceDataCache
  */
 
 public class NGResource {
@@ -16,6 +18,20 @@ public class NGResource {
 	 */
 	private Callable<InputStream> _inputStreamSupplier;
 
+	/**
+	 * The file containing the resource's data, if the resource is backed by a file
+	 */
+	private Path _filePath;
+
+	/**
+	 * @return A resource whose data is contained in the given file
+	 */
+	public static NGResource of( final Path filePath ) {
+		final NGResource resource = of( () -> Files.newInputStream( filePath ) );
+		resource._filePath = filePath;
+		return resource;
+	}
+
 	/**
 	 * @return A resource that obtains it's data from the given supplier
 	 */
@@ -38,6 +54,13 @@ public class NGResource {
 		}
 	}
 
+	/**
+	 * @return The file containing the resource's data, null if the resource isn't backed by a file (for example, when it's located in a jar)
+	 */
+	public Path filePath() {
+		return _filePath;
+	}
+
 	/**
 	 * @return The resource's data by opening a new inputStream provided by the InputStream supplier
 	 */
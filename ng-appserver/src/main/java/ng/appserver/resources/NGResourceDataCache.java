@@ -0,0 +1,297 @@
+package ng.appserver.resources;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import ng.appserver.properties.NGProperties;
+
+/**
+ * Keeps the data of served resources in memory, along with precompressed variants of it.
+ *
+ * The cache is bounded by the total size of the data it holds (including the compressed variants), evicting the least recently used resources once it fills up.
+ * Resources larger than the maximum entry size never get cached, since they'd push out everything else (resources backed by files get served directly from the file in that case).
+ *
+ * Entries are keyed by the resource instance. This works since NGResourceManager caches resource instances when caching is enabled, and this cache is only used when caching is enabled.
+ */
+
+public class NGResourceDataCache {
+
+	/**
+	 * A resource's data, along with everything we need to know to serve it
+	 *
+	 * @param bytes The resource's data
+	 * @param gzipBytes The data gzip compressed, null if the data isn't compressible (or compression doesn't make it smaller)
+	 * @param deflateBytes The data deflate (zlib) compressed, null if the data isn't compressible (or compression doesn't make it smaller)
+	 * @param eTag A strong entity tag for the data
+	 * @param lastModified Modification date of the resource, null if unknown (i.e. if the resource isn't backed by a file)
+	 */
+	public record ResourceData( byte[] bytes, byte[] gzipBytes, byte[] deflateBytes, String eTag, Instant lastModified ) {
+
+		/**
+		 * @return The number of bytes held by this entry
+		 */
+		public long byteSize() {
+			return bytes.length + (gzipBytes != null ? gzipBytes.length : 0) + (deflateBytes != null ? deflateBytes.length : 0);
+		}
+	}
+
+	/**
+	 * Default maximum number of bytes held by the cache (64MB)
+	 */
+	private static final long DEFAULT_MAX_SIZE = 64L * 1024 * 1024;
+
+	/**
+	 * Default maximum size of a single resource's data for it to get cached (1MB)
+	 */
+	private static final long DEFAULT_MAX_ENTRY_SIZE = 1024L * 1024;
+
+	/**
+	 * Maximum number of bytes held by the cache
+	 */
+	private final long _maxSize;
+
+	/**
+	 * Maximum size of a single resource's data for it to get cached
+	 */
+	private final long _maxEntrySize;
+
+	/**
+	 * The cached data in access order, so the first entry is the least recently used one. Guarded by it's own monitor.
+	 */
+	private final LinkedHashMap<NGResource, ResourceData> _entries = new LinkedHashMap<>( 16, 0.75f, true );
+
+	/**
+	 * Number of bytes currently held by the cache. Guarded by _entries' monitor.
+	 */
+	private long _size;
+
+	private final AtomicLong _hits = new AtomicLong();
+	private final AtomicLong _misses = new AtomicLong();
+
+	/**
+	 * Creates a cache using the default maximum size (64MB) and maximum entry size (1MB)
+	 */
+	public NGResourceDataCache() {
+		this( DEFAULT_MAX_SIZE, DEFAULT_MAX_ENTRY_SIZE );
+	}
+
+	public NGResourceDataCache( final long maxSize, final long maxEntrySize ) {
+		if( maxSize < 0 || maxEntrySize < 0 ) {
+			throw new IllegalArgumentException( "maxSize and maxEntrySize must be non-negative" );
+		}
+
+		_maxSize = maxSize;
+		_maxEntrySize = maxEntrySize;
+	}
+
+	/**
+	 * @return A cache configured using the properties ng.resourceCache.maxSize (default 64MB) and ng.resourceCache.maxEntrySize (default 1MB)
+	 */
+	public static NGResourceDataCache fromProperties( final NGProperties properties ) {
+		Objects.requireNonNull( properties );
+
+		final long maxSize = properties.getLong( "ng.resourceCache.maxSize", DEFAULT_MAX_SIZE );
+		final long maxEntrySize = properties.getLong( "ng.resourceCache.maxEntrySize", DEFAULT_MAX_ENTRY_SIZE );
+		return new NGResourceDataCache( maxSize, maxEntrySize );
+	}
+
+	/**
+	 * @return Maximum size of a single resource's data for it to get cached
+	 */
+	public long maxEntrySize() {
+		return _maxEntrySize;
+	}
+
+	/**
+	 * @return The given resource's data, loading it (and compressing it, if [compressible]) if it's not already cached.
+	 * If the resource's data is larger than the maximum entry size it's returned without caching (and without compressed variants).
+	 */
+	public ResourceData data( final NGResource resource, final boolean compressible ) {
+		Objects.requireNonNull( resource );
+
+		synchronized( _entries ) {
+			final ResourceData data = _entries.get( resource );
+
+			if( data != null ) {
+				_hits.incrementAndGet();
+				return data;
+			}
+		}
+
+		_misses.incrementAndGet();
+
+		// We load the data outside of the lock. Two threads might end up loading the same resource, but that's cheaper than having every other request wait on the load
+		final ResourceData data = load( resource, compressible );
+
+		if( data.bytes().length <= _maxEntrySize ) {
+			put( resource, data );
+		}
+
+		return data;
+	}
+
+	private void put( final NGResource resource, final ResourceData data ) {
+		synchronized( _entries ) {
+			final ResourceData previous = _entries.put( resource, data );
+
+			if( previous != null ) {
+				_size -= previous.byteSize();
+			}
+
+			_size += data.byteSize();
+
+			final Iterator<ResourceData> iterator = _entries.values().iterator();
+
+			while( _size > _maxSize && iterator.hasNext() ) {
+				_size -= iterator.next().byteSize();
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Empties the cache
+	 */
+	public void clear() {
+		synchronized( _entries ) {
+			_entries.clear();
+			_size = 0;
+		}
+	}
+
+	/**
+	 * @return The number of cached resources
+	 */
+	public int count() {
+		synchronized( _entries ) {
+			return _entries.size();
+		}
+	}
+
+	/**
+	 * @return The number of bytes held by the cache
+	 */
+	public long size() {
+		synchronized( _entries ) {
+			return _size;
+		}
+	}
+
+	/**
+	 * @return The number of times requested data was found in the cache
+	 */
+	public long hits() {
+		return _hits.get();
+	}
+
+	/**
+	 * @return The number of times requested data had to be loaded
+	 */
+	public long misses() {
+		return _misses.get();
+	}
+
+	/**
+	 * @return The resource's data loaded, compressed if [compressible] and the data is small enough to get cached
+	 */
+	private ResourceData load( final NGResource resource, final boolean compressible ) {
+		final Path filePath = resource.filePath();
+		Instant lastModified = null;
+
+		if( filePath != null ) {
+			try {
+				// We get the modification date before reading, so a modification while we're reading results in a newer date on the next load
+				lastModified = Files.getLastModifiedTime( filePath ).toInstant().truncatedTo( ChronoUnit.SECONDS );
+			}
+			catch( IOException e ) {
+				throw new UncheckedIOException( e );
+			}
+		}
+
+		final byte[] bytes = resource.bytes();
+
+		final String eTag = eTag( bytes );
+
+		byte[] gzipBytes = null;
+		byte[] deflateBytes = null;
+
+		if( compressible && bytes.length <= _maxEntrySize ) {
+			gzipBytes = smallerOrNull( bytes, compress( bytes, GZIPOutputStream::new ) );
+			final Deflater deflater = new Deflater( Deflater.BEST_COMPRESSION );
+
+			try {
+				deflateBytes = smallerOrNull( bytes, compress( bytes, out -> new DeflaterOutputStream( out, deflater ) ) );
+			}
+			finally {
+				// A deflater passed to a DeflaterOutputStream doesn't get ended by the stream, and holds on to native memory until it is
+				deflater.end();
+			}
+		}
+
+		return new ResourceData( bytes, gzipBytes, deflateBytes, eTag, lastModified );
+	}
+
+	/**
+	 * @return A strong entity tag for the given data, based on it's length and checksum
+	 */
+	public static String eTag( final byte[] bytes ) {
+		final CRC32C checksum = new CRC32C();
+		checksum.update( bytes );
+		return "\"%s-%s\"".formatted( Long.toHexString( bytes.length ), Long.toHexString( checksum.getValue() ) );
+	}
+
+	/**
+	 * @return The compressed bytes if they're smaller than the original, otherwise null (no need to serve or store a compressed variant that doesn't save anything)
+	 */
+	private static byte[] smallerOrNull( final byte[] original, final byte[] compressed ) {
+		return compressed.length < original.length ? compressed : null;
+	}
+
+	@FunctionalInterface
+	private interface CompressingStreamFactory {
+		public OutputStream create( OutputStream out ) throws IOException;
+	}
+
+	private static byte[] compress( final byte[] bytes, final CompressingStreamFactory streamFactory ) {
+		final ByteArrayOutputStream bos = new ByteArrayOutputStream( bytes.length / 2 );
+
+		try( final OutputStream out = streamFactory.create( bos )) {
+			out.write( bytes );
+		}
+		catch( IOException e ) {
+			throw new UncheckedIOException( e );
+		}
+
+		return bos.toByteArray();
+	}
+
+	/**
+	 * @return true if resources of the given mime type are worth compressing. Most binary formats (images, video, fonts etc.) are compressed already.
+	 */
+	public static boolean isCompressible( final String mimeType ) {
+		if( mimeType == null ) {
+			return false;
+		}
+
+		return mimeType.startsWith( "text/" )
+				|| mimeType.equals( "application/javascript" )
+				|| mimeType.equals( "application/json" )
+				|| mimeType.equals( "application/xml" )
+				|| mimeType.equals( "application/wasm" )
+				|| mimeType.equals( "image/svg+xml" );
+	}
+}
\ No newline at end of file
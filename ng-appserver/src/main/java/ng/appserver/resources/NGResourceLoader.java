@@ -1,18 +1,36 @@
 package ng.appserver.resources;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -23,7 +41,9 @@ import org.slf4j.LoggerFactory;
  * Consumers rarely use this class directly and should usually go through NGResourceManager instead, which handles caching and other general resource management
  */
 
-public class NGResourceLoader {
+public class NGResourceLoader implements AutoCloseable {
+
+	private static final Logger logger = LoggerFactory.getLogger( NGResourceLoader.class );
 
 	private Map<String, Map<ResourceType, List<ResourceSource>>> _allResourceSources = new ConcurrentHashMap<>();
 
@@ -86,12 +106,85 @@ public class NGResourceLoader {
 		return _allResourceSources.keySet();
 	}
 
+	/**
+	 * @return The paths of all resources of the given type in the given namespace, from the sources that are able to list their resources
+	 */
+	public Set<String> resourcePaths( final String namespace, final ResourceType resourceType ) {
+		Objects.requireNonNull( namespace );
+		Objects.requireNonNull( resourceType );
+
+		final Set<String> resourcePaths = new LinkedHashSet<>();
+
+		final Map<ResourceType, List<ResourceSource>> sourceMapForNamespace = _allResourceSources.get( namespace );
+
+		if( sourceMapForNamespace != null ) {
+			for( final ResourceSource source : sourceMapForNamespace.getOrDefault( resourceType, List.of() ) ) {
+				resourcePaths.addAll( source.resourcePaths() );
+			}
+		}
+
+		return resourcePaths;
+	}
+
+	/**
+	 * @return The directories on the file system containing resources of the given type, in all namespaces
+	 */
+	public List<Path> directories( final ResourceType resourceType ) {
+		Objects.requireNonNull( resourceType );
+
+		final Set<Path> directories = new LinkedHashSet<>();
+
+		for( final Map<ResourceType, List<ResourceSource>> sourceMapForNamespace : _allResourceSources.values() ) {
+			for( final ResourceSource source : sourceMapForNamespace.getOrDefault( resourceType, List.of() ) ) {
+				directories.addAll( source.directories() );
+			}
+		}
+
+		return new ArrayList<>( directories );
+	}
+
+	/**
+	 * Closes every source that needs closing (like FileSystemDirectoryResourceSource, which stops watching it's directory). The loader shouldn't be used after it's been closed.
+	 */
+	@Override
+	public void close() {
+		for( final Map<ResourceType, List<ResourceSource>> sourceMapForNamespace : _allResourceSources.values() ) {
+			for( final List<ResourceSource> sources : sourceMapForNamespace.values() ) {
+				for( final ResourceSource source : sources ) {
+					if( source instanceof AutoCloseable closeable ) {
+						try {
+							closeable.close();
+						}
+						catch( Exception e ) {
+							// We still want the rest of the sources closed
+							logger.warn( "Failed to close resource source {}", source, e );
+						}
+					}
+				}
+			}
+		}
+	}
+
 	/**
 	 * Represents a source of resources of any type
 	 */
 	public interface ResourceSource {
 
 		public Optional<NGResource> resourceWithPath( String resourcePath );
+
+		/**
+		 * @return The paths of all resources in this source. Sources that aren't able to list their resources return an empty list.
+		 */
+		public default List<String> resourcePaths() {
+			return List.of();
+		}
+
+		/**
+		 * @return The directories on the file system this source's resources are located in, allowing them to be watched for changes. An empty list if the source isn't backed by directories.
+		 */
+		public default List<Path> directories() {
+			return List.of();
+		}
 	}
 
 	/**
@@ -106,9 +199,20 @@ public class NGResourceLoader {
 		 */
 		private final String _basePath;
 
+		/**
+		 * Index of the classpath's resources. null if the classpath couldn't be indexed, in which case we go through the ClassLoader for every lookup
+		 */
+		private final ClasspathResourceIndex _index;
+
 		public JavaClasspathResourceSource( final String basePath ) {
 			Objects.requireNonNull( basePath );
 			_basePath = basePath;
+
+			_index = ClasspathResourceIndex.shared();
+
+			if( _index != null ) {
+				_index.warnAboutDuplicates( basePath + "/" );
+			}
 		}
 
 		@Override
@@ -121,6 +225,55 @@ public class NGResourceLoader {
 
 			logger.debug( "Reading resourcePath {} ", resourcePath );
 
+			if( _index != null ) {
+				// The index uses ClassLoader style paths, without the preceding slash
+				return _index.resourceWithPath( resourcePath.substring( 1 ) );
+			}
+
+			return resourceFromClassLoader( resourcePath );
+		}
+
+		/**
+		 * @return The paths of the resources in this source. Only available if we're using the classpath resource index, since the ClassLoader can't list resources.
+		 */
+		@Override
+		public List<String> resourcePaths() {
+			if( _index == null ) {
+				return List.of();
+			}
+
+			return _index.resourcePaths( _basePath + "/" );
+		}
+
+		/**
+		 * @return The directories on the classpath containing our base path (i.e. not including jars)
+		 */
+		@Override
+		public List<Path> directories() {
+			final List<Path> directories = new ArrayList<>();
+
+			try {
+				final Enumeration<URL> urls = JavaClasspathResourceSource.class.getClassLoader().getResources( _basePath );
+
+				while( urls.hasMoreElements() ) {
+					final URL url = urls.nextElement();
+
+					if( "file".equals( url.getProtocol() ) ) {
+						directories.add( Path.of( url.toURI() ) );
+					}
+				}
+			}
+			catch( IOException | URISyntaxException e ) {
+				logger.warn( "Unable to locate the directories of classpath resource source '{}'", _basePath, e );
+			}
+
+			return directories;
+		}
+
+		/**
+		 * @return The resource at the given path (with prefix), looked up through the ClassLoader
+		 */
+		private Optional<NGResource> resourceFromClassLoader( final String resourcePath ) {
 			URL resourceURL = null;
 
 			try {
@@ -150,6 +303,16 @@ public class NGResourceLoader {
 				return Optional.empty();
 			}
 
+			// Resources located in the file system (for example when running from an IDE) get served directly from their files
+			if( "file".equals( resourceURL.getProtocol() ) ) {
+				try {
+					return Optional.of( NGResource.of( Path.of( resourceURL.toURI() ) ) );
+				}
+				catch( URISyntaxException e ) {
+					logger.warn( "Unable to convert resource URL '{}' to a path", resourceURL, e );
+				}
+			}
+
 			return Optional.of( NGResource.of( resourceURL::openStream ) );
 		}
 
@@ -161,19 +324,314 @@ public class NGResourceLoader {
 		}
 	}
 
+	/**
+	 * An index of the resources located in the jars and directories on the classpath, built once by scanning the classpath.
+	 *
+	 * Looking up a resource in a jar (or finding out it doesn't exist) is a hash lookup, instead of a ClassLoader.getResources() call that has to probe every classpath element.
+	 * Since the contents of directories can change while the application is running (typically during development), a lookup that misses the index also checks the directories on the classpath.
+	 *
+	 * CHECKME: We only scan the classpath given in java.class.path and the Class-Path manifest attributes of jars on it. That covers the application class loader, which is why the index is only used when resources are loaded by the system class loader.
+	 */
+	public static class ClasspathResourceIndex {
+
+		private static final Logger logger = LoggerFactory.getLogger( ClasspathResourceIndex.class );
+
+		/**
+		 * The index built from the JVM's classpath
+		 */
+		private static ClasspathResourceIndex _shared;
+
+		/**
+		 * Resource paths (in ClassLoader format, i.e. without a preceding slash) mapped to the classpath elements containing them, in classpath order
+		 */
+		private final Map<String, List<Path>> _resources;
+
+		/**
+		 * Directories on the classpath, in classpath order
+		 */
+		private final List<Path> _directories;
+
+		private ClasspathResourceIndex( final Map<String, List<Path>> resources, final List<Path> directories ) {
+			_resources = resources;
+			_directories = directories;
+		}
+
+		/**
+		 * Indicates if we've attempted to build the shared index
+		 */
+		private static boolean _sharedBuilt;
+
+		/**
+		 * @return The index for the JVM's classpath, built on first invocation. null if resources aren't loaded by the system class loader, since then we can't trust the index to contain them.
+		 */
+		public static synchronized ClasspathResourceIndex shared() {
+			if( !_sharedBuilt ) {
+				_sharedBuilt = true;
+
+				if( ClasspathResourceIndex.class.getClassLoader() == ClassLoader.getSystemClassLoader() ) {
+					_shared = build( classpathElements( System.getProperty( "java.class.path" ) ) );
+				}
+				else {
+					logger.info( "Not using the classpath resource index, since resources aren't loaded by the system class loader" );
+				}
+			}
+
+			return _shared;
+		}
+
+		/**
+		 * @return An index of the resources in the given classpath elements (jars and directories)
+		 */
+		public static ClasspathResourceIndex build( final List<Path> classpathElements ) {
+			final long startTime = System.nanoTime();
+
+			final Map<String, List<Path>> resources = new HashMap<>();
+			final List<Path> directories = new ArrayList<>();
+			int jarCount = 0;
+
+			for( final Path element : classpathElements ) {
+				try {
+					if( Files.isDirectory( element ) ) {
+						directories.add( element.toAbsolutePath().normalize() );
+
+						try( final Stream<Path> files = Files.walk( element )) {
+							files
+									.filter( Files::isRegularFile )
+									.forEach( file -> addResource( resources, element.relativize( file ).toString().replace( File.separatorChar, '/' ), element ) );
+						}
+					}
+					else if( Files.isRegularFile( element ) ) {
+						jarCount++;
+
+						try( final JarFile jarFile = new JarFile( element.toFile() )) {
+							final Enumeration<JarEntry> entries = jarFile.entries();
+
+							while( entries.hasMoreElements() ) {
+								final JarEntry entry = entries.nextElement();
+
+								if( !entry.isDirectory() ) {
+									addResource( resources, entry.getName(), element );
+								}
+							}
+						}
+					}
+				}
+				catch( IOException | UncheckedIOException e ) {
+					logger.warn( "Unable to index classpath element '{}'", element, e );
+				}
+			}
+
+			resources.replaceAll( ( path, elements ) -> List.copyOf( elements ) );
+
+			final ClasspathResourceIndex index = new ClasspathResourceIndex( Map.copyOf( resources ), List.copyOf( directories ) );
+			logger.info( "Classpath resource index built in {} ms. Indexed {} resources in {} jars and {} directories", (System.nanoTime() - startTime) / 1_000_000, resources.size(), jarCount, directories.size() );
+			return index;
+		}
+
+		private static void addResource( final Map<String, List<Path>> resources, final String resourcePath, final Path element ) {
+			// Classes make up most of the classpath and aren't served as resources, so we keep them out of the index
+			if( !resourcePath.endsWith( ".class" ) ) {
+				resources.computeIfAbsent( resourcePath, _unused -> new ArrayList<>( 1 ) ).add( element );
+			}
+		}
+
+		/**
+		 * @return The elements of the given classpath, including jars referenced by the Class-Path manifest attribute of jars on the classpath
+		 */
+		static List<Path> classpathElements( final String classPath ) {
+			final Set<Path> elements = new LinkedHashSet<>();
+
+			for( final String pathString : classPath.split( File.pathSeparator ) ) {
+				if( !pathString.isEmpty() ) {
+					addClasspathElement( elements, Path.of( pathString ).toAbsolutePath().normalize() );
+				}
+			}
+
+			return new ArrayList<>( elements );
+		}
+
+		private static void addClasspathElement( final Set<Path> elements, final Path element ) {
+			if( !elements.add( element ) || !Files.isRegularFile( element ) ) {
+				return;
+			}
+
+			try( final JarFile jarFile = new JarFile( element.toFile() )) {
+				final Manifest manifest = jarFile.getManifest();
+
+				if( manifest != null ) {
+					final String classPath = manifest.getMainAttributes().getValue( Attributes.Name.CLASS_PATH );
+
+					if( classPath != null ) {
+						for( final String reference : classPath.strip().split( "\\s+" ) ) {
+							try {
+								// Class-Path entries are URLs relative to the jar's location
+								final URI uri = element.getParent().toUri().resolve( reference );
+
+								if( "file".equals( uri.getScheme() ) ) {
+									addClasspathElement( elements, Path.of( uri ).normalize() );
+								}
+							}
+							catch( IllegalArgumentException e ) {
+								logger.warn( "Ignoring invalid Class-Path entry '{}' in '{}'", reference, element );
+							}
+						}
+					}
+				}
+			}
+			catch( IOException e ) {
+				// Not a jar. The indexing will complain
+			}
+		}
+
+		/**
+		 * @return The resource with the given path (ClassLoader style, without a preceding slash)
+		 */
+		public Optional<NGResource> resourceWithPath( final String resourcePath ) {
+			final List<Path> elements = _resources.get( resourcePath );
+
+			if( elements != null ) {
+				for( final Path element : elements ) {
+					// Files in directories might have been deleted since the index was built
+					if( !Files.isDirectory( element ) || Files.isRegularFile( element.resolve( resourcePath ) ) ) {
+						return Optional.of( resourceInElement( element, resourcePath ) );
+					}
+				}
+			}
+
+			// Not in the index, but it might have been added to a directory after the index was built
+			for( final Path directory : _directories ) {
+				final Path file = directory.resolve( resourcePath ).normalize();
+
+				// The path comes from a URL, so make sure it doesn't escape the directory (like the class loader does)
+				if( !file.startsWith( directory ) ) {
+					continue;
+				}
+
+				if( Files.isRegularFile( file ) ) {
+					return Optional.of( NGResource.of( file ) );
+				}
+			}
+
+			return Optional.empty();
+		}
+
+		/**
+		 * @return The paths of indexed resources starting with the given prefix, with the prefix removed
+		 */
+		public List<String> resourcePaths( final String prefix ) {
+			Objects.requireNonNull( prefix );
+
+			final Set<String> resourcePaths = new TreeSet<>();
+
+			for( final String resourcePath : _resources.keySet() ) {
+				if( resourcePath.startsWith( prefix ) ) {
+					resourcePaths.add( resourcePath.substring( prefix.length() ) );
+				}
+			}
+
+			// Directories might have gained files since the index was built
+			for( final Path directory : _directories ) {
+				final Path prefixDirectory = directory.resolve( prefix );
+
+				if( Files.isDirectory( prefixDirectory ) ) {
+					try( final Stream<Path> files = Files.walk( prefixDirectory )) {
+						files
+								.filter( Files::isRegularFile )
+								.forEach( file -> resourcePaths.add( prefixDirectory.relativize( file ).toString().replace( File.separatorChar, '/' ) ) );
+					}
+					catch( IOException e ) {
+						throw new UncheckedIOException( e );
+					}
+				}
+			}
+
+			return List.copyOf( resourcePaths );
+		}
+
+		/**
+		 * @return The resource with the given path in the given classpath element
+		 */
+		private static NGResource resourceInElement( final Path element, final String resourcePath ) {
+			if( Files.isDirectory( element ) ) {
+				return NGResource.of( element.resolve( resourcePath ) );
+			}
+
+			try {
+				// Build a jar URL the same way the class loader does, encoding the entry name as a URI path
+				final String encodedEntryName = new URI( null, null, "/" + resourcePath, null ).getRawPath();
+				final URL url = URI.create( "jar:" + element.toUri() + "!" + encodedEntryName ).toURL();
+				return NGResource.of( url::openStream );
+			}
+			catch( URISyntaxException | MalformedURLException e ) {
+				throw new RuntimeException( e );
+			}
+		}
+
+		/**
+		 * Logs a warning for each resource with the given prefix that's present in more than one classpath element
+		 */
+		private void warnAboutDuplicates( final String prefix ) {
+			_resources.forEach( ( resourcePath, elements ) -> {
+				if( elements.size() > 1 && resourcePath.startsWith( prefix ) ) {
+					logger.warn( "Duplicate resource found for path '{}'. I'm using the one in '{}' and ignoring the ones in {}", resourcePath, elements.getFirst(), elements.subList( 1, elements.size() ) );
+				}
+			} );
+		}
+
+		/**
+		 * @return The number of indexed resources
+		 */
+		public int size() {
+			return _resources.size();
+		}
+	}
+
 	/**
 	 * Handles loading of resources from a file system directory
 	 */
-	public static class FileSystemDirectoryResourceSource implements ResourceSource {
+	public static class FileSystemDirectoryResourceSource implements ResourceSource, AutoCloseable {
+
+		private static final Logger logger = LoggerFactory.getLogger( FileSystemDirectoryResourceSource.class );
+
+		/**
+		 * Maximum number of cached misses. Without a bound, every request for a random nonexistent path would grow the cache. Hits don't need a bound, since there's only so many files in the directory.
+		 */
+		private static final int MAX_CACHED_MISSES = 10_000;
 
 		/**
 		 * The directory we're going to locate resources in
 		 */
 		private final Path _basePath;
 
+		/**
+		 * Results of previous successful lookups, keyed by normalized resource path (relative to _basePath). Entries are invalidated by _watchService.
+		 */
+		private final Map<String, Optional<NGResource>> _cachedHits = new ConcurrentHashMap<>();
+
+		/**
+		 * Results of previous failed lookups (empty optionals), keyed and invalidated like _cachedHits. Kept separately so a flood of misses can't push out the hits.
+		 */
+		private final Map<String, Optional<NGResource>> _cachedMisses = new ConcurrentHashMap<>();
+
+		/**
+		 * Watches _basePath (and it's subdirectories) for changes. null if the directory couldn't be watched, in which case we don't cache lookups.
+		 */
+		private final WatchService _watchService;
+
+		/**
+		 * Incremented on every invalidation, so a lookup that raced with a change doesn't get cached
+		 */
+		private final AtomicLong _invalidationCount = new AtomicLong();
+
+		/**
+		 * Set once we've been closed. Nobody's invalidating cached lookups after that, so we stop using them.
+		 */
+		private volatile boolean _closed;
+
 		public FileSystemDirectoryResourceSource( final Path basePath ) {
 			Objects.requireNonNull( basePath );
-			_basePath = basePath;
+			_basePath = basePath.toAbsolutePath().normalize();
+			_watchService = startWatching();
 		}
 
 		@Override
@@ -181,8 +639,205 @@ public class NGResourceLoader {
 			Objects.requireNonNull( resourcePath );
 
 			// The path to the actual file on disk
-			final Path filePath = _basePath.resolve( resourcePath );
-			return Optional.of( NGResource.of( () -> Files.newInputStream( filePath ) ) );
+			final Path filePath = _basePath.resolve( resourcePath ).normalize();
+
+			// Don't allow paths like "../something" to escape the base directory
+			if( !filePath.startsWith( _basePath ) ) {
+				return Optional.empty();
+			}
+
+			if( _watchService == null || _closed ) {
+				return lookup( filePath );
+			}
+
+			// Keyed by the normalized path, so different spellings of the same path ("a/../b", "./b") share an entry and get invalidated along with it
+			final String cacheKey = relativePath( filePath );
+			Optional<NGResource> cachedResult = _cachedHits.get( cacheKey );
+
+			if( cachedResult == null ) {
+				cachedResult = _cachedMisses.get( cacheKey );
+			}
+
+			if( cachedResult != null ) {
+				return cachedResult;
+			}
+
+			final long invalidationCount = _invalidationCount.get();
+			final Optional<NGResource> result = lookup( filePath );
+			final Map<String, Optional<NGResource>> cache = result.isPresent() ? _cachedHits : _cachedMisses;
+
+			if( cache == _cachedMisses && _cachedMisses.size() >= MAX_CACHED_MISSES ) {
+				_cachedMisses.clear();
+			}
+
+			cache.put( cacheKey, result );
+
+			// If something changed while we were looking (or we got closed), our result might already be stale
+			if( _invalidationCount.get() != invalidationCount || _closed ) {
+				cache.remove( cacheKey );
+			}
+
+			return result;
+		}
+
+		@Override
+		public List<String> resourcePaths() {
+			if( !Files.isDirectory( _basePath ) ) {
+				return List.of();
+			}
+
+			try( final Stream<Path> files = Files.walk( _basePath )) {
+				return files
+						.filter( Files::isRegularFile )
+						.map( this::relativePath )
+						.sorted()
+						.toList();
+			}
+			catch( IOException e ) {
+				throw new UncheckedIOException( e );
+			}
+		}
+
+		@Override
+		public List<Path> directories() {
+			return List.of( _basePath );
+		}
+
+		/**
+		 * @return The number of cached lookups
+		 */
+		int cachedLookupCount() {
+			return _cachedHits.size() + _cachedMisses.size();
+		}
+
+		/**
+		 * @return The resource at the given (normalized) path within our base directory, if it exists as a file
+		 */
+		private Optional<NGResource> lookup( final Path filePath ) {
+			if( !Files.isRegularFile( filePath ) ) {
+				return Optional.empty();
+			}
+
+			return Optional.of( NGResource.of( filePath ) );
+		}
+
+		/**
+		 * @return A WatchService watching our base directory, with a thread invalidating cached lookups for changed paths. null if the directory can't be watched.
+		 */
+		private WatchService startWatching() {
+			if( !Files.isDirectory( _basePath ) ) {
+				logger.warn( "Resource directory '{}' does not exist. Lookups in it won't be cached", _basePath );
+				return null;
+			}
+
+			final WatchService watchService;
+
+			try {
+				watchService = _basePath.getFileSystem().newWatchService();
+				registerRecursively( watchService, _basePath );
+			}
+			catch( IOException | UnsupportedOperationException e ) {
+				logger.warn( "Unable to watch resource directory '{}'. Lookups in it won't be cached", _basePath, e );
+				return null;
+			}
+
+			final Thread watcherThread = new Thread( () -> processEvents( watchService ), "ng-resource-watcher-" + _basePath.getFileName() );
+			watcherThread.setDaemon( true );
+			watcherThread.start();
+
+			return watchService;
+		}
+
+		private static void registerRecursively( final WatchService watchService, final Path directory ) throws IOException {
+			try( final Stream<Path> directories = Files.walk( directory )) {
+				for( final Path d : (Iterable<Path>)directories.filter( Files::isDirectory )::iterator ) {
+					d.register( watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY );
+				}
+			}
+		}
+
+		private void processEvents( final WatchService watchService ) {
+			try {
+				while( true ) {
+					final WatchKey key = watchService.take();
+					final Path directory = (Path)key.watchable();
+
+					for( final WatchEvent<?> event : key.pollEvents() ) {
+
+						// We've missed events, so anything we've cached might be stale
+						if( event.kind() == StandardWatchEventKinds.OVERFLOW ) {
+							invalidate( _basePath );
+							continue;
+						}
+
+						final Path changedPath = directory.resolve( (Path)event.context() );
+
+						if( event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory( changedPath ) ) {
+							try {
+								registerRecursively( watchService, changedPath );
+							}
+							catch( IOException e ) {
+								logger.warn( "Unable to watch resource directory '{}'", changedPath, e );
+							}
+						}
+
+						invalidate( changedPath );
+					}
+
+					if( !key.reset() ) {
+						// The watched directory is gone. Whatever we've cached from it is stale.
+						invalidate( directory );
+					}
+				}
+			}
+			catch( InterruptedException | ClosedWatchServiceException e ) {
+				// We've been closed, so we're done
+			}
+		}
+
+		/**
+		 * Removes cached lookups for the given path, along with everything below it (in case it's a directory that was moved or deleted)
+		 */
+		private void invalidate( final Path changedPath ) {
+			_invalidationCount.incrementAndGet();
+
+			final String relativePath = relativePath( changedPath );
+
+			if( relativePath.isEmpty() ) {
+				_cachedHits.clear();
+				_cachedMisses.clear();
+				return;
+			}
+
+			final String directoryPrefix = relativePath + "/";
+			_cachedHits.keySet().removeIf( cachedPath -> cachedPath.equals( relativePath ) || cachedPath.startsWith( directoryPrefix ) );
+			_cachedMisses.keySet().removeIf( cachedPath -> cachedPath.equals( relativePath ) || cachedPath.startsWith( directoryPrefix ) );
+		}
+
+		/**
+		 * @return The given path relative to our base path, in the form used for resource paths
+		 */
+		private String relativePath( final Path path ) {
+			return _basePath.relativize( path ).toString().replace( File.separatorChar, '/' );
+		}
+
+		/**
+		 * Stops watching the directory. Lookups are no longer cached after this.
+		 */
+		@Override
+		public void close() {
+			_closed = true;
+			_cachedHits.clear();
+			_cachedMisses.clear();
+
+			if( _watchService != null ) {
+				try {
+					_watchService.close();
+				}
+				catch( IOException e ) {
+					throw new UncheckedIOException( e );
+				}
+			}
 		}
 	}
 }
\ No newline at end of file
@@ -1,5 +1,17 @@
 package ng.appserver.resources;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -28,6 +40,31 @@ public class NGResourceManager {
 	 */
 	private final Map<String, Map<ResourceType, Map<String, Optional<NGResource>>>> resourceCache = new ConcurrentHashMap<>();
 
+	/**
+	 * Cache for the data of served resources
+	 */
+	private NGResourceDataCache _dataCache = new NGResourceDataCache();
+
+	/**
+	 * Fingerprints of webserver resources by namespace -> resource path. If caching is disabled, only used for resources that aren't backed by files
+	 */
+	private final Map<String, Map<String, Optional<String>>> _fingerprintCache = new ConcurrentHashMap<>();
+
+	/**
+	 * Fingerprints of file backed webserver resources by file path. Used if caching is disabled, so a file only gets hashed again once it's size or modification date changes
+	 */
+	private final Map<Path, FileFingerprint> _fileFingerprintCache = new ConcurrentHashMap<>();
+
+	/**
+	 * A file's fingerprint, along with the attributes of the file at the time it was computed
+	 */
+	private record FileFingerprint( long size, FileTime lastModified, Optional<String> fingerprint ) {}
+
+	/**
+	 * Specifies if URLs generated for webserver resources should contain a fingerprint of the resource's content
+	 */
+	private boolean _fingerprintingEnabled;
+
 	/**
 	 * Specifies if we want to use the resources cache.
 	 */
@@ -42,6 +79,118 @@ public class NGResourceManager {
 		return _resourceLoader;
 	}
 
+	/**
+	 * @return The cache used for the data of served resources. Only used if caching is enabled
+	 */
+	public NGResourceDataCache dataCache() {
+		return _dataCache;
+	}
+
+	public void setDataCache( final NGResourceDataCache dataCache ) {
+		Objects.requireNonNull( dataCache );
+		_dataCache = dataCache;
+	}
+
+	/**
+	 * @return true if URLs generated for webserver resources should contain a fingerprint of the resource's content
+	 */
+	public boolean fingerprintingEnabled() {
+		return _fingerprintingEnabled;
+	}
+
+	public void setFingerprintingEnabled( final boolean fingerprintingEnabled ) {
+		_fingerprintingEnabled = fingerprintingEnabled;
+	}
+
+	/**
+	 * @return A fingerprint (hash) of the specified webserver resource's content, empty if the resource doesn't exist. Cached if caching is enabled.
+	 */
+	public Optional<String> fingerprintForWebserverResource( final String namespace, final String resourcePath ) {
+		Objects.requireNonNull( namespace );
+		Objects.requireNonNull( resourcePath );
+
+		if( _cachingEnabled() ) {
+			return _fingerprintCache
+					.computeIfAbsent( namespace, _unused -> new ConcurrentHashMap<>() )
+					.computeIfAbsent( resourcePath, _unused -> fingerprint( obtainWebserverResource( namespace, resourcePath ) ) );
+		}
+
+		final Optional<NGResource> resource = obtainWebserverResource( namespace, resourcePath );
+
+		if( resource.isEmpty() ) {
+			return Optional.empty();
+		}
+
+		if( resource.get().filePath() == null ) {
+			// Resources that aren't backed by files (i.e. resources in jars) don't change while we're running
+			return _fingerprintCache
+					.computeIfAbsent( namespace, _unused -> new ConcurrentHashMap<>() )
+					.computeIfAbsent( resourcePath, _unused -> fingerprint( resource ) );
+		}
+
+		return fileFingerprint( resource.get() );
+	}
+
+	/**
+	 * @return The fingerprint of the given file backed resource, only hashing the file if it's changed since we last did
+	 */
+	private Optional<String> fileFingerprint( final NGResource resource ) {
+		final Path filePath = resource.filePath();
+		final BasicFileAttributes attributes;
+
+		try {
+			attributes = Files.readAttributes( filePath, BasicFileAttributes.class );
+		}
+		catch( IOException e ) {
+			// The file is gone
+			_fileFingerprintCache.remove( filePath );
+			return Optional.empty();
+		}
+
+		final FileFingerprint cachedFingerprint = _fileFingerprintCache.get( filePath );
+
+		if( cachedFingerprint != null && cachedFingerprint.size() == attributes.size() && cachedFingerprint.lastModified().equals( attributes.lastModifiedTime() ) ) {
+			return cachedFingerprint.fingerprint();
+		}
+
+		// The attributes were read before the content, so if the file changes while we're hashing it, the attributes won't match next time and we'll hash it again
+		final Optional<String> fingerprint = fingerprint( Optional.of( resource ) );
+		_fileFingerprintCache.put( filePath, new FileFingerprint( attributes.size(), attributes.lastModifiedTime(), fingerprint ) );
+		return fingerprint;
+	}
+
+	/**
+	 * @return The first 8 hex digits of the SHA-256 hash of the resource's data, empty if the resource is empty or it's file doesn't exist
+	 */
+	private static Optional<String> fingerprint( final Optional<NGResource> resource ) {
+		if( resource.isEmpty() ) {
+			return Optional.empty();
+		}
+
+		final Path filePath = resource.get().filePath();
+
+		if( filePath != null && !Files.isRegularFile( filePath ) ) {
+			return Optional.empty();
+		}
+
+		try {
+			final MessageDigest digest = MessageDigest.getInstance( "SHA-256" );
+
+			try( final InputStream in = new DigestInputStream( resource.get().inputStream(), digest )) {
+				in.transferTo( OutputStream.nullOutputStream() );
+			}
+
+			return Optional.of( HexFormat.of().formatHex( digest.digest(), 0, 4 ) );
+		}
+		catch( NoSuchAlgorithmException e ) {
+			// Every Java platform is required to support SHA-256
+			throw new RuntimeException( e );
+		}
+		catch( IOException e ) {
+			throw new UncheckedIOException( e );
+		}
+	}
+
 	/**
 	 * @return The specified app resource
 	 */
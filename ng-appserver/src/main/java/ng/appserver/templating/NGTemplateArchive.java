@@ -0,0 +1,234 @@
+package ng.appserver.templating;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import ng.appserver.templating.parser.NGDeclaration;
+import ng.appserver.templating.parser.NGDeclaration.NGBindingValue;
+import ng.appserver.templating.parser.NGDynamicHTMLTag;
+import ng.appserver.templating.parser.NGHTMLFormatException;
+import ng.appserver.templating.parser.model.PBasicNode;
+import ng.appserver.templating.parser.model.PCommentNode;
+import ng.appserver.templating.parser.model.PGroupNode;
+import ng.appserver.templating.parser.model.PHTMLNode;
+import ng.appserver.templating.parser.model.PNode;
+
+/**
+ * Reads and writes precompiled templates, i.e. parsed template node trees keyed by component name, in a compact binary format.
+ *
+ * Archives are generated at build time by NGTemplatePrecompiler and placed on the classpath at RESOURCE_PATH, where NGComponentDefinition picks them up at startup.
+ * Loading an archive skips the template parser entirely, leaving only the (cheap) conversion of the nodes to dynamic elements.
+ *
+ * Format: The magic number and format version, followed by the number of templates and then each template's name and node tree.
+ * Each node starts with a byte identifying it's type. Strings are written as their UTF-8 byte length followed by the bytes (DataOutput.writeUTF() can't handle strings longer than 64KB).
+ *
+ * When reading, every count and length is checked against the number of bytes left in the archive, so a corrupt archive fails with an IOException rather than an attempt to allocate huge arrays.
+ */
+
+public class NGTemplateArchive {
+
+	/**
+	 * Location of template archives on the classpath
+	 */
+	public static final String RESOURCE_PATH = "META-INF/ng/templates.ngt";
+
+	/**
+	 * "NGTA"
+	 */
+	private static final int MAGIC = 0x4E475441;
+
+	/**
+	 * Incremented whenever the format changes, so we never try to read an archive generated by a different version of the framework
+	 */
+	private static final int FORMAT_VERSION = 1;
+
+	private static final byte HTML_NODE = 0;
+	private static final byte COMMENT_NODE = 1;
+	private static final byte GROUP_NODE = 2;
+	private static final byte BASIC_NODE = 3;
+
+	/**
+	 * Maximum nesting depth of nodes we read. Way deeper than any sane template, and keeps a corrupt archive from overflowing the stack.
+	 */
+	private static final int MAX_DEPTH = 1000;
+
+	/**
+	 * Writes the given templates to the given stream
+	 */
+	public static void write( final Map<String, PNode> templates, final OutputStream stream ) throws IOException {
+		Objects.requireNonNull( templates );
+		Objects.requireNonNull( stream );
+
+		final DataOutputStream out = new DataOutputStream( new BufferedOutputStream( stream ) );
+		out.writeInt( MAGIC );
+		out.writeInt( FORMAT_VERSION );
+		out.writeInt( templates.size() );
+
+		for( final Entry<String, PNode> entry : templates.entrySet() ) {
+			writeString( out, entry.getKey() );
+			writeNode( out, entry.getValue() );
+		}
+
+		out.flush();
+	}
+
+	/**
+	 * @return The templates read from the given stream, in the order they were written
+	 */
+	public static Map<String, PNode> read( final InputStream stream ) throws IOException {
+		Objects.requireNonNull( stream );
+
+		// Archives are small, so we read the whole thing up front. That way we know how many bytes are left, allowing us to validate the lengths we read
+		final DataInputStream in = new DataInputStream( new ByteArrayInputStream( stream.readAllBytes() ) );
+
+		if( in.readInt() != MAGIC ) {
+			throw new IOException( "Not a template archive" );
+		}
+
+		final int formatVersion = in.readInt();
+
+		if( formatVersion != FORMAT_VERSION ) {
+			throw new IOException( "Template archive format version %s is not supported (expected %s). The archive needs to be regenerated".formatted( formatVersion, FORMAT_VERSION ) );
+		}
+
+		final int count = readLength( in );
+		final Map<String, PNode> templates = new LinkedHashMap<>( count * 2 );
+
+		for( int i = 0; i < count; i++ ) {
+			final String name = readString( in );
+			templates.put( name, readNode( in, 0 ) );
+		}
+
+		return templates;
+	}
+
+	private static void writeNode( final DataOutputStream out, final PNode node ) throws IOException {
+		switch( node ) {
+			case PHTMLNode n -> {
+				out.writeByte( HTML_NODE );
+				writeString( out, n.value() );
+			}
+			case PCommentNode n -> {
+				out.writeByte( COMMENT_NODE );
+				writeString( out, n.value() );
+			}
+			case PGroupNode n -> {
+				out.writeByte( GROUP_NODE );
+				writeNodes( out, n.children() );
+			}
+			case PBasicNode n -> {
+				final NGDeclaration declaration = n.tag().declaration();
+				out.writeByte( BASIC_NODE );
+				out.writeBoolean( declaration.isInline() );
+				writeString( out, declaration.name() );
+				writeString( out, declaration.type() );
+				out.writeInt( declaration.bindings().size() );
+
+				for( final Entry<String, NGBindingValue> binding : declaration.bindings().entrySet() ) {
+					writeString( out, binding.getKey() );
+					out.writeBoolean( binding.getValue().isQuoted() );
+					writeString( out, binding.getValue().value() );
+				}
+
+				writeNodes( out, n.children() );
+			}
+		}
+	}
+
+	private static void writeNodes( final DataOutputStream out, final List<PNode> nodes ) throws IOException {
+		out.writeInt( nodes.size() );
+
+		for( final PNode child : nodes ) {
+			writeNode( out, child );
+		}
+	}
+
+	private static PNode readNode( final DataInputStream in, final int depth ) throws IOException {
+		if( depth > MAX_DEPTH ) {
+			throw new IOException( "Template archive nodes nested deeper than %s levels".formatted( MAX_DEPTH ) );
+		}
+
+		final byte type = in.readByte();
+
+		return switch( type ) {
+			case HTML_NODE -> new PHTMLNode( readString( in ) );
+			case COMMENT_NODE -> new PCommentNode( readString( in ) );
+			case GROUP_NODE -> new PGroupNode( readNodes( in, depth ) );
+			case BASIC_NODE -> {
+				final boolean isInline = in.readBoolean();
+				final String name = readString( in );
+				final String declarationType = readString( in );
+				final int bindingCount = readLength( in );
+				final Map<String, NGBindingValue> bindings = new LinkedHashMap<>( bindingCount * 2 );
+
+				for( int i = 0; i < bindingCount; i++ ) {
+					final String bindingName = readString( in );
+					final boolean isQuoted = in.readBoolean();
+					bindings.put( bindingName, new NGBindingValue( isQuoted, readString( in ) ) );
+				}
+
+				try {
+					final NGDynamicHTMLTag tag = new NGDynamicHTMLTag( new NGDeclaration( isInline, name, declarationType, bindings ), null );
+
+					for( final PNode child : readNodes( in, depth ) ) {
+						tag.addChild( child );
+					}
+
+					yield new PBasicNode( tag );
+				}
+				catch( NGHTMLFormatException e ) {
+					throw new IOException( e );
+				}
+			}
+			default -> throw new IOException( "Unknown node type %s in template archive".formatted( type ) );
+		};
+	}
+
+	private static List<PNode> readNodes( final DataInputStream in, final int parentDepth ) throws IOException {
+		final int count = readLength( in );
+		final List<PNode> nodes = new ArrayList<>( count );
+
+		for( int i = 0; i < count; i++ ) {
+			nodes.add( readNode( in, parentDepth + 1 ) );
+		}
+
+		return nodes;
+	}
+
+	private static void writeString( final DataOutputStream out, final String string ) throws IOException {
+		final byte[] bytes = string.getBytes( StandardCharsets.UTF_8 );
+		out.writeInt( bytes.length );
+		out.write( bytes );
+	}
+
+	private static String readString( final DataInputStream in ) throws IOException {
+		final byte[] bytes = new byte[readLength( in )];
+		in.readFully( bytes );
+		return new String( bytes, StandardCharsets.UTF_8 );
+	}
+
+	/**
+	 * @return A count or length read from the archive. Every element counted takes up at least one byte, so a value exceeding the number of bytes left means the archive is corrupt.
+	 */
+	private static int readLength( final DataInputStream in ) throws IOException {
+		final int length = in.readInt();
+
+		if( length < 0 || length > in.available() ) {
+			throw new IOException( "Invalid length %s in template archive (%s bytes left)".formatted( length, in.available() ) );
+		}
+
+		return length;
+	}
+}
\ No newline at end of file
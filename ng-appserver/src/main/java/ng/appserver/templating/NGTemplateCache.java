@@ -0,0 +1,91 @@
+package ng.appserver.templating;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import ng.appserver.NGElement;
+import ng.appserver.templating.parser.NGDeclarationFormatException;
+import ng.appserver.templating.parser.NGHTMLFormatException;
+
+/**
+ * Caches parsed templates, keyed by a hash of their source (the html and wod strings).
+ *
+ * Since the key is the template's content, a template only gets parsed again once it's content actually changes, and components sharing identical templates share the parsed element tree.
+ */
+
+public class NGTemplateCache {
+
+	/**
+	 * Maximum number of cached templates. During development, every edit to a template leaves the previous version in the cache, so we don't let it grow forever.
+	 */
+	private static final int MAX_ENTRIES = 10_000;
+
+	/**
+	 * Parsed templates, keyed by the hash of their source
+	 */
+	private final Map<String, NGElement> _templatesByContentHash = new ConcurrentHashMap<>();
+
+	/**
+	 * @return The parsed template for the given source, parsing it if we haven't seen the same source before
+	 */
+	public NGElement template( final String htmlString, final String wodString ) throws NGDeclarationFormatException, NGHTMLFormatException {
+		Objects.requireNonNull( htmlString );
+		Objects.requireNonNull( wodString );
+
+		final String contentHash = contentHash( htmlString, wodString );
+
+		final NGElement cachedTemplate = _templatesByContentHash.get( contentHash );
+
+		if( cachedTemplate != null ) {
+			return cachedTemplate;
+		}
+
+		// Parsing happens outside of the map's locks, since the parser looks up (and might parse) other templates. Two threads might end up parsing the same template, in which case the first one wins.
+		final NGElement template = new NGTemplateParserProxy( htmlString, wodString ).parse();
+
+		if( _templatesByContentHash.size() >= MAX_ENTRIES ) {
+			_templatesByContentHash.clear();
+		}
+
+		final NGElement existingTemplate = _templatesByContentHash.putIfAbsent( contentHash, template );
+		return existingTemplate != null ? existingTemplate : template;
+	}
+
+	/**
+	 * @return The number of cached templates
+	 */
+	public int size() {
+		return _templatesByContentHash.size();
+	}
+
+	/**
+	 * Empties the cache
+	 */
+	public void clear() {
+		_templatesByContentHash.clear();
+	}
+
+	/**
+	 * @return A SHA-256 hash of the given template source
+	 */
+	static String contentHash( final String htmlString, final String wodString ) {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance( "SHA-256" );
+			digest.update( htmlString.getBytes( StandardCharsets.UTF_8 ) );
+
+			// Separates the html from the wod, so moving characters from one to the other results in a different hash
+			digest.update( (byte)0 );
+			digest.update( wodString.getBytes( StandardCharsets.UTF_8 ) );
+			return HexFormat.of().formatHex( digest.digest() );
+		}
+		catch( NoSuchAlgorithmException e ) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException( e );
+		}
+	}
+}
\ No newline at end of file
@@ -56,6 +56,14 @@ public class NGTemplateParserProxy {
 	 */
 	public NGElement parse() throws NGDeclarationFormatException, NGHTMLFormatException {
 		final PNode rootNode = new NGTemplateParser( _htmlString, _wodString ).parse();
+		return toElement( rootNode );
+	}
+
+	/**
+	 * @return An element template from the given (already parsed) node tree
+	 */
+	public static NGElement toElement( final PNode rootNode ) {
+		Objects.requireNonNull( rootNode );
 		return toDynamicElement( rootNode );
 	}
 
@@ -108,13 +116,31 @@ public class NGTemplateParserProxy {
 
 	/**
 	 * @return An element/template from the given list of nodes.
+	 *
+	 * Adjacent static nodes (HTML and comments) are merged into a single NGHTMLBareString, so static markup gets rendered using as few byte copies as possible.
 	 */
 	private static NGElement toTemplate( final List<PNode> nodes ) {
 
 		final List<NGElement> elements = new ArrayList<>();
+		final StringBuilder staticString = new StringBuilder();
 
 		for( final PNode pNode : nodes ) {
-			elements.add( toDynamicElement( pNode ) );
+			switch( pNode ) {
+				case PHTMLNode n -> staticString.append( n.value() );
+				case PCommentNode n -> staticString.append( n.value() );
+				default -> {
+					if( !staticString.isEmpty() ) {
+						elements.add( new NGHTMLBareString( staticString.toString() ) );
+						staticString.setLength( 0 );
+					}
+
+					elements.add( toDynamicElement( pNode ) );
+				}
+			}
+		}
+
+		if( !staticString.isEmpty() ) {
+			elements.add( new NGHTMLBareString( staticString.toString() ) );
 		}
 
 		if( elements.size() == 1 ) {
@@ -0,0 +1,160 @@
+package ng.appserver.templating;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+import ng.appserver.templating.parser.NGDeclarationFormatException;
+import ng.appserver.templating.parser.NGHTMLFormatException;
+import ng.appserver.templating.parser.NGTemplateParser;
+import ng.appserver.templating.parser.model.PNode;
+
+/**
+ * Parses all component templates in the given directories at build time, writing the results to a template archive (see NGTemplateArchive).
+ *
+ * Usage: NGTemplatePrecompiler [outputFile] [componentDirectory]...
+ *
+ * Exits with a non-zero status if any template fails to parse, so it can fail a build. With Maven, run it in the process-classes phase using the exec-maven-plugin (java goal),
+ * passing in ${project.build.outputDirectory}/META-INF/ng/templates.ngt as the output file and your component directories (usually src/main/components).
+ *
+ * Templates are located the same way as at runtime, i.e. Name.wo/Name.html (with an optional Name.wo/Name.wod) or a single file Name.html at the root of a component directory.
+ * If the same component exists in multiple directories, the first directory wins.
+ */
+
+public class NGTemplatePrecompiler {
+
+	/**
+	 * Thrown if one or more templates fail to parse
+	 */
+	public static class NGTemplatePrecompilationException extends Exception {
+
+		private final List<String> _errors;
+
+		public NGTemplatePrecompilationException( final List<String> errors ) {
+			super( "%s template(s) failed to parse:\n%s".formatted( errors.size(), String.join( "\n", errors ) ) );
+			_errors = List.copyOf( errors );
+		}
+
+		/**
+		 * @return A description of each error encountered
+		 */
+		public List<String> errors() {
+			return _errors;
+		}
+	}
+
+	public static void main( final String[] args ) throws IOException {
+		if( args.length < 2 ) {
+			System.err.println( "Usage: NGTemplatePrecompiler [outputFile] [componentDirectory]..." );
+			System.exit( 2 );
+		}
+
+		final Path outputFile = Path.of( args[0] );
+		final List<Path> componentDirectories = new ArrayList<>();
+
+		for( int i = 1; i < args.length; i++ ) {
+			componentDirectories.add( Path.of( args[i] ) );
+		}
+
+		final Map<String, PNode> templates;
+
+		try {
+			templates = compile( componentDirectories );
+		}
+		catch( NGTemplatePrecompilationException e ) {
+			System.err.println( e.getMessage() );
+			System.exit( 1 );
+			return;
+		}
+
+		if( outputFile.getParent() != null ) {
+			Files.createDirectories( outputFile.getParent() );
+		}
+
+		try( final OutputStream out = Files.newOutputStream( outputFile )) {
+			NGTemplateArchive.write( templates, out );
+		}
+
+		System.out.println( "Precompiled %s templates to %s".formatted( templates.size(), outputFile ) );
+	}
+
+	/**
+	 * @return The parsed templates in the given directories, keyed by component name
+	 */
+	public static Map<String, PNode> compile( final List<Path> componentDirectories ) throws IOException, NGTemplatePrecompilationException {
+		Objects.requireNonNull( componentDirectories );
+
+		final Map<String, PNode> templates = new LinkedHashMap<>();
+		final List<String> errors = new ArrayList<>();
+
+		for( final Path componentDirectory : componentDirectories ) {
+			if( !Files.isDirectory( componentDirectory ) ) {
+				// Not every module has components, so a missing directory isn't an error
+				continue;
+			}
+
+			final List<Path> children;
+
+			try( final Stream<Path> stream = Files.list( componentDirectory )) {
+				// Sorted so the archive is the same for every build
+				children = stream.sorted().toList();
+			}
+
+			// Traditional templates go first, since they take precedence over single file templates at runtime
+			for( final Path child : children ) {
+				final String filename = child.getFileName().toString();
+
+				if( Files.isDirectory( child ) && filename.endsWith( ".wo" ) ) {
+					final String componentName = filename.substring( 0, filename.length() - ".wo".length() );
+					final Path htmlFile = child.resolve( componentName + ".html" );
+					final Path wodFile = child.resolve( componentName + ".wod" );
+
+					if( Files.isRegularFile( htmlFile ) ) {
+						compile( componentName, htmlFile, Files.isRegularFile( wodFile ) ? wodFile : null, templates, errors );
+					}
+				}
+			}
+
+			for( final Path child : children ) {
+				final String filename = child.getFileName().toString();
+
+				if( Files.isRegularFile( child ) && filename.endsWith( ".html" ) ) {
+					final String componentName = filename.substring( 0, filename.length() - ".html".length() );
+					compile( componentName, child, null, templates, errors );
+				}
+			}
+		}
+
+		if( !errors.isEmpty() ) {
+			throw new NGTemplatePrecompilationException( errors );
+		}
+
+		return templates;
+	}
+
+	/**
+	 * Parses the given template and adds it to [templates], unless a template with the same name has already been added. Parsing errors get added to [errors].
+	 */
+	private static void compile( final String componentName, final Path htmlFile, final Path wodFile, final Map<String, PNode> templates, final List<String> errors ) throws IOException {
+		if( templates.containsKey( componentName ) ) {
+			return;
+		}
+
+		final String htmlString = Files.readString( htmlFile );
+		final String wodString = wodFile != null ? Files.readString( wodFile ) : "";
+
+		try {
+			templates.put( componentName, new NGTemplateParser( htmlString, wodString ).parse() );
+		}
+		catch( NGDeclarationFormatException | NGHTMLFormatException | RuntimeException e ) {
+			errors.add( "%s (%s): %s".formatted( componentName, htmlFile, e.getMessage() ) );
+		}
+	}
+}
\ No newline at end of file
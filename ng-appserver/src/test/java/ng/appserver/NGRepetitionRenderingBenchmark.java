@@ -0,0 +1,99 @@
+package ng.appserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import ng.appserver.templating.NGTemplateParserProxy;
+
+/**
+ * JMH benchmark measuring the rendering of a page containing a 5.000 row repetition
+ *
+ * Not a unit test, run it's main method manually (after test-compile, with the test classpath).
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xmx1g" })
+public class NGRepetitionRenderingBenchmark {
+
+	private static final String TEMPLATE = """
+			<html>
+				<body>
+					<table>
+						<wo:repetition list="$rows" item="$row">
+							<tr class="row">
+								<td><wo:str value="$row.number" /></td>
+								<td><wo:str value="$row.name" /></td>
+								<td><wo:str value="$row.description" /></td>
+								<td><wo:element elementName="input" type="text" value="$row.name" /></td>
+							</tr>
+						</wo:repetition>
+					</table>
+				</body>
+			</html>
+			""";
+
+	public record Row( int number, String name, String description ) {}
+
+	public static class BenchmarkComponent extends NGComponent {
+
+		public List<Row> rows;
+		public Row row;
+
+		public BenchmarkComponent( final NGContext context ) {
+			super( context );
+		}
+	}
+
+	private NGElement _template;
+	private NGContext _context;
+
+	@Setup
+	public void setup() throws Exception {
+		_template = new NGTemplateParserProxy( TEMPLATE, "" ).parse();
+
+		final NGRequest request = new NGRequest( "GET", "/", "HTTP/1.1", Map.of(), new byte[0] );
+		_context = new NGContext( request );
+
+		final BenchmarkComponent component = new BenchmarkComponent( _context );
+		component.rows = new ArrayList<>();
+
+		for( int i = 0; i < 5000; i++ ) {
+			component.rows.add( new Row( i, "Row number " + i, "A description of row " + i + " containing <markup> & \"quotes\" that need escaping. Þjóðarþýðingin" ) );
+		}
+
+		_context.setPage( component );
+		_context.setComponent( component );
+	}
+
+	@Benchmark
+	public NGResponse render() {
+		_context._resetElementID();
+		final NGResponse response = new NGResponse();
+		_template.appendToResponse( response, _context );
+		return response;
+	}
+
+	public static void main( String[] args ) throws RunnerException {
+		new Runner( new OptionsBuilder().include( NGRepetitionRenderingBenchmark.class.getSimpleName() ).build() ).run();
+	}
+}
\ No newline at end of file
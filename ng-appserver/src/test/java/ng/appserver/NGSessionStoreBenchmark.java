@@ -0,0 +1,81 @@
+package ng.appserver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares checkout/store/checkin latency of the in-memory and the file backed session stores.
+ *
+ * Not a unit test, run it's main method manually. Passing a number as an argument sets the number of sessions used (default 100.000)
+ */
+
+public class NGSessionStoreBenchmark {
+
+	private static final int ROUNDS = 5;
+
+	public static void main( String[] args ) throws IOException {
+		final int sessionCount = args.length > 0 ? Integer.parseInt( args[0] ) : 100_000;
+
+		final Path directory = Files.createTempDirectory( "ng-session-store-benchmark" );
+
+		for( int round = 0; round < ROUNDS; round++ ) {
+			System.out.println( "===== Round " + (round + 1) + " of " + ROUNDS );
+
+			final NGServerSessionStore serverSessionStore = new NGServerSessionStore();
+			run( "NGServerSessionStore", serverSessionStore, sessionCount );
+			serverSessionStore.close();
+
+			final NGFileSessionStore fileSessionStore = new NGFileSessionStore( directory.resolve( "round" + round ), Duration.ofSeconds( 1 ) );
+			run( "NGFileSessionStore", fileSessionStore, sessionCount );
+
+			final long startTime = System.nanoTime();
+			fileSessionStore.close();
+			System.out.println( "NGFileSessionStore: Closing (writing pending records) took %d ms".formatted( (System.nanoTime() - startTime) / 1_000_000 ) );
+
+			final long recoveryStartTime = System.nanoTime();
+			new NGFileSessionStore( directory.resolve( "round" + round ), Duration.ofSeconds( 1 ) ).close();
+			System.out.println( "NGFileSessionStore: Recovering %d sessions took %d ms".formatted( sessionCount, (System.nanoTime() - recoveryStartTime) / 1_000_000 ) );
+		}
+	}
+
+	private static void run( final String name, final NGServerSessionStore store, final int sessionCount ) {
+		final List<NGSession> sessions = new ArrayList<>( sessionCount );
+
+		for( int i = 0; i < sessionCount; i++ ) {
+			sessions.add( new NGSession() );
+		}
+
+		long startTime = System.nanoTime();
+
+		for( final NGSession session : sessions ) {
+			store.storeSession( session );
+		}
+
+		report( name, "storeSession", startTime, sessionCount );
+
+		startTime = System.nanoTime();
+
+		for( final NGSession session : sessions ) {
+			store.checkoutSessionWithID( session.sessionID() );
+		}
+
+		report( name, "checkoutSessionWithID", startTime, sessionCount );
+
+		startTime = System.nanoTime();
+
+		for( final NGSession session : sessions ) {
+			store.checkinSession( session );
+		}
+
+		report( name, "checkinSession", startTime, sessionCount );
+	}
+
+	private static void report( final String name, final String operation, final long startTime, final int operationCount ) {
+		final long elapsedNanos = System.nanoTime() - startTime;
+		System.out.println( "%s: %s x %d took %d ms (%d ns/op)".formatted( name, operation, operationCount, elapsedNanos / 1_000_000, elapsedNanos / operationCount ) );
+	}
+}
\ No newline at end of file
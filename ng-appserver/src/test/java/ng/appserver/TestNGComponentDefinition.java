@@ -0,0 +1,52 @@
+package ng.appserver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ng.appserver.templating.NGTemplateArchive;
+import ng.appserver.templating.parser.model.PHTMLNode;
+import ng.appserver.templating.parser.model.PNode;
+
+public class TestNGComponentDefinition {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void unreadableTemplateArchivesAreSkipped() throws IOException {
+		final Path validArchive = directory.resolve( "valid.ngt" );
+
+		try( final OutputStream out = Files.newOutputStream( validArchive )) {
+			NGTemplateArchive.write( Map.of( "Valid", new PHTMLNode( "<p>Valid</p>" ) ), out );
+		}
+
+		// Other format version
+		final Path otherVersionArchive = Files.write( directory.resolve( "otherVersion.ngt" ), new byte[] { 'N', 'G', 'T', 'A', 0, 0, 0, 99 } );
+
+		// A negative string length
+		final Path corruptArchive = Files.write( directory.resolve( "corrupt.ngt" ), new byte[] { 'N', 'G', 'T', 'A', 0, 0, 0, 1, -1, -1, -1, -1 } );
+
+		// A string length way beyond what's in the archive, which we'd run out of memory trying to allocate
+		final Path hugeLengthArchive = Files.write( directory.resolve( "hugeLength.ngt" ), new byte[] { 'N', 'G', 'T', 'A', 0, 0, 0, 1, 0, 0, 0, 1, 0x7F, -1, -1, -16 } );
+
+		// Truncated in the middle of a template
+		final byte[] validBytes = Files.readAllBytes( validArchive );
+		final Path truncatedArchive = Files.write( directory.resolve( "truncated.ngt" ), Arrays.copyOf( validBytes, validBytes.length - 4 ) );
+
+		final List<URL> archiveURLs = List.of( otherVersionArchive.toUri().toURL(), corruptArchive.toUri().toURL(), hugeLengthArchive.toUri().toURL(), truncatedArchive.toUri().toURL(), validArchive.toUri().toURL() );
+		final Map<String, PNode> templates = NGComponentDefinition.readTemplateArchives( archiveURLs );
+		assertEquals( Set.of( "Valid" ), templates.keySet() );
+	}
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package ng.appserver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ng.appserver.resources.NGResourceLoader;
+import ng.appserver.resources.NGResourceLoader.FileSystemDirectoryResourceSource;
+import ng.appserver.resources.StandardResourceType;
+
+public class TestNGComponentWarmUp {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void componentsAreDiscovered() throws IOException {
+		Files.createDirectories( directory.resolve( "Traditional.wo" ) );
+		Files.writeString( directory.resolve( "Traditional.wo/Traditional.html" ), "" );
+		Files.writeString( directory.resolve( "Traditional.wo/Traditional.wod" ), "" );
+		Files.writeString( directory.resolve( "SingleFile.html" ), "" );
+		Files.writeString( directory.resolve( "Traditional.html" ), "" );
+		Files.writeString( directory.resolve( "notes.txt" ), "" );
+		Files.createDirectories( directory.resolve( "Mismatched.wo" ) );
+		Files.writeString( directory.resolve( "Mismatched.wo/Other.html" ), "" );
+
+		try( final FileSystemDirectoryResourceSource source = new FileSystemDirectoryResourceSource( directory )) {
+			final NGResourceLoader loader = new NGResourceLoader();
+			loader.addResourceSource( "test", StandardResourceType.ComponentTemplate, source );
+			loader.addResourceSource( "test", StandardResourceType.WebServer, source );
+
+			assertEquals( Set.of( "Traditional", "SingleFile" ), NGComponentWarmUp.componentNames( loader ) );
+		}
+	}
+}
\ No newline at end of file
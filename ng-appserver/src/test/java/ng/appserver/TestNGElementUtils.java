@@ -0,0 +1,60 @@
+package ng.appserver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+import ng.appserver.elements.NGString;
+import ng.appserver.templating.NGTemplateCache;
+import ng.appserver.templating.NGTemplatePrecompiler.NGTemplatePrecompilationException;
+import ng.appserver.templating.parser.NGTemplateParser;
+import ng.kvc.NGKeyValueCoding;
+
+public class TestNGElementUtils {
+
+	@Test
+	public void registeredClasses() {
+		assertEquals( NGString.class, NGElementUtils.classWithNameNullIfNotFound( "NGString" ) );
+		assertEquals( NGString.class, NGElementUtils.classWithNameNullIfNotFound( NGString.class.getName() ) );
+	}
+
+	@Test
+	public void fullyQualifiedClassNames() {
+		assertEquals( String.class, NGElementUtils.classWithNameNullIfNotFound( "java.lang.String" ) );
+		assertNull( NGElementUtils.classWithNameNullIfNotFound( "java.lang.DoesNotExist" ) );
+	}
+
+	@Test
+	public void invalidClassNamesAreNotCached() {
+		final int resolvedClassCount = NGElementUtils.resolvedClassCount();
+
+		assertNull( NGElementUtils.classWithNameNullIfNotFound( "../etc/passwd" ) );
+		assertNull( NGElementUtils.classWithNameNullIfNotFound( "java.lang..String" ) );
+		assertNull( NGElementUtils.classWithNameNullIfNotFound( "Some Class" ) );
+		assertNull( NGElementUtils.classWithNameNullIfNotFound( "" ) );
+
+		assertEquals( resolvedClassCount, NGElementUtils.resolvedClassCount() );
+	}
+
+	@Test
+	public void classesInPackages() {
+		assertNull( NGElementUtils.classWithNameNullIfNotFound( "NGTemplateCache" ) );
+
+		// Adding a package must invalidate previously failed lookups
+		NGElementUtils.addPackage( NGTemplateCache.class.getPackageName() );
+		assertEquals( NGTemplateCache.class, NGElementUtils.classWithNameNullIfNotFound( "NGTemplateCache" ) );
+
+		// Packages in jars get scanned as well
+		NGElementUtils.addPackage( NGKeyValueCoding.class.getPackageName() );
+		assertEquals( NGKeyValueCoding.class, NGElementUtils.classWithNameNullIfNotFound( "NGKeyValueCoding" ) );
+
+		// Nested classes aren't found by their simple name
+		assertNull( NGElementUtils.classWithNameNullIfNotFound( "BindingCache" ) );
+		assertNull( NGElementUtils.classWithNameNullIfNotFound( "DoesNotExist" ) );
+
+		// Names relative to a registered package aren't in the package's index, but are found nonetheless
+		assertEquals( NGTemplatePrecompilationException.class, NGElementUtils.classWithNameNullIfNotFound( "NGTemplatePrecompiler$NGTemplatePrecompilationException" ) );
+		assertEquals( NGTemplateParser.class, NGElementUtils.classWithNameNullIfNotFound( "parser.NGTemplateParser" ) );
+	}
+}
\ No newline at end of file
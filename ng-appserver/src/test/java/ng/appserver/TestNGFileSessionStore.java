@@ -0,0 +1,142 @@
+package ng.appserver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestNGFileSessionStore {
+
+	public static class UserSession extends NGSession {
+
+		public String username;
+
+		@Override
+		protected void writeState( final DataOutput out ) throws IOException {
+			out.writeUTF( username );
+		}
+
+		@Override
+		protected void readState( final DataInput in ) throws IOException {
+			username = in.readUTF();
+		}
+	}
+
+	private static NGFileSessionStore newStore( final Path directory ) {
+		return new NGFileSessionStore( directory, Duration.ofHours( 1 ) );
+	}
+
+	@Test
+	public void sessionsSurviveRestart( @TempDir final Path directory ) {
+		NGFileSessionStore store = newStore( directory );
+		final UserSession session = new UserSession();
+		session.username = "hugi";
+		store.storeSession( session );
+		session.getContextIDAndIncrement();
+		session.getContextIDAndIncrement();
+		store.checkinSession( session );
+		store.close();
+
+		store = newStore( directory );
+		final UserSession restoredSession = assertInstanceOf( UserSession.class, store.checkoutSessionWithID( session.sessionID() ) );
+		assertEquals( "hugi", restoredSession.username );
+		assertEquals( session.birthDate().toEpochMilli(), restoredSession.birthDate().toEpochMilli() );
+		assertEquals( session.timeOut(), restoredSession.timeOut() );
+		assertEquals( 2, restoredSession.getContextIDAndIncrement() );
+		store.close();
+	}
+
+	@Test
+	public void removedSessionsDontSurviveRestart( @TempDir final Path directory ) {
+		NGFileSessionStore store = newStore( directory );
+		final NGSession removedSession = new NGSession();
+		final NGSession keptSession = new NGSession();
+		store.storeSession( removedSession );
+		store.storeSession( keptSession );
+		store.flush();
+
+		removedSession.terminate();
+		store.reapExpiredSessions();
+		store.close();
+
+		store = newStore( directory );
+		assertNull( store.checkoutSessionWithID( removedSession.sessionID() ) );
+		assertNotNull( store.checkoutSessionWithID( keptSession.sessionID() ) );
+		store.close();
+	}
+
+	@Test
+	public void logIsCompacted( @TempDir final Path directory ) {
+		final NGFileSessionStore store = newStore( directory );
+		final NGSession session = new NGSession();
+		store.storeSession( session );
+
+		for( int i = 0; i < 1500; i++ ) {
+			store.checkinSession( session );
+			store.flush();
+		}
+
+		assertTrue( store.logRecordCount() <= 1000 );
+		store.close();
+	}
+
+	@Test
+	public void failedCompactionKeepsTheLogUsable( @TempDir final Path directory ) throws IOException {
+		NGFileSessionStore store = newStore( directory );
+		final UserSession session = new UserSession();
+		session.username = "initial";
+		store.storeSession( session );
+
+		// Keeps the compacted log from getting written
+		final Path compactedFile = Files.createDirectories( directory.resolve( "sessions.log.compact/blocker" ) );
+
+		for( int i = 0; i < 1500; i++ ) {
+			session.username = "user" + i;
+			store.checkinSession( session );
+			store.flush();
+		}
+
+		assertTrue( store.logRecordCount() > 1000 );
+
+		Files.delete( compactedFile );
+		Files.delete( compactedFile.getParent() );
+		store.flush();
+		assertTrue( store.logRecordCount() <= 1000 );
+
+		session.username = "final";
+		store.checkinSession( session );
+		store.close();
+
+		store = newStore( directory );
+		assertEquals( "final", assertInstanceOf( UserSession.class, store.checkoutSessionWithID( session.sessionID() ) ).username );
+		store.close();
+	}
+
+	@Test
+	public void truncatedRecordsAreIgnored( @TempDir final Path directory ) throws IOException {
+		NGFileSessionStore store = newStore( directory );
+		final NGSession session = new NGSession();
+		store.storeSession( session );
+		store.close();
+
+		// Emulate a crash in the middle of writing a record
+		Files.write( directory.resolve( "sessions.log" ), new byte[] { 0, 0, 1 }, StandardOpenOption.APPEND );
+
+		store = newStore( directory );
+		assertNotNull( store.checkoutSessionWithID( session.sessionID() ) );
+		assertEquals( 1, store.logRecordCount() );
+		store.close();
+	}
+}
\ No newline at end of file
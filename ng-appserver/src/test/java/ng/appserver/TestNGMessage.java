@@ -67,4 +67,66 @@ public class TestNGMessage {
 		r.setContentBytes( initialBytes );
 		assertArrayEquals( initialBytes, r.contentBytes() );
 	}
+
+	@Test
+	public void appendContentStringEncodesLikeString() {
+		final String string = "ASCII, Þjóðarþýðingin, € and a surrogate pair: \uD83D\uDE00";
+		NGResponse r = new NGResponse();
+		r.appendContentString( string );
+		assertArrayEquals( string.getBytes( StandardCharsets.UTF_8 ), r.contentBytes() );
+		assertEquals( string, r.contentString() );
+	}
+
+	@Test
+	public void appendContentCharacter() {
+		final String string = "aÞ€\uD83D\uDE00";
+		NGResponse r = new NGResponse();
+
+		for( char c : string.toCharArray() ) {
+			r.appendContentCharacter( c );
+		}
+
+		assertArrayEquals( string.getBytes( StandardCharsets.UTF_8 ), r.contentBytes() );
+	}
+
+	@Test
+	public void unpairedSurrogatesAreReplaced() {
+		NGResponse r = new NGResponse();
+		r.appendContentString( "a\uD83Db\uDE00c" );
+		assertEquals( "a?b?c", r.contentString() );
+
+		// A high surrogate at the end of an appended string gets replaced right away, since strings are encoded in one go
+		r = new NGResponse();
+		r.appendContentString( "a\uD83D" );
+		r.appendContentBytes( new byte[] { 'b' } );
+		assertEquals( "a?b", r.contentString() );
+
+		// A high surrogate appended as a character waits for it's low surrogate, until something else gets appended or the content is read
+		r = new NGResponse();
+		r.appendContentCharacter( '\uD83D' );
+		r.appendContentBytes( new byte[] { 'b' } );
+		assertEquals( "?b", r.contentString() );
+
+		r = new NGResponse();
+		r.appendContentCharacter( 'a' );
+		r.appendContentCharacter( '\uD83D' );
+		assertEquals( 2, r.contentBytesLength() );
+		assertEquals( "a?", r.contentString() );
+
+		r = new NGResponse();
+		r.appendContentCharacter( '\uD83D' );
+		assertArrayEquals( new byte[] { '?' }, r.contentBytes() );
+
+		r = new NGResponse();
+		r.appendContentCharacter( '\uD83D' );
+		r.appendContentCharacter( '\uDE00' );
+		assertEquals( "\uD83D\uDE00", r.contentString() );
+
+		// Resetting the content discards a pending high surrogate
+		r = new NGResponse();
+		r.appendContentCharacter( '\uD83D' );
+		r.contentByteStream().reset();
+		r.appendContentCharacter( 'a' );
+		assertEquals( "a", r.contentString() );
+	}
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package ng.appserver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import ng.appserver.NGPageCache.EvictionPolicy;
+import ng.appserver.NGPageCache.SoftReferenceEvictedPageStore;
+
+public class TestNGPageCache {
+
+	private static NGComponent newPage() {
+		final NGRequest request = new NGRequest( "GET", "/", "HTTP/1.1", Map.of(), new byte[0] );
+		return new NGComponent( new NGContext( request ) );
+	}
+
+	@Test
+	public void restoreAndStatistics() {
+		final NGPageCache cache = new NGPageCache( EvictionPolicy.leastRecentlyUsed( 10 ) );
+		final NGComponent page = newPage();
+		cache.savePage( "1", page, null, null );
+
+		assertSame( page, cache.restorePageFromCache( "1" ) );
+		assertNull( cache.restorePageFromCache( "2" ) );
+
+		final NGPageCache.Statistics statistics = cache.statistics();
+		assertEquals( 1, statistics.hits() );
+		assertEquals( 1, statistics.misses() );
+		assertEquals( 0, statistics.evictions() );
+		assertEquals( 1, statistics.pageCount() );
+	}
+
+	@Test
+	public void leastRecentlyUsedRetainsAccessedPages() {
+		final NGPageCache cache = new NGPageCache( EvictionPolicy.leastRecentlyUsed( 2 ) );
+		cache.savePage( "1", newPage(), null, null );
+		cache.savePage( "2", newPage(), null, null );
+		cache.retainPageWithContextIDInCache( "1" );
+		cache.savePage( "3", newPage(), null, null );
+
+		assertNotNull( cache.restorePageFromCache( "1" ) );
+		assertNull( cache.restorePageFromCache( "2" ) );
+		assertNotNull( cache.restorePageFromCache( "3" ) );
+		assertEquals( 1, cache.statistics().evictions() );
+	}
+
+	@Test
+	public void countBoundedEvictsInInsertionOrder() {
+		final NGPageCache cache = new NGPageCache( EvictionPolicy.countBounded( 2 ) );
+		cache.savePage( "1", newPage(), null, null );
+		cache.savePage( "2", newPage(), null, null );
+		cache.retainPageWithContextIDInCache( "1" );
+		cache.savePage( "3", newPage(), null, null );
+
+		assertNull( cache.restorePageFromCache( "1" ) );
+		assertNotNull( cache.restorePageFromCache( "2" ) );
+		assertNotNull( cache.restorePageFromCache( "3" ) );
+	}
+
+	@Test
+	public void estimatedBytesBoundedEvictsWhenOverBudget() {
+		final NGPageCache cache = new NGPageCache( EvictionPolicy.estimatedBytesBounded( 250, page -> 100 ) );
+		final NGComponent page = newPage();
+		cache.savePage( "1", page, null, null );
+		cache.savePage( "2", newPage(), null, null );
+
+		// Partial updates share their root's page, so they don't add to the estimate no matter how many there are
+		cache.savePage( "1.1", page, "1", "container" );
+		cache.savePage( "1.2", page, "1", "container" );
+		cache.savePage( "1.3", page, "1", "otherContainer" );
+		assertEquals( 200, cache.statistics().estimatedBytes() );
+		assertEquals( 2, cache.statistics().pageCount() );
+
+		// Page 1 was just used, so storing a new page pushes out page 2
+		assertSame( page, cache.restorePageFromCache( "1.3" ) );
+		cache.retainPageWithContextIDInCache( "1.3" );
+		cache.savePage( "3", newPage(), null, null );
+		assertNull( cache.restorePageFromCache( "2" ) );
+		assertEquals( 200, cache.statistics().estimatedBytes() );
+
+		// Storing another page pushes out page 1, along with it's children
+		cache.savePage( "4", newPage(), null, null );
+		assertNull( cache.restorePageFromCache( "1" ) );
+		assertNull( cache.restorePageFromCache( "1.2" ) );
+		assertEquals( 200, cache.statistics().estimatedBytes() );
+	}
+
+	@Test
+	public void replacedPartialUpdatesAreRemoved() {
+		final NGPageCache cache = new NGPageCache( EvictionPolicy.leastRecentlyUsed( 10 ) );
+		final NGComponent page = newPage();
+		cache.savePage( "1", page, null, null );
+		cache.savePage( "1.1", page, "1", "container" );
+		cache.savePage( "1.2", page, "1.1", "container" );
+
+		assertNull( cache.restorePageFromCache( "1.1" ) );
+		assertSame( page, cache.restorePageFromCache( "1.2" ) );
+		assertEquals( 1, cache.cacheMap().get( "1" ).children().size() );
+	}
+
+	@Test
+	public void partialPagesAreStoredWithTheirRoot() {
+		final NGPageCache cache = new NGPageCache( EvictionPolicy.leastRecentlyUsed( 1 ) );
+		final NGComponent page = newPage();
+		cache.savePage( "1", page, null, null );
+		cache.savePage( "2", page, "1", "container" );
+
+		assertSame( page, cache.restorePageFromCache( "2" ) );
+		assertEquals( 1, cache.cacheMap().size() );
+		assertEquals( 1, cache.cacheMap().get( "1" ).children().size() );
+
+		cache.savePage( "3", newPage(), null, null );
+		assertNull( cache.restorePageFromCache( "2" ) );
+	}
+
+	@Test
+	public void evictedPagesAreRestoredFromEvictedPageStore() {
+		final SoftReferenceEvictedPageStore evictedPageStore = new SoftReferenceEvictedPageStore( 10 );
+		final NGPageCache cache = new NGPageCache( EvictionPolicy.leastRecentlyUsed( 1 ), evictedPageStore );
+		final NGComponent page = newPage();
+		final NGComponent partialPage = newPage();
+		cache.savePage( "1", page, null, null );
+		cache.savePage( "1.1", partialPage, "1", "container" );
+		cache.savePage( "2", newPage(), null, null );
+
+		assertEquals( 1, cache.cacheMap().size() );
+		assertEquals( 1, evictedPageStore.size() );
+
+		// Restoring a partial update brings back the entire page, pushing page 2 out to the evicted page store
+		assertSame( partialPage, cache.restorePageFromCache( "1.1" ) );
+		assertSame( page, cache.restorePageFromCache( "1" ) );
+		assertEquals( 1, cache.cacheMap().size() );
+		assertEquals( 1, evictedPageStore.size() );
+		assertNotNull( cache.restorePageFromCache( "2" ) );
+
+		final NGPageCache.Statistics statistics = cache.statistics();
+		assertEquals( 2, statistics.evictedPageStoreHits() );
+		assertEquals( 0, statistics.misses() );
+	}
+
+	@Test
+	public void evictedPageStoreIsBounded() {
+		final SoftReferenceEvictedPageStore evictedPageStore = new SoftReferenceEvictedPageStore( 1 );
+		final NGPageCache cache = new NGPageCache( EvictionPolicy.leastRecentlyUsed( 1 ), evictedPageStore );
+		cache.savePage( "1", newPage(), null, null );
+		cache.savePage( "2", newPage(), null, null );
+		cache.savePage( "3", newPage(), null, null );
+
+		assertNull( cache.restorePageFromCache( "1" ) );
+		assertNotNull( cache.restorePageFromCache( "2" ) );
+	}
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+package ng.appserver;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ng.appserver.NGResponse.FileRegion;
+import ng.appserver.resources.NGResource;
+import ng.appserver.resources.NGResourceDataCache;
+
+public class TestNGResourceRequestHandler {
+
+	private static final byte[] DATA = "0123456789".getBytes( StandardCharsets.UTF_8 );
+
+	private static NGRequest request( final Map<String, List<String>> headers ) {
+		final NGRequest request = new NGRequest( "GET", "/wr/app/file.txt", "HTTP/1.1", headers, new byte[0] );
+		request._setFormValues( Map.of() );
+		return request;
+	}
+
+	private static NGResource fileResource( final Path directory ) throws IOException {
+		final Path file = directory.resolve( "file.txt" );
+		Files.write( file, DATA );
+		return NGResource.of( file );
+	}
+
+	@Test
+	public void fileResourceIsServedFromFile( @TempDir final Path directory ) throws IOException {
+		final NGResource resource = fileResource( directory );
+		final NGResponse response = NGResourceRequestHandler.responseForResource( request( Map.of() ), resource, "file.txt" );
+		assertEquals( 200, response.status() );
+		assertEquals( new FileRegion( resource.filePath(), 0, DATA.length ), response.contentFileRegion() );
+		assertEquals( "no-cache", response.headerForKey( "cache-control" ) );
+		assertEquals( "bytes", response.headerForKey( "accept-ranges" ) );
+	}
+
+	@Test
+	public void conditionalRequests( @TempDir final Path directory ) throws IOException {
+		final NGResource resource = fileResource( directory );
+		final NGResponse response = NGResourceRequestHandler.responseForResource( request( Map.of() ), resource, "file.txt" );
+		final String eTag = response.headerForKey( "etag" );
+		final String lastModified = response.headerForKey( "last-modified" );
+
+		assertEquals( 304, NGResourceRequestHandler.responseForResource( request( Map.of( "If-None-Match", List.of( "\"nope\", " + eTag ) ) ), resource, "file.txt" ).status() );
+		assertEquals( 200, NGResourceRequestHandler.responseForResource( request( Map.of( "If-None-Match", List.of( "\"nope\"" ) ) ), resource, "file.txt" ).status() );
+		assertEquals( 304, NGResourceRequestHandler.responseForResource( request( Map.of( "If-Modified-Since", List.of( lastModified ) ) ), resource, "file.txt" ).status() );
+		assertEquals( 200, NGResourceRequestHandler.responseForResource( request( Map.of( "If-Modified-Since", List.of( "Thu, 01 Jan 1970 00:00:00 GMT" ) ) ), resource, "file.txt" ).status() );
+
+		// If-None-Match takes precedence
+		assertEquals( 200, NGResourceRequestHandler.responseForResource( request( Map.of( "If-None-Match", List.of( "\"nope\"" ), "If-Modified-Since", List.of( lastModified ) ) ), resource, "file.txt" ).status() );
+	}
+
+	@Test
+	public void rangeRequests( @TempDir final Path directory ) throws IOException {
+		final NGResource resource = fileResource( directory );
+
+		NGResponse response = NGResourceRequestHandler.responseForResource( request( Map.of( "Range", List.of( "bytes=2-4" ) ) ), resource, "file.txt" );
+		assertEquals( 206, response.status() );
+		assertEquals( "bytes 2-4/10", response.headerForKey( "content-range" ) );
+		assertEquals( new FileRegion( resource.filePath(), 2, 3 ), response.contentFileRegion() );
+
+		response = NGResourceRequestHandler.responseForResource( request( Map.of( "Range", List.of( "bytes=-3" ) ) ), resource, "file.txt" );
+		assertEquals( 206, response.status() );
+		assertEquals( new FileRegion( resource.filePath(), 7, 3 ), response.contentFileRegion() );
+
+		response = NGResourceRequestHandler.responseForResource( request( Map.of( "Range", List.of( "bytes=8-100" ) ) ), resource, "file.txt" );
+		assertEquals( "bytes 8-9/10", response.headerForKey( "content-range" ) );
+
+		response = NGResourceRequestHandler.responseForResource( request( Map.of( "Range", List.of( "bytes=10-" ) ) ), resource, "file.txt" );
+		assertEquals( 416, response.status() );
+		assertEquals( "bytes */10", response.headerForKey( "content-range" ) );
+
+		// Multiple ranges and ranges with a non-matching If-Range get the whole resource
+		assertEquals( 200, NGResourceRequestHandler.responseForResource( request( Map.of( "Range", List.of( "bytes=0-1,3-4" ) ) ), resource, "file.txt" ).status() );
+		assertEquals( 200, NGResourceRequestHandler.responseForResource( request( Map.of( "Range", List.of( "bytes=0-1" ), "If-Range", List.of( "\"nope\"" ) ) ), resource, "file.txt" ).status() );
+	}
+
+	@Test
+	public void streamResource() {
+		final NGResource resource = NGResource.of( () -> new ByteArrayInputStream( DATA ) );
+
+		NGResponse response = NGResourceRequestHandler.responseForResource( request( Map.of() ), resource, "file.txt" );
+		assertArrayEquals( DATA, response.contentBytes() );
+		assertNull( response.contentFileRegion() );
+		assertNull( response.headerForKey( "last-modified" ) );
+
+		final String eTag = response.headerForKey( "etag" );
+		assertEquals( 304, NGResourceRequestHandler.responseForResource( request( Map.of( "If-None-Match", List.of( eTag ) ) ), resource, "file.txt" ).status() );
+
+		response = NGResourceRequestHandler.responseForResource( request( Map.of( "Range", List.of( "bytes=1-2" ) ) ), resource, "file.txt" );
+		assertEquals( "12", response.contentString() );
+	}
+
+	@Test
+	public void versionedURLsAreCachedForever( @TempDir final Path directory ) throws IOException {
+		final NGRequest request = new NGRequest( "GET", "/wr/app/file.txt", "HTTP/1.1", Map.of(), new byte[0] );
+		request._setFormValues( Map.of( NGResourceRequestHandler.VERSION_PARAMETER_NAME, List.of( "1" ) ) );
+		final NGResponse response = NGResourceRequestHandler.responseForResource( request, fileResource( directory ), "file.txt" );
+		assertEquals( "public, max-age=31536000, immutable", response.headerForKey( "cache-control" ) );
+	}
+
+	@Test
+	public void cachedResourceIsServedCompressed() throws IOException {
+		final byte[] text = "body { color: red; }\n".repeat( 100 ).getBytes( StandardCharsets.UTF_8 );
+		final NGResource resource = NGResource.of( () -> new ByteArrayInputStream( text ) );
+		final NGResourceDataCache cache = new NGResourceDataCache( 1024 * 1024, 1024 * 1024 );
+
+		final NGResponse plainResponse = NGResourceRequestHandler.responseForResource( request( Map.of() ), resource, "style.css", cache );
+		assertArrayEquals( text, plainResponse.contentBytes() );
+		assertNull( plainResponse.headerForKey( "content-encoding" ) );
+		assertEquals( "Accept-Encoding", plainResponse.headerForKey( "vary" ) );
+
+		final NGResponse gzipResponse = NGResourceRequestHandler.responseForResource( request( Map.of( "Accept-Encoding", List.of( "deflate, gzip" ) ) ), resource, "style.css", cache );
+		assertEquals( "gzip", gzipResponse.headerForKey( "content-encoding" ) );
+		assertArrayEquals( cache.data( resource, true ).gzipBytes(), gzipResponse.contentBytes() );
+
+		final NGResponse deflateResponse = NGResourceRequestHandler.responseForResource( request( Map.of( "Accept-Encoding", List.of( "gzip;q=0.5, deflate" ) ) ), resource, "style.css", cache );
+		assertEquals( "deflate", deflateResponse.headerForKey( "content-encoding" ) );
+
+		// Each variant has it's own entity tag
+		final String gzipETag = gzipResponse.headerForKey( "etag" );
+		assertNotEquals( plainResponse.headerForKey( "etag" ), gzipETag );
+		assertEquals( 304, NGResourceRequestHandler.responseForResource( request( Map.of( "Accept-Encoding", List.of( "gzip" ), "If-None-Match", List.of( gzipETag ) ) ), resource, "style.css", cache ).status() );
+
+		// Ranges are served from the unencoded data
+		final NGResponse rangeResponse = NGResourceRequestHandler.responseForResource( request( Map.of( "Accept-Encoding", List.of( "gzip" ), "Range", List.of( "bytes=0-3" ) ) ), resource, "style.css", cache );
+		assertEquals( 206, rangeResponse.status() );
+		assertEquals( "body", rangeResponse.contentString() );
+
+		assertEquals( 1, cache.misses() );
+	}
+
+	@Test
+	public void cachedResourceIsNotCompressedAgain() {
+		// Too small for compression to make it smaller, so the cache doesn't keep compressed variants
+		final NGResource resource = NGResource.of( () -> new ByteArrayInputStream( "body{}".getBytes( StandardCharsets.UTF_8 ) ) );
+		final NGResourceDataCache cache = new NGResourceDataCache( 1024 * 1024, 1024 * 1024 );
+
+		final NGRequest request = request( Map.of( "Accept-Encoding", List.of( "gzip" ) ) );
+		final NGResponse response = NGResourceRequestHandler.responseForResource( request, resource, "style.css", cache );
+		assertFalse( response.isCompressionAllowed() );
+		assertNull( response.headerForKey( "content-encoding" ) );
+
+		// The compressor leaves the response alone
+		new NGResponseCompressor( 0, 6 ).compress( request, response );
+		assertNull( response.headerForKey( "content-encoding" ) );
+		assertEquals( "body{}", response.contentString() );
+	}
+
+	@Test
+	public void encodedVariantsAreRevalidated() {
+		final NGResource resource = NGResource.of( () -> new ByteArrayInputStream( DATA ) );
+		final String eTag = NGResourceRequestHandler.responseForResource( request( Map.of() ), resource, "file.txt", null ).headerForKey( "etag" );
+		final String gzipETag = eTag.substring( 0, eTag.length() - 1 ) + "-gzip\"";
+
+		// The client might have received a variant compressed by NGResponseCompressor
+		assertEquals( 304, NGResourceRequestHandler.responseForResource( request( Map.of( "If-None-Match", List.of( gzipETag ) ) ), resource, "file.txt", null ).status() );
+		assertEquals( 200, NGResourceRequestHandler.responseForResource( request( Map.of( "If-None-Match", List.of( "\"nope-gzip\"" ) ) ), resource, "file.txt", null ).status() );
+	}
+
+	@Test
+	public void cachedFileResourceIsServedFromMemory( @TempDir final Path directory ) throws IOException {
+		final NGResource resource = fileResource( directory );
+		final NGResourceDataCache cache = new NGResourceDataCache( 1024 * 1024, 1024 * 1024 );
+		final NGResponse response = NGResourceRequestHandler.responseForResource( request( Map.of() ), resource, "file.txt", cache );
+		assertArrayEquals( DATA, response.contentBytes() );
+		assertNull( response.contentFileRegion() );
+		assertEquals( 1, cache.count() );
+
+		// Files exceeding the cache's entry size limit still get served from the file
+		final NGResponse uncachedResponse = NGResourceRequestHandler.responseForResource( request( Map.of() ), resource, "file.txt", new NGResourceDataCache( 1024, 5 ) );
+		assertEquals( new FileRegion( resource.filePath(), 0, DATA.length ), uncachedResponse.contentFileRegion() );
+	}
+
+	@Test
+	public void fingerprintedPath() {
+		assertEquals( "css/main.3fa9c1d2.css", NGResourceRequestHandler.fingerprintedPath( "css/main.css", "3fa9c1d2" ) );
+		assertEquals( "jquery.min.3fa9c1d2.js", NGResourceRequestHandler.fingerprintedPath( "jquery.min.js", "3fa9c1d2" ) );
+		assertEquals( "LICENSE.3fa9c1d2", NGResourceRequestHandler.fingerprintedPath( "LICENSE", "3fa9c1d2" ) );
+		assertEquals( "dir.d/.htaccess.3fa9c1d2", NGResourceRequestHandler.fingerprintedPath( "dir.d/.htaccess", "3fa9c1d2" ) );
+	}
+}
\ No newline at end of file
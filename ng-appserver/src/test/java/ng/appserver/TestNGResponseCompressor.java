@@ -0,0 +1,122 @@
+package ng.appserver;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+
+public class TestNGResponseCompressor {
+
+	private static final byte[] HTML = "<p>Hello world</p>\n".repeat( 200 ).getBytes( StandardCharsets.UTF_8 );
+
+	private static final NGResponseCompressor COMPRESSOR = new NGResponseCompressor( 1024, 6 );
+
+	private static NGRequest request( final String acceptEncoding ) {
+		final Map<String, List<String>> headers = acceptEncoding != null ? Map.of( "accept-encoding", List.of( acceptEncoding ) ) : Map.of();
+		return new NGRequest( "GET", "/", "HTTP/1.1", headers, new byte[0] );
+	}
+
+	private static NGResponse htmlResponse( final byte[] bytes ) {
+		final NGResponse response = new NGResponse( bytes, 200 );
+		response.setHeader( "Content-Type", "text/html; charset=utf-8" );
+		return response;
+	}
+
+	@Test
+	public void bufferedResponseIsCompressed() throws IOException {
+		final NGResponse response = htmlResponse( HTML );
+		response.setHeader( "ETag", "\"abc\"" );
+		COMPRESSOR.compress( request( "gzip, deflate, br" ), response );
+		assertEquals( "gzip", response.headerForKey( "content-encoding" ) );
+		assertEquals( "Accept-Encoding", response.headerForKey( "vary" ) );
+		assertEquals( "\"abc-gzip\"", response.headerForKey( "etag" ) );
+		assertArrayEquals( HTML, new GZIPInputStream( new ByteArrayInputStream( response.contentBytes() ) ).readAllBytes() );
+	}
+
+	@Test
+	public void deflateIsUsedIfPreferred() throws IOException {
+		final NGResponse response = htmlResponse( HTML );
+		COMPRESSOR.compress( request( "gzip;q=0.5, deflate" ), response );
+		assertEquals( "deflate", response.headerForKey( "content-encoding" ) );
+		assertArrayEquals( HTML, new InflaterInputStream( new ByteArrayInputStream( response.contentBytes() ) ).readAllBytes() );
+	}
+
+	@Test
+	public void ineligibleResponsesAreLeftAlone() {
+		final NGResponse noAcceptEncoding = htmlResponse( HTML );
+		COMPRESSOR.compress( request( null ), noAcceptEncoding );
+		assertNull( noAcceptEncoding.headerForKey( "content-encoding" ) );
+		assertEquals( "Accept-Encoding", noAcceptEncoding.headerForKey( "vary" ) );
+		assertArrayEquals( HTML, noAcceptEncoding.contentBytes() );
+
+		final NGResponse small = htmlResponse( "<p>Hello</p>".getBytes() );
+		COMPRESSOR.compress( request( "gzip" ), small );
+		assertNull( small.headerForKey( "content-encoding" ) );
+
+		final NGResponse image = new NGResponse( HTML, 200 );
+		image.setHeader( "Content-Type", "image/png" );
+		COMPRESSOR.compress( request( "gzip" ), image );
+		assertNull( image.headerForKey( "content-encoding" ) );
+
+		final NGResponse notFound = htmlResponse( HTML );
+		notFound.setStatus( 404 );
+		COMPRESSOR.compress( request( "gzip" ), notFound );
+		assertNull( notFound.headerForKey( "content-encoding" ) );
+
+		final NGResponse alreadyEncoded = htmlResponse( HTML );
+		alreadyEncoded.setHeader( "Content-Encoding", "br" );
+		COMPRESSOR.compress( request( "gzip" ), alreadyEncoded );
+		assertEquals( "br", alreadyEncoded.headerForKey( "content-encoding" ) );
+		assertArrayEquals( HTML, alreadyEncoded.contentBytes() );
+
+		final NGResponse marked = htmlResponse( HTML );
+		marked.setCompressionAllowed( false );
+		COMPRESSOR.compress( request( "gzip" ), marked );
+		assertNull( marked.headerForKey( "content-encoding" ) );
+		assertArrayEquals( HTML, marked.contentBytes() );
+	}
+
+	@Test
+	public void streamedResponsesAreCompressed() throws IOException {
+		final NGResponse written = htmlResponse( new byte[0] );
+		written.setContentWriter( out -> out.write( HTML ) );
+		COMPRESSOR.compress( request( "gzip" ), written );
+		assertEquals( "gzip", written.headerForKey( "content-encoding" ) );
+		assertArrayEquals( HTML, gunzip( written ) );
+
+		final NGResponse streamed = htmlResponse( new byte[0] );
+		final InputStream stream = new ByteArrayInputStream( HTML );
+		streamed.setContentInputStream( stream, HTML.length );
+		COMPRESSOR.compress( request( "gzip" ), streamed );
+		assertNull( streamed.contentInputStream() );
+		assertArrayEquals( HTML, gunzip( streamed ) );
+	}
+
+	@Test
+	public void preferredContentEncoding() {
+		assertNull( NGResponseCompressor.preferredContentEncoding( null, true, true ) );
+		assertNull( NGResponseCompressor.preferredContentEncoding( "br", true, true ) );
+		assertNull( NGResponseCompressor.preferredContentEncoding( "gzip;q=0", true, true ) );
+		assertEquals( "gzip", NGResponseCompressor.preferredContentEncoding( "*", true, true ) );
+		assertEquals( "gzip", NGResponseCompressor.preferredContentEncoding( "deflate, gzip", true, true ) );
+		assertEquals( "deflate", NGResponseCompressor.preferredContentEncoding( "gzip, deflate", false, true ) );
+		assertNull( NGResponseCompressor.preferredContentEncoding( "gzip", false, true ) );
+	}
+
+	private static byte[] gunzip( final NGResponse response ) throws IOException {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		response.contentWriter().writeTo( out );
+		return new GZIPInputStream( new ByteArrayInputStream( out.toByteArray() ) ).readAllBytes();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,226 @@
+package ng.appserver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import ng.appserver.NGServerSessionStore.PageCacheBudget;
+import ng.appserver.properties.NGProperties;
+
+public class TestNGServerSessionStore {
+
+	private static NGComponent newPage() {
+		final NGRequest request = new NGRequest( "GET", "/", "HTTP/1.1", Map.of(), new byte[0] );
+		return new NGComponent( new NGContext( request ) );
+	}
+
+	@Test
+	public void pageCacheBudgetEvictsColdestSessionFirst() throws InterruptedException {
+		final NGServerSessionStore store = new NGServerSessionStore();
+		store.setPageCacheBudget( new PageCacheBudget( 3L, null ) );
+
+		final NGSession coldSession = new NGSession();
+		final NGSession hotSession = new NGSession();
+		store.storeSession( coldSession );
+		store.storeSession( hotSession );
+
+		coldSession.pageCache().savePage( "1", newPage(), null, null );
+		coldSession.pageCache().savePage( "2", newPage(), null, null );
+		hotSession.pageCache().savePage( "1", newPage(), null, null );
+
+		Thread.sleep( 10 );
+		hotSession.touch();
+		hotSession.pageCache().savePage( "2", newPage(), null, null );
+
+		// Budget enforcement happens asynchronously, so we give it a little time
+		for( int i = 0; i < 100 && store.pageCacheTotalPageCount() > 3; i++ ) {
+			Thread.sleep( 20 );
+		}
+
+		assertEquals( 3, store.pageCacheTotalPageCount() );
+		assertNull( coldSession.pageCache().restorePageFromCache( "1" ) );
+		assertNotNull( coldSession.pageCache().restorePageFromCache( "2" ) );
+		assertNotNull( hotSession.pageCache().restorePageFromCache( "1" ) );
+		assertNotNull( hotSession.pageCache().restorePageFromCache( "2" ) );
+	}
+
+	@Test
+	public void pageCacheBudgetEvictsAcrossManySessions() throws InterruptedException {
+		final NGServerSessionStore store = new NGServerSessionStore();
+		final Instant now = Instant.now();
+		final List<NGSession> sessions = new ArrayList<>();
+
+		// More sessions than get selected in a single pass, the first one being the coldest
+		for( int i = 0; i < 40; i++ ) {
+			final NGSession session = new NGSession();
+			session._restore( "session" + i, now.minusSeconds( 100 ), now.minusSeconds( 40 - i ), Duration.ofHours( 1 ), 0 );
+			store.storeSession( session );
+			session.pageCache().savePage( "1", newPage(), null, null );
+			sessions.add( session );
+		}
+
+		store.setPageCacheBudget( new PageCacheBudget( 10L, null ) );
+
+		// Budget enforcement happens asynchronously, so we give it a little time
+		for( int i = 0; i < 100 && store.pageCacheTotalPageCount() > 10; i++ ) {
+			Thread.sleep( 20 );
+		}
+
+		assertEquals( 10, store.pageCacheTotalPageCount() );
+
+		for( int i = 0; i < 40; i++ ) {
+			assertEquals( i >= 30, sessions.get( i ).pageCache().restorePageFromCache( "1" ) != null, "Only the 10 most recently touched sessions keep their pages" );
+		}
+	}
+
+	@Test
+	public void pageCacheBudgetFromProperties() {
+		assertEquals( PageCacheBudget.UNLIMITED, PageCacheBudget.fromProperties( new NGProperties() ) );
+	}
+
+	@Test
+	public void reaperRemovesTerminatedSessions() {
+		final NGServerSessionStore store = new NGServerSessionStore();
+		final NGSession session = new NGSession();
+		store.storeSession( session );
+
+		store.reapExpiredSessions();
+		assertEquals( 1, store.activeSessionCount() );
+
+		session.terminate();
+		store.reapExpiredSessions();
+		assertEquals( 0, store.activeSessionCount() );
+		assertEquals( 1, store.reapedSessionCount() );
+		assertNull( store.checkoutSessionWithID( session.sessionID() ) );
+	}
+
+	@Test
+	public void reaperReschedulesTouchedSessions() {
+		final NGServerSessionStore store = new NGServerSessionStore();
+		final NGSession touchedSession = new NGSession();
+		final NGSession expiredSession = new NGSession();
+		touchedSession.setTimeOut( Duration.ZERO );
+		expiredSession.setTimeOut( Duration.ZERO );
+		store.storeSession( touchedSession );
+		store.storeSession( expiredSession );
+
+		// Both sessions' expiration checks are now due. Postponing expiration (like touching does) doesn't reschedule the check, so the reaper finds a session that's still alive
+		touchedSession.setTimeOut( Duration.ofMinutes( 60 ) );
+		touchedSession.touch();
+		store.reapExpiredSessions();
+
+		assertEquals( 1, store.activeSessionCount() );
+		assertEquals( 1, store.reapedSessionCount() );
+		assertNotNull( store.checkoutSessionWithID( touchedSession.sessionID() ) );
+	}
+
+	@Test
+	public void sessionsTerminatedWhileBeingReapedAreRemoved() {
+		final NGServerSessionStore store = new NGServerSessionStore();
+		final AtomicBoolean terminateAfterCheck = new AtomicBoolean();
+
+		// Emulates another thread terminating the session right after the reaper has found it alive
+		final NGSession session = new NGSession() {
+			@Override
+			public boolean shouldTerminate() {
+				final boolean shouldTerminate = super.shouldTerminate();
+
+				if( terminateAfterCheck.getAndSet( false ) ) {
+					terminate();
+				}
+
+				return shouldTerminate;
+			}
+		};
+
+		session.setTimeOut( Duration.ZERO );
+		store.storeSession( session );
+		session.setTimeOut( Duration.ofMinutes( 60 ) );
+		session.touch();
+
+		terminateAfterCheck.set( true );
+		store.reapExpiredSessions();
+		store.reapExpiredSessions();
+		assertEquals( 0, store.activeSessionCount() );
+	}
+
+	@Test
+	public void checkoutWaitsForCheckin() throws InterruptedException, ExecutionException, TimeoutException {
+		final NGServerSessionStore store = new NGServerSessionStore();
+		final NGSession session = new NGSession();
+		store.storeSession( session );
+
+		assertSame( session, store.checkoutSessionWithID( session.sessionID() ) );
+
+		// Another thread has to wait for us to check the session back in
+		final CompletableFuture<NGSession> otherCheckout = CompletableFuture.supplyAsync( () -> store.checkoutSessionWithID( session.sessionID() ) );
+		assertThrows( TimeoutException.class, () -> otherCheckout.get( 100, TimeUnit.MILLISECONDS ) );
+
+		store.checkinSession( session );
+		assertSame( session, otherCheckout.get( 5, TimeUnit.SECONDS ) );
+	}
+
+	@Test
+	public void sessionsAreLockedIndividually() throws InterruptedException, ExecutionException, TimeoutException {
+		final NGServerSessionStore store = new NGServerSessionStore();
+		final NGSession session = new NGSession();
+		final NGSession otherSession = new NGSession();
+		store.storeSession( session );
+		store.storeSession( otherSession );
+
+		assertSame( session, store.checkoutSessionWithID( session.sessionID() ) );
+
+		// Checking out a different session doesn't wait for ours
+		final CompletableFuture<NGSession> otherCheckout = CompletableFuture.supplyAsync( () -> {
+			final NGSession checkedOutSession = store.checkoutSessionWithID( otherSession.sessionID() );
+			store.checkinSession( checkedOutSession );
+			return checkedOutSession;
+		} );
+
+		assertSame( otherSession, otherCheckout.get( 5, TimeUnit.SECONDS ) );
+		assertEquals( 1, store.sessionLockCount() );
+
+		// Locks are discarded once no one is using them
+		store.checkinSession( session );
+		assertEquals( 0, store.sessionLockCount() );
+		assertNull( store.checkoutSessionWithID( "nonexistent" ) );
+		assertEquals( 0, store.sessionLockCount() );
+	}
+
+	@Test
+	public void checkoutTimesOut() throws InterruptedException, ExecutionException {
+		final NGServerSessionStore store = new NGServerSessionStore();
+		store.setCheckoutTimeout( Duration.ofMillis( 50 ) );
+		final NGSession session = new NGSession();
+		store.storeSession( session );
+		store.checkoutSessionWithID( session.sessionID() );
+
+		final CompletableFuture<Throwable> otherCheckout = CompletableFuture.supplyAsync( () -> {
+			try {
+				store.checkoutSessionWithID( session.sessionID() );
+				return null;
+			}
+			catch( NGSessionCheckoutTimeoutException e ) {
+				return e;
+			}
+		} );
+
+		assertNotNull( otherCheckout.get() );
+		store.checkinSession( session );
+	}
+}
\ No newline at end of file
@@ -0,0 +1,70 @@
+package ng.appserver.directactions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import ng.appserver.NGActionResults;
+import ng.appserver.NGElementUtils;
+import ng.appserver.NGRequest;
+import ng.appserver.NGResponse;
+
+public class TestNGDirectActionRequestHandler {
+
+	public static class TestActions extends NGDirectAction {
+
+		public TestActions( final NGRequest request ) {
+			super( request );
+		}
+
+		public NGActionResults helloAction() {
+			return new NGResponse( "Hello " + request().uri(), 200 );
+		}
+
+		public NGActionResults failAction() {
+			throw new IllegalArgumentException( "Failed" );
+		}
+
+		public String notAnAction() {
+			return "Not an action";
+		}
+	}
+
+	@BeforeAll
+	public static void registerActions() {
+		NGElementUtils.addClass( TestActions.class );
+	}
+
+	private static NGResponse response( final String uri ) {
+		return new NGDirectActionRequestHandler().handleRequest( new NGRequest( "GET", uri, "HTTP/1.1", Map.of(), new byte[0] ) );
+	}
+
+	@Test
+	public void actionsAreInvoked() {
+		assertEquals( "Hello /wa/TestActions/hello", response( "/wa/TestActions/hello" ).contentString() );
+		assertEquals( 200, response( "/wa/TestActions" ).status(), "The default action gets invoked if no action is specified" );
+	}
+
+	@Test
+	public void unknownActionsAreNotFound() {
+		assertEquals( 404, response( "/wa/TestActions/missing" ).status() );
+		assertEquals( 404, response( "/wa/TestActions/notAn" ).status() );
+		assertEquals( 404, response( "/wa/DoesNotExist/hello" ).status() );
+		assertEquals( 404, response( "/wa/java.lang.String/hello" ).status(), "Classes that aren't direct actions can't be invoked" );
+	}
+
+	@Test
+	public void exceptionsArePassedOn() {
+		assertEquals( "Failed", assertThrows( IllegalArgumentException.class, () -> response( "/wa/TestActions/fail" ) ).getMessage() );
+	}
+
+	@Test
+	public void dispatchInformationIsCached() {
+		assertSame( NGDirectAction.DirectActionClass.of( TestActions.class ), NGDirectAction.DirectActionClass.of( TestActions.class ) );
+	}
+}
\ No newline at end of file
@@ -0,0 +1,45 @@
+package ng.appserver.privates;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import ng.appserver.NGResponse;
+import ng.appserver.privates.NGHTMLUtilities.EscapeMode;
+
+public class TestNGHTMLUtilities {
+
+	@Test
+	public void escapeHTML() {
+		assertEquals( "&lt;p class=&quot;x&quot;&gt;Tom &amp; Jerry&#39;s&lt;/p&gt;", NGHTMLUtilities.escapeHTML( "<p class=\"x\">Tom & Jerry's</p>" ) );
+		assertEquals( "&lt;p class=\"x\"&gt;Tom &amp; Jerry's&lt;/p&gt;", NGHTMLUtilities.escapeHTML( "<p class=\"x\">Tom & Jerry's</p>", EscapeMode.TEXT ) );
+	}
+
+	@Test
+	public void escapeHTMLReturnsUnchangedStringAsIs() {
+		final String string = "Nothing to see here, Þjóðarþýðingin";
+		assertSame( string, NGHTMLUtilities.escapeHTML( string ) );
+		assertSame( string, NGHTMLUtilities.escapeHTML( string, EscapeMode.TEXT ) );
+	}
+
+	@Test
+	public void appendEscapedHTMLToMessage() {
+		final NGResponse response = new NGResponse();
+		response.appendContentString( "<b>" );
+		NGHTMLUtilities.appendEscapedHTML( response, "Þór & \"Óðinn\" <3", EscapeMode.ATTRIBUTE );
+		NGHTMLUtilities.appendEscapedHTML( response, "&", EscapeMode.TEXT );
+		assertEquals( "<b>Þór &amp; &quot;Óðinn&quot; &lt;3&amp;", response.contentString() );
+	}
+
+	@Test
+	public void createElementStringWithAttributesEscapesValues() {
+		final Map<String, String> attributes = new LinkedHashMap<>();
+		attributes.put( "type", "text" );
+		attributes.put( "value", "\"quoted\" & <tagged>" );
+		assertEquals( "<input type=\"text\" value=\"&quot;quoted&quot; &amp; &lt;tagged&gt;\"/>", NGHTMLUtilities.createElementStringWithAttributes( "input", attributes, true ) );
+	}
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package ng.appserver.resources;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ng.appserver.resources.NGResourceLoader.ClasspathResourceIndex;
+
+public class TestClasspathResourceIndex {
+
+	private static void writeJar( final Path jar, final String entryName, final String content ) throws IOException {
+		try( final JarOutputStream out = new JarOutputStream( Files.newOutputStream( jar ) )) {
+			out.putNextEntry( new JarEntry( entryName ) );
+			out.write( content.getBytes( StandardCharsets.UTF_8 ) );
+			out.closeEntry();
+			out.putNextEntry( new JarEntry( "some/Class.class" ) );
+			out.closeEntry();
+		}
+	}
+
+	@Test
+	public void lookups( @TempDir final Path directory ) throws IOException {
+		final Path classesDirectory = Files.createDirectories( directory.resolve( "classes" ) );
+		Files.createDirectories( classesDirectory.resolve( "webserver-resources" ) );
+		Files.writeString( classesDirectory.resolve( "webserver-resources/style.css" ), "from directory" );
+
+		final Path jar = directory.resolve( "lib.jar" );
+		writeJar( jar, "webserver-resources/with space.css", "from jar" );
+
+		final Path shadowedJar = directory.resolve( "shadowed.jar" );
+		writeJar( shadowedJar, "webserver-resources/style.css", "from shadowed jar" );
+
+		final ClasspathResourceIndex index = ClasspathResourceIndex.build( List.of( classesDirectory, jar, shadowedJar ) );
+
+		// Classes don't get indexed
+		assertEquals( 2, index.size() );
+
+		// The first classpath element containing the resource wins
+		final NGResource directoryResource = index.resourceWithPath( "webserver-resources/style.css" ).get();
+		assertEquals( classesDirectory.resolve( "webserver-resources/style.css" ), directoryResource.filePath() );
+		assertArrayEquals( "from directory".getBytes( StandardCharsets.UTF_8 ), directoryResource.bytes() );
+
+		final NGResource jarResource = index.resourceWithPath( "webserver-resources/with space.css" ).get();
+		assertArrayEquals( "from jar".getBytes( StandardCharsets.UTF_8 ), jarResource.bytes() );
+
+		assertTrue( index.resourceWithPath( "webserver-resources/nope.css" ).isEmpty() );
+
+		// Files added to a directory after indexing are still found
+		Files.writeString( classesDirectory.resolve( "webserver-resources/new.css" ), "new" );
+		assertTrue( index.resourceWithPath( "webserver-resources/new.css" ).isPresent() );
+	}
+
+	@Test
+	public void pathsOutsideDirectoriesAreNotFound( @TempDir final Path directory ) throws IOException {
+		final Path classesDirectory = Files.createDirectories( directory.resolve( "classes" ) );
+		Files.createDirectories( classesDirectory.resolve( "webserver-resources" ) );
+		Files.writeString( directory.resolve( "secret.txt" ), "secret" );
+
+		final ClasspathResourceIndex index = ClasspathResourceIndex.build( List.of( classesDirectory ) );
+
+		assertTrue( index.resourceWithPath( "webserver-resources/../../secret.txt" ).isEmpty() );
+		assertTrue( index.resourceWithPath( "../secret.txt" ).isEmpty() );
+	}
+
+	@Test
+	public void deletedFilesAreNotFound( @TempDir final Path directory ) throws IOException {
+		final Path classesDirectory = Files.createDirectories( directory.resolve( "classes" ) );
+		final Path file = classesDirectory.resolve( "style.css" );
+		Files.writeString( file, "style" );
+
+		final ClasspathResourceIndex index = ClasspathResourceIndex.build( List.of( classesDirectory ) );
+		assertTrue( index.resourceWithPath( "style.css" ).isPresent() );
+
+		Files.delete( file );
+		assertTrue( index.resourceWithPath( "style.css" ).isEmpty() );
+	}
+
+	@Test
+	public void manifestClassPathIsFollowed( @TempDir final Path directory ) throws IOException {
+		final Path referencedJar = directory.resolve( "referenced.jar" );
+		writeJar( referencedJar, "public/index.html", "referenced" );
+
+		final Path jar = directory.resolve( "main.jar" );
+
+		try( final OutputStream out = Files.newOutputStream( jar )) {
+			final Manifest manifest = new Manifest();
+			manifest.getMainAttributes().put( Attributes.Name.MANIFEST_VERSION, "1.0" );
+			manifest.getMainAttributes().put( Attributes.Name.CLASS_PATH, "referenced.jar" );
+			new JarOutputStream( out, manifest ).close();
+		}
+
+		assertEquals( List.of( jar, referencedJar ), ClasspathResourceIndex.classpathElements( jar.toString() ) );
+	}
+}
\ No newline at end of file
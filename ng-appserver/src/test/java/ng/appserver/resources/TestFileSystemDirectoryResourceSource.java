@@ -0,0 +1,152 @@
+package ng.appserver.resources;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ng.appserver.resources.NGResourceLoader.FileSystemDirectoryResourceSource;
+
+public class TestFileSystemDirectoryResourceSource {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void lookups() throws IOException {
+		Files.writeString( directory.resolve( "existing.txt" ), "Hello" );
+		Files.createDirectories( directory.resolve( "sub" ) );
+		Files.writeString( directory.resolve( "sub/nested.txt" ), "Nested" );
+
+		try( final FileSystemDirectoryResourceSource source = new FileSystemDirectoryResourceSource( directory )) {
+			assertArrayEquals( "Hello".getBytes(), source.resourceWithPath( "existing.txt" ).get().bytes() );
+			assertArrayEquals( "Nested".getBytes(), source.resourceWithPath( "sub/nested.txt" ).get().bytes() );
+			assertTrue( source.resourceWithPath( "missing.txt" ).isEmpty() );
+			assertTrue( source.resourceWithPath( "sub" ).isEmpty(), "Directories aren't resources" );
+		}
+
+		try( final FileSystemDirectoryResourceSource source = new FileSystemDirectoryResourceSource( directory.resolve( "sub" ) )) {
+			assertTrue( source.resourceWithPath( "../existing.txt" ).isEmpty(), "Paths escaping the base directory aren't resources" );
+		}
+	}
+
+	@Test
+	public void cachedLookupsAreInvalidatedOnChange() throws Exception {
+		try( final FileSystemDirectoryResourceSource source = new FileSystemDirectoryResourceSource( directory )) {
+			assertTrue( source.resourceWithPath( "sub/created.txt" ).isEmpty() );
+
+			Files.createDirectories( directory.resolve( "sub" ) );
+			Files.writeString( directory.resolve( "sub/created.txt" ), "Created" );
+			assertTrue( awaitPresence( source, "sub/created.txt", true ) );
+
+			Files.delete( directory.resolve( "sub/created.txt" ) );
+			assertTrue( awaitPresence( source, "sub/created.txt", false ) );
+		}
+	}
+
+	@Test
+	public void lookupsAreCachedByNormalizedPath() throws Exception {
+		Files.createDirectories( directory.resolve( "sub" ) );
+
+		try( final FileSystemDirectoryResourceSource source = new FileSystemDirectoryResourceSource( directory )) {
+			assertTrue( source.resourceWithPath( "created.txt" ).isEmpty() );
+			assertTrue( source.resourceWithPath( "./created.txt" ).isEmpty() );
+			assertTrue( source.resourceWithPath( "sub/../created.txt" ).isEmpty() );
+			assertEquals( 1, source.cachedLookupCount() );
+
+			// Invalidating the file's path must invalidate every spelling of it
+			Files.writeString( directory.resolve( "created.txt" ), "Created" );
+			assertTrue( awaitPresence( source, "created.txt", true ) );
+			assertTrue( source.resourceWithPath( "sub/../created.txt" ).isPresent() );
+			assertTrue( source.resourceWithPath( "./created.txt" ).isPresent() );
+		}
+	}
+
+	@Test
+	public void lookupsAreNotCachedAfterClose() throws IOException {
+		final FileSystemDirectoryResourceSource source = new FileSystemDirectoryResourceSource( directory );
+		assertTrue( source.resourceWithPath( "created.txt" ).isEmpty() );
+		source.close();
+
+		// Nobody's watching anymore, so a cached miss would never go away
+		Files.writeString( directory.resolve( "created.txt" ), "Created" );
+		assertTrue( source.resourceWithPath( "created.txt" ).isPresent() );
+		assertEquals( 0, source.cachedLookupCount() );
+	}
+
+	@Test
+	public void missesDontPushOutHits() throws IOException {
+		Files.writeString( directory.resolve( "existing.txt" ), "Hello" );
+
+		try( final FileSystemDirectoryResourceSource source = new FileSystemDirectoryResourceSource( directory )) {
+			assertTrue( source.resourceWithPath( "existing.txt" ).isPresent() );
+
+			for( int i = 0; i < 10_001; i++ ) {
+				assertTrue( source.resourceWithPath( "missing" + i + ".txt" ).isEmpty() );
+			}
+
+			// The misses got cleared once they hit their limit, the hit stayed
+			assertEquals( 2, source.cachedLookupCount() );
+		}
+	}
+
+	@Test
+	public void loaderClosesSources() throws IOException {
+		final FileSystemDirectoryResourceSource source = new FileSystemDirectoryResourceSource( directory );
+		final NGResourceLoader loader = new NGResourceLoader();
+		loader.addResourceSource( "test", StandardResourceType.WebServer, source );
+
+		assertTrue( loader.obtainResource( "test", StandardResourceType.WebServer, "created.txt" ).isEmpty() );
+		loader.close();
+
+		// A closed source doesn't cache, so the file is found right away
+		Files.writeString( directory.resolve( "created.txt" ), "Created" );
+		assertTrue( loader.obtainResource( "test", StandardResourceType.WebServer, "created.txt" ).isPresent() );
+		assertEquals( 0, source.cachedLookupCount() );
+	}
+
+	@Test
+	public void loaderFallsThroughMissingFiles() throws IOException {
+		final Path first = Files.createDirectories( directory.resolve( "first" ) );
+		final Path second = Files.createDirectories( directory.resolve( "second" ) );
+		Files.writeString( first.resolve( "a.txt" ), "first" );
+		Files.writeString( second.resolve( "a.txt" ), "second" );
+		Files.writeString( second.resolve( "b.txt" ), "second" );
+
+		try( final FileSystemDirectoryResourceSource firstSource = new FileSystemDirectoryResourceSource( first );
+				final FileSystemDirectoryResourceSource secondSource = new FileSystemDirectoryResourceSource( second )) {
+			final NGResourceLoader loader = new NGResourceLoader();
+			loader.addResourceSource( "test", StandardResourceType.WebServer, firstSource );
+			loader.addResourceSource( "test", StandardResourceType.WebServer, secondSource );
+
+			assertEquals( "first", new String( loader.obtainResource( "test", StandardResourceType.WebServer, "a.txt" ).get().bytes() ) );
+			assertEquals( "second", new String( loader.obtainResource( "test", StandardResourceType.WebServer, "b.txt" ).get().bytes() ) );
+			assertFalse( loader.obtainResource( "test", StandardResourceType.WebServer, "c.txt" ).isPresent() );
+		}
+	}
+
+	/**
+	 * Change notifications are asynchronous (and on some platforms polled), so we wait a while for them
+	 */
+	private static boolean awaitPresence( final FileSystemDirectoryResourceSource source, final String resourcePath, final boolean present ) throws InterruptedException {
+		for( int i = 0; i < 300; i++ ) {
+			final Optional<NGResource> result = source.resourceWithPath( resourcePath );
+
+			if( result.isPresent() == present ) {
+				return true;
+			}
+
+			Thread.sleep( 100 );
+		}
+
+		return false;
+	}
+}
\ No newline at end of file
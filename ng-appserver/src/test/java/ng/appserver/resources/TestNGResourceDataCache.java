@@ -0,0 +1,104 @@
+package ng.appserver.resources;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import ng.appserver.resources.NGResourceDataCache.ResourceData;
+
+public class TestNGResourceDataCache {
+
+	private static final byte[] TEXT = "body { color: red; }\n".repeat( 100 ).getBytes( StandardCharsets.UTF_8 );
+
+	@Test
+	public void dataIsReadOnce() {
+		final AtomicInteger readCount = new AtomicInteger();
+		final NGResource resource = NGResource.of( () -> {
+			readCount.incrementAndGet();
+			return new ByteArrayInputStream( TEXT );
+		} );
+
+		final NGResourceDataCache cache = new NGResourceDataCache( 1024 * 1024, 1024 * 1024 );
+		final ResourceData data = cache.data( resource, true );
+		assertSame( data, cache.data( resource, true ) );
+		assertEquals( 1, readCount.get() );
+		assertEquals( 1, cache.hits() );
+		assertEquals( 1, cache.misses() );
+	}
+
+	@Test
+	public void compressedVariants() throws IOException {
+		final NGResourceDataCache cache = new NGResourceDataCache( 1024 * 1024, 1024 * 1024 );
+		final ResourceData data = cache.data( NGResource.of( () -> new ByteArrayInputStream( TEXT ) ), true );
+		assertArrayEquals( TEXT, data.bytes() );
+
+		try( final InputStream in = new GZIPInputStream( new ByteArrayInputStream( data.gzipBytes() ) )) {
+			assertArrayEquals( TEXT, in.readAllBytes() );
+		}
+
+		try( final InputStream in = new InflaterInputStream( new ByteArrayInputStream( data.deflateBytes() ) )) {
+			assertArrayEquals( TEXT, in.readAllBytes() );
+		}
+
+		assertEquals( TEXT.length + data.gzipBytes().length + data.deflateBytes().length, cache.size() );
+	}
+
+	@Test
+	public void noVariantsForIncompressibleData() {
+		final NGResourceDataCache cache = new NGResourceDataCache( 1024 * 1024, 1024 * 1024 );
+
+		// Not compressible according to it's type
+		ResourceData data = cache.data( NGResource.of( () -> new ByteArrayInputStream( TEXT ) ), false );
+		assertNull( data.gzipBytes() );
+		assertNull( data.deflateBytes() );
+
+		// Random data doesn't compress, so the variants aren't worth keeping
+		final byte[] random = new byte[1000];
+		new Random( 42 ).nextBytes( random );
+		data = cache.data( NGResource.of( () -> new ByteArrayInputStream( random ) ), true );
+		assertNull( data.gzipBytes() );
+		assertNull( data.deflateBytes() );
+	}
+
+	@Test
+	public void leastRecentlyUsedIsEvicted() {
+		final NGResourceDataCache cache = new NGResourceDataCache( 250, 1000 );
+		final NGResource first = NGResource.of( () -> new ByteArrayInputStream( new byte[100] ) );
+		final NGResource second = NGResource.of( () -> new ByteArrayInputStream( new byte[100] ) );
+		final NGResource third = NGResource.of( () -> new ByteArrayInputStream( new byte[100] ) );
+
+		cache.data( first, false );
+		cache.data( second, false );
+		cache.data( first, false );
+		cache.data( third, false );
+
+		assertEquals( 2, cache.count() );
+		assertEquals( 200, cache.size() );
+
+		// second was the least recently used one, so it's gone
+		cache.data( second, false );
+		assertEquals( 4, cache.misses() );
+	}
+
+	@Test
+	public void largeDataIsNotCached() {
+		final NGResourceDataCache cache = new NGResourceDataCache( 10_000, 100 );
+		final NGResource resource = NGResource.of( () -> new ByteArrayInputStream( TEXT ) );
+		final ResourceData data = cache.data( resource, true );
+		assertArrayEquals( TEXT, data.bytes() );
+		assertNull( data.gzipBytes() );
+		assertEquals( 0, cache.count() );
+	}
+}
\ No newline at end of file
@@ -0,0 +1,32 @@
+package ng.appserver.templating;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+import ng.appserver.templating.parser.NGDeclarationFormatException;
+import ng.appserver.templating.parser.NGHTMLFormatException;
+
+public class TestNGTemplateCache {
+
+	@Test
+	public void identicalSourceIsParsedOnce() throws NGDeclarationFormatException, NGHTMLFormatException {
+		final NGTemplateCache cache = new NGTemplateCache();
+		final String html = "<p><wo:str value=\"$name\" /></p>";
+
+		assertSame( cache.template( html, "" ), cache.template( new String( html ), "" ) );
+		assertEquals( 1, cache.size() );
+
+		assertNotSame( cache.template( html, "" ), cache.template( "<p>Changed</p>", "" ) );
+		assertEquals( 2, cache.size() );
+	}
+
+	@Test
+	public void contentHash() {
+		assertEquals( NGTemplateCache.contentHash( "<p>", "a : b {}" ), NGTemplateCache.contentHash( "<p>", "a : b {}" ) );
+		assertNotEquals( NGTemplateCache.contentHash( "<p>a", "" ), NGTemplateCache.contentHash( "<p>", "a" ) );
+	}
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package ng.appserver.templating;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import ng.appserver.NGContext;
+import ng.appserver.NGElement;
+import ng.appserver.NGRequest;
+import ng.appserver.NGResponse;
+import ng.appserver.elements.NGDynamicGroup;
+import ng.appserver.elements.NGHTMLBareString;
+import ng.appserver.templating.parser.NGDeclarationFormatException;
+import ng.appserver.templating.parser.NGHTMLFormatException;
+
+public class TestNGTemplateParserProxy {
+
+	@Test
+	public void adjacentStaticNodesAreMerged() throws NGDeclarationFormatException, NGHTMLFormatException {
+		final String html = "<p>Þjóðarþýðingin</p><!-- A comment --><p>More</p>";
+		final NGElement element = new NGTemplateParserProxy( html, "" ).parse();
+		final NGHTMLBareString bareString = assertInstanceOf( NGHTMLBareString.class, element );
+		assertEquals( html, bareString.string() );
+	}
+
+	@Test
+	public void staticNodesAreMergedAroundDynamicElements() throws NGDeclarationFormatException, NGHTMLFormatException {
+		final NGElement element = new NGTemplateParserProxy( "<p>a</p><!-- b --><wo:str value=\"c\" /><!-- d --><p>e</p>", "" ).parse();
+		final NGDynamicGroup group = assertInstanceOf( NGDynamicGroup.class, element );
+		assertEquals( 3, group.children().size() );
+
+		final NGResponse response = new NGResponse();
+		group.appendToResponse( response, new NGContext( new NGRequest( "GET", "/", "HTTP/1.1", Map.of(), new byte[0] ) ) );
+		assertEquals( "<p>a</p><!-- b -->c<!-- d --><p>e</p>", response.contentString() );
+	}
+}
\ No newline at end of file
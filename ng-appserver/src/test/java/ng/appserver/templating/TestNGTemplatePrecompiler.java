@@ -0,0 +1,80 @@
+package ng.appserver.templating;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import ng.appserver.NGContext;
+import ng.appserver.NGRequest;
+import ng.appserver.NGResponse;
+import ng.appserver.templating.NGTemplatePrecompiler.NGTemplatePrecompilationException;
+import ng.appserver.templating.parser.model.PNode;
+
+public class TestNGTemplatePrecompiler {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	public void templatesAreCompiledAndArchived() throws IOException, NGTemplatePrecompilationException {
+		Files.createDirectories( directory.resolve( "Traditional.wo" ) );
+		Files.writeString( directory.resolve( "Traditional.wo/Traditional.html" ), "<p><wo:Greeting /></p>" );
+		Files.writeString( directory.resolve( "Traditional.wo/Traditional.wod" ), "Greeting : WOString { value = \"Hello\"; }" );
+		Files.writeString( directory.resolve( "SingleFile.html" ), "<p>Þjóðarþýðingin <wo:str value=\"Hello\" /></p>" );
+		Files.writeString( directory.resolve( "Traditional.html" ), "<p>Shadowed by Traditional.wo</p>" );
+
+		final Map<String, PNode> templates = NGTemplatePrecompiler.compile( List.of( directory, directory.resolve( "nonexistent" ) ) );
+		assertEquals( List.of( "Traditional", "SingleFile" ), List.copyOf( templates.keySet() ) );
+
+		final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+		NGTemplateArchive.write( templates, archive );
+
+		final Map<String, PNode> readTemplates = NGTemplateArchive.read( new ByteArrayInputStream( archive.toByteArray() ) );
+		assertEquals( templates.keySet(), readTemplates.keySet() );
+
+		// Writing what we read must result in an identical archive
+		final ByteArrayOutputStream rewrittenArchive = new ByteArrayOutputStream();
+		NGTemplateArchive.write( readTemplates, rewrittenArchive );
+		assertArrayEquals( archive.toByteArray(), rewrittenArchive.toByteArray() );
+
+		final NGResponse response = new NGResponse();
+		NGTemplateParserProxy.toElement( readTemplates.get( "SingleFile" ) ).appendToResponse( response, new NGContext( new NGRequest( "GET", "/", "HTTP/1.1", Map.of(), new byte[0] ) ) );
+		assertEquals( "<p>Þjóðarþýðingin Hello</p>", response.contentString() );
+	}
+
+	@Test
+	public void errorsAreReported() throws IOException {
+		Files.writeString( directory.resolve( "Broken.html" ), "<wo:str value=\"unbalanced\">" );
+		Files.writeString( directory.resolve( "Fine.html" ), "<p>Fine</p>" );
+
+		final NGTemplatePrecompilationException e = assertThrows( NGTemplatePrecompilationException.class, () -> NGTemplatePrecompiler.compile( List.of( directory ) ) );
+		assertEquals( 1, e.errors().size() );
+		assertTrue( e.errors().getFirst().startsWith( "Broken" ) );
+	}
+
+	@Test
+	public void archivesFromOtherFormatVersionsAreRejected() {
+		assertThrows( IOException.class, () -> NGTemplateArchive.read( new ByteArrayInputStream( new byte[] { 'N', 'G', 'T', 'A', 0, 0, 0, 99 } ) ) );
+		assertThrows( IOException.class, () -> NGTemplateArchive.read( new ByteArrayInputStream( "<html>".getBytes() ) ) );
+	}
+
+	@Test
+	public void corruptLengthsAreRejected() {
+		// Template count, then the length of the first template's name
+		assertThrows( IOException.class, () -> NGTemplateArchive.read( new ByteArrayInputStream( new byte[] { 'N', 'G', 'T', 'A', 0, 0, 0, 1, 0x7F, -1, -1, -1 } ) ) );
+		assertThrows( IOException.class, () -> NGTemplateArchive.read( new ByteArrayInputStream( new byte[] { 'N', 'G', 'T', 'A', 0, 0, 0, 1, 0, 0, 0, 1, 0x7F, -1, -1, -16 } ) ) );
+		assertThrows( IOException.class, () -> NGTemplateArchive.read( new ByteArrayInputStream( new byte[] { 'N', 'G', 'T', 'A', 0, 0, 0, 1, 0, 0, 0, 1, -1, -1, -1, -1 } ) ) );
+	}
+}
\ No newline at end of file
@@ -0,0 +1,202 @@
+package ng.kvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import ng.kvc.NGKeyValueCoding.BindingCache;
+import ng.kvc.NGKeyValueCoding.KVCReadBinding;
+import ng.kvc.NGKeyValueCoding.KVCWriteBinding;
+import ng.kvc.NGKeyValueCoding.UnknownKeyException;
+
+/**
+ * A keyPath that has been split into it's components ahead of time, for repeated evaluation against objects.
+ *
+ * Each key in the path is represented by a node that remembers the class of the last object it was applied to and the binding it resolved for that class.
+ * As long as the same node keeps getting applied to objects of the same class (which is by far the most common case, for example when used by an association in a template)
+ * evaluating the keyPath is just a chain of direct binding invocations. If the class changes, the node resolves a new binding through NGKeyValueCoding's BindingCache.
+ *
+ * Evaluation semantics are the same as NGKeyValueCodingAdditions.Utility.valueForKeyPath()/takeValueForKeyPath()
+ */
+
+public class NGKeyPath {
+
+	/**
+	 * The original keyPath string
+	 */
+	private final String _keyPath;
+
+	/**
+	 * The keyPath's components, in order of evaluation
+	 */
+	private final Node[] _nodes;
+
+	public NGKeyPath( final String keyPath ) {
+		Objects.requireNonNull( keyPath );
+
+		final List<String> keys = keys( keyPath );
+		_keyPath = keyPath;
+		_nodes = new Node[keys.size()];
+
+		for( int i = 0; i < _nodes.length; i++ ) {
+			_nodes[i] = new Node( keys.get( i ) );
+		}
+	}
+
+	/**
+	 * @return The value of the keyPath, resolved against the given object
+	 */
+	public Object valueInObject( final Object object ) {
+		Objects.requireNonNull( object );
+
+		if( object instanceof NGKeyValueCodingAdditions kvcAdditionsObject ) {
+			return kvcAdditionsObject.valueForKeyPath( _keyPath );
+		}
+
+		return valueInObject( object, _nodes.length );
+	}
+
+	/**
+	 * Sets the value of the keyPath in the given object
+	 */
+	public void setValueInObject( final Object value, final Object object ) {
+		Objects.requireNonNull( object );
+
+		if( object instanceof NGKeyValueCodingAdditions kvcAdditionsObject ) {
+			kvcAdditionsObject.takeValueForKeyPath( value, _keyPath );
+			return;
+		}
+
+		// The targeted object is found by resolving the keyPath up to (excluding) the last element
+		// FIXME: Our targeted object could be resolved to null, which is currently a hard fail (same as in NGKeyValueCodingAdditions)
+		final Object targetObject = valueInObject( object, _nodes.length - 1 );
+		_nodes[_nodes.length - 1].setValueInObject( value, Objects.requireNonNull( targetObject ) );
+	}
+
+	/**
+	 * @return The value of the first [nodeCount] nodes of the keyPath, resolved against the given object
+	 */
+	private Object valueInObject( final Object object, final int nodeCount ) {
+		Object result = object;
+
+		for( int i = 0; i < nodeCount; i++ ) {
+			try {
+				result = _nodes[i].valueInObject( result );
+			}
+			catch( UnknownKeyException e ) {
+				// If the key is part of a longer keyPath, we're going to add info on the actual keyPath we're resolving to the thrown exception
+				if( _nodes.length > 1 ) {
+					throw new UnknownKeyException( "While resolving keypath '%s': %s".formatted( _keyPath, e.getMessage() ) );
+				}
+
+				throw e;
+			}
+
+			if( result == null ) {
+				return null;
+			}
+		}
+
+		return result;
+	}
+
+	public String keyPath() {
+		return _keyPath;
+	}
+
+	@Override
+	public String toString() {
+		return "[" + getClass().getSimpleName() + ":" + _keyPath + "]";
+	}
+
+	/**
+	 * @return The keys in the given keyPath. Equivalent to keyPath.split( "\\." ), without the regex.
+	 */
+	private static List<String> keys( final String keyPath ) {
+		final List<String> keys = new ArrayList<>();
+
+		int start = 0;
+		int periodIndex;
+
+		while( (periodIndex = keyPath.indexOf( '.', start )) != -1 ) {
+			keys.add( keyPath.substring( start, periodIndex ) );
+			start = periodIndex + 1;
+		}
+
+		keys.add( keyPath.substring( start ) );
+
+		return keys;
+	}
+
+	/**
+	 * A single key in the keyPath, along with an inline cache of the last resolved read and write bindings
+	 */
+	private static class Node {
+
+		private record ReadCacheEntry( Class<?> objectClass, KVCReadBinding binding ) {}
+
+		private record WriteCacheEntry( Class<?> objectClass, KVCWriteBinding binding ) {}
+
+		private final String _key;
+
+		/**
+		 * The class of the last object a value was read from, along with the binding used to read it
+		 */
+		private volatile ReadCacheEntry _readCacheEntry;
+
+		/**
+		 * The class of the last object a value was written to, along with the binding used to write it
+		 */
+		private volatile WriteCacheEntry _writeCacheEntry;
+
+		private Node( final String key ) {
+			_key = key;
+		}
+
+		private Object valueInObject( final Object object ) {
+			if( object instanceof NGKeyValueCoding kvcObject ) {
+				return kvcObject.valueForKey( _key );
+			}
+
+			ReadCacheEntry entry = _readCacheEntry;
+
+			if( entry == null || entry.objectClass() != object.getClass() ) {
+				final KVCReadBinding binding = BindingCache.readBinding( object, _key );
+
+				if( binding == null ) {
+					// Let the default implementation construct and throw the appropriate exception
+					return NGKeyValueCoding.DefaultImplementation.valueForKey( object, _key );
+				}
+
+				entry = new ReadCacheEntry( object.getClass(), binding );
+				_readCacheEntry = entry;
+			}
+
+			return entry.binding().valueInObject( object );
+		}
+
+		private void setValueInObject( final Object value, final Object object ) {
+			if( object instanceof NGKeyValueCoding kvcObject ) {
+				kvcObject.takeValueForKey( value, _key );
+				return;
+			}
+
+			WriteCacheEntry entry = _writeCacheEntry;
+
+			if( entry == null || entry.objectClass() != object.getClass() ) {
+				final KVCWriteBinding binding = BindingCache.writeBinding( object, _key );
+
+				if( binding == null ) {
+					// Let the default implementation construct and throw the appropriate exception
+					NGKeyValueCoding.DefaultImplementation.takeValueForKey( object, value, _key );
+					return;
+				}
+
+				entry = new WriteCacheEntry( object.getClass(), binding );
+				_writeCacheEntry = entry;
+			}
+
+			entry.binding().setValueInObject( value, object );
+		}
+	}
+}
\ No newline at end of file
@@ -1,5 +1,8 @@
 package ng.kvc;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -7,7 +10,10 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import ng.NGRuntimeException;
 
@@ -20,7 +26,8 @@ import ng.NGRuntimeException;
  * FIXME: Error handling is completely missing // Hugi 2023-03-18
  * FIXME: Bindings should be marked for directionality (read only/set only etc)
  * FIXME: Decide if we're going to go all the way and do validation and error handling
- * FIXME: We should be using cached MethodHandles for improved performance
+ *
+ * Resolved bindings are cached per class and key by BindingCache, and invoke their targets through MethodHandles.
  *
  * Lookup order when searching for a readable binding:
  *
@@ -80,7 +87,7 @@ public interface NGKeyValueCoding {
 			Objects.requireNonNull( object );
 			Objects.requireNonNull( key );
 
-			final KVCReadBinding kvcBinding = readBindingForKey( object, key );
+			final KVCReadBinding kvcBinding = BindingCache.readBinding( object, key );
 
 			if( kvcBinding == null ) {
 				final StringBuilder message = new StringBuilder();
@@ -103,7 +110,7 @@ public interface NGKeyValueCoding {
 		}
 
 		public static void takeValueForKey( final Object object, final Object value, final String key ) {
-			final KVCWriteBinding kvcBinding = writeBindingForKey( object, key );
+			final KVCWriteBinding kvcBinding = BindingCache.writeBinding( object, key );
 
 			if( kvcBinding == null ) {
 				String message = String.format( "Unable to resolve key '%s' against class '%s'", key, object.getClass().getName() );
@@ -114,6 +121,123 @@ public interface NGKeyValueCoding {
 		}
 	}
 
+	/**
+	 * Caches resolved read and write bindings per (class, key).
+	 *
+	 * Resolving a binding means walking the entire lookup order (see the interface documentation) using reflection, which is way too expensive to do on every invocation.
+	 * Since a binding's resolution depends only on the class of the object and the key, we resolve it once and keep it around in a table attached to the class.
+	 * Failed lookups are not cached, since those end up throwing anyway.
+	 *
+	 * When classes get reloaded (for example in development mode) invoke invalidate() or invalidateAll() to make sure stale bindings are discarded.
+	 */
+	public static class BindingCache {
+
+		/**
+		 * Statistics on the cache's usage since the last invocation of invalidateAll()
+		 */
+		public record Statistics( long readHits, long readMisses, long writeHits, long writeMisses ) {}
+
+		private static final LongAdder _readHits = new LongAdder();
+		private static final LongAdder _readMisses = new LongAdder();
+		private static final LongAdder _writeHits = new LongAdder();
+		private static final LongAdder _writeMisses = new LongAdder();
+
+		/**
+		 * Read bindings, keyed by class and then by key.
+		 *
+		 * CHECKME: ClassValue doesn't allow us to clear all entries, so invalidateAll() replaces the whole table instead
+		 */
+		private static volatile ClassValue<Map<String, KVCReadBinding>> _readBindings = bindingTable();
+
+		/**
+		 * Write bindings, keyed by class and then by key.
+		 */
+		private static volatile ClassValue<Map<String, KVCWriteBinding>> _writeBindings = bindingTable();
+
+		/**
+		 * @return A cached read binding for the given object's class and key, null if no binding exists
+		 */
+		public static KVCReadBinding readBinding( final Object object, final String key ) {
+			final Map<String, KVCReadBinding> bindings = _readBindings.get( object.getClass() );
+
+			KVCReadBinding binding = bindings.get( key );
+
+			if( binding != null ) {
+				_readHits.increment();
+				return binding;
+			}
+
+			_readMisses.increment();
+			binding = readBindingForKey( object, key );
+
+			if( binding != null ) {
+				bindings.put( key, binding );
+			}
+
+			return binding;
+		}
+
+		/**
+		 * @return A cached write binding for the given object's class and key, null if no binding exists
+		 */
+		public static KVCWriteBinding writeBinding( final Object object, final String key ) {
+			final Map<String, KVCWriteBinding> bindings = _writeBindings.get( object.getClass() );
+
+			KVCWriteBinding binding = bindings.get( key );
+
+			if( binding != null ) {
+				_writeHits.increment();
+				return binding;
+			}
+
+			_writeMisses.increment();
+			binding = writeBindingForKey( object, key );
+
+			if( binding != null ) {
+				bindings.put( key, binding );
+			}
+
+			return binding;
+		}
+
+		/**
+		 * Discard all cached bindings for the given class
+		 */
+		public static void invalidate( final Class<?> objectClass ) {
+			Objects.requireNonNull( objectClass );
+			_readBindings.remove( objectClass );
+			_writeBindings.remove( objectClass );
+		}
+
+		/**
+		 * Discard all cached bindings and reset statistics
+		 */
+		public static void invalidateAll() {
+			_readBindings = bindingTable();
+			_writeBindings = bindingTable();
+			_readHits.reset();
+			_readMisses.reset();
+			_writeHits.reset();
+			_writeMisses.reset();
+		}
+
+		/**
+		 * @return Usage statistics for the cache
+		 */
+		public static Statistics statistics() {
+			return new Statistics( _readHits.sum(), _readMisses.sum(), _writeHits.sum(), _writeMisses.sum() );
+		}
+
+		private static <E> ClassValue<Map<String, E>> bindingTable() {
+			return new ClassValue<>() {
+				@Override
+				protected Map<String, E> computeValue( Class<?> type ) {
+					return new ConcurrentHashMap<>();
+				}
+			};
+		}
+	}
+
 	/**
 	 * @return A KVC binding for the given class and key.
 	 *
@@ -347,16 +471,77 @@ public interface NGKeyValueCoding {
 		public void setValueInObject( final Object value, final Object object );
 	}
 
+	/**
+	 * @return Signature of the MethodHandles used by read bindings, (Object)Object
+	 */
+	private static MethodType readHandleType() {
+		return MethodType.methodType( Object.class, Object.class );
+	}
+
+	/**
+	 * @return Signature of the MethodHandles used by write bindings, (Object,Object)void
+	 */
+	private static MethodType writeHandleType() {
+		return MethodType.methodType( void.class, Object.class, Object.class );
+	}
+
+	/**
+	 * @return The given handle adapted to [type]. Handles targeting static members get the receiver parameter dropped, so they can be invoked the same way as instance member handles.
+	 */
+	private static MethodHandle adaptHandle( MethodHandle handle, final boolean isStatic, final MethodType type ) {
+		if( isStatic ) {
+			handle = MethodHandles.dropArguments( handle, 0, Object.class );
+		}
+
+		return handle.asType( type );
+	}
+
+	/**
+	 * @return A MethodHandle for invoking the given method, adapted to [type]. Null if the method is not accessible through a MethodHandle.
+	 */
+	private static MethodHandle methodHandle( final Method method, final MethodType type ) {
+		try {
+			return adaptHandle( MethodHandles.lookup().unreflect( method ), Modifier.isStatic( method.getModifiers() ), type );
+		}
+		catch( IllegalAccessException e ) {
+			return null;
+		}
+	}
+
 	public static class MethodReadBinding implements KVCReadBinding {
 
 		private final Method _method;
 
+		/**
+		 * Handle used to invoke the method. Null if the method wasn't accessible, in which case we fall back to plain reflection.
+		 */
+		private final MethodHandle _methodHandle;
+
 		public MethodReadBinding( Method method ) {
 			_method = method;
+			_methodHandle = methodHandle( method, readHandleType() );
 		}
 
 		@Override
 		public Object valueInObject( final Object object ) {
+			if( _methodHandle == null ) {
+				return valueInObjectUsingReflection( object );
+			}
+
+			try {
+				return (Object)_methodHandle.invokeExact( object );
+			}
+			catch( RuntimeException | Error e ) {
+				// Unchecked exceptions thrown by the invoked method are rethrown as is. We're not adding any valuable information at the moment.
+				throw e;
+			}
+			catch( Throwable e ) {
+				// If it's not a RuntimeException, wrap and throw
+				throw new RuntimeException( e );
+			}
+		}
+
+		private Object valueInObjectUsingReflection( final Object object ) {
 			try {
 				return _method.invoke( object );
 			}
@@ -374,36 +559,47 @@ public interface NGKeyValueCoding {
 				throw new RuntimeException( e );
 			}
 		}
-
 	}
 
 	public static class MethodWriteBinding implements KVCWriteBinding {
 
 		protected final Method _method;
 
+		/**
+		 * Handle used to invoke the method. Null if the method wasn't accessible, in which case we fall back to plain reflection.
+		 */
+		private final MethodHandle _methodHandle;
+
 		public MethodWriteBinding( Method method ) {
 			_method = method;
+			_methodHandle = methodHandle( method, writeHandleType() );
 		}
 
 		@Override
 		public void setValueInObject( Object value, Object object ) {
+			if( _methodHandle == null ) {
+				setValueInObjectUsingReflection( value, object );
+				return;
+			}
+
 			try {
-				_method.invoke( object, value );
+				_methodHandle.invokeExact( object, value );
 			}
-			catch( IllegalAccessException e ) {
+			catch( Throwable e ) {
 				// FIXME: Error handling is missing entirely
 				throw new RuntimeException( e );
 			}
-			catch( IllegalArgumentException e ) {
-				// FIXME: Error handling is missing entirely
-				throw new RuntimeException( e );
+		}
+
+		private void setValueInObjectUsingReflection( Object value, Object object ) {
+			try {
+				_method.invoke( object, value );
 			}
-			catch( InvocationTargetException e ) {
+			catch( IllegalAccessException | IllegalArgumentException | InvocationTargetException e ) {
 				// FIXME: Error handling is missing entirely
 				throw new RuntimeException( e );
 			}
 		}
-
 	}
 
 	/**
@@ -413,16 +609,54 @@ public interface NGKeyValueCoding {
 
 		protected final Field _field;
 
+		/**
+		 * Handle for reading the field. Null if the field isn't accessible, in which case we fall back to plain reflection.
+		 */
+		private final MethodHandle _getterHandle;
+
+		/**
+		 * Handle for setting the field. Null if the field isn't writable (for example if it's final), in which case we fall back to plain reflection.
+		 */
+		private final MethodHandle _setterHandle;
+
 		public FieldBinding( Field field ) {
 			_field = field;
+
+			final boolean isStatic = Modifier.isStatic( field.getModifiers() );
+			final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+			MethodHandle getterHandle;
+
+			try {
+				getterHandle = adaptHandle( lookup.unreflectGetter( field ), isStatic, readHandleType() );
+			}
+			catch( IllegalAccessException e ) {
+				getterHandle = null;
+			}
+
+			MethodHandle setterHandle;
+
+			try {
+				setterHandle = adaptHandle( lookup.unreflectSetter( field ), isStatic, writeHandleType() );
+			}
+			catch( IllegalAccessException e ) {
+				setterHandle = null;
+			}
+
+			_getterHandle = getterHandle;
+			_setterHandle = setterHandle;
 		}
 
 		@Override
 		public Object valueInObject( Object object ) {
 			try {
+				if( _getterHandle != null ) {
+					return (Object)_getterHandle.invokeExact( object );
+				}
+
 				return _field.get( object );
 			}
-			catch( SecurityException | IllegalAccessException | IllegalArgumentException e ) {
+			catch( Throwable e ) {
 				// FIXME: Error handling is missing entirely
 				throw new RuntimeException( e );
 			}
@@ -431,9 +665,14 @@ public interface NGKeyValueCoding {
 		@Override
 		public void setValueInObject( Object value, Object object ) {
 			try {
-				_field.set( object, value );
+				if( _setterHandle != null ) {
+					_setterHandle.invokeExact( object, value );
+				}
+				else {
+					_field.set( object, value );
+				}
 			}
-			catch( IllegalArgumentException | IllegalAccessException e ) {
+			catch( Throwable e ) {
 				// FIXME: Error handling is missing entirely
 				throw new RuntimeException( e );
 			}
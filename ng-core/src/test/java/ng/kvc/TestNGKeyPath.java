@@ -0,0 +1,87 @@
+package ng.kvc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import ng.kvc.NGKeyValueCoding.UnknownKeyException;
+
+public class TestNGKeyPath {
+
+	@Test
+	public void valueInObject() {
+		var p = new Person( "Hugi", new Address( "Reykjavík" ) );
+		assertEquals( 4, new NGKeyPath( "name.toLowerCase.toUpperCase.toLowerCase.length" ).valueInObject( p ) );
+		assertEquals( "Reykjavík", new NGKeyPath( "address.city" ).valueInObject( p ) );
+		assertEquals( "Hugi", new NGKeyPath( "name" ).valueInObject( p ) );
+	}
+
+	@Test
+	public void valueInObjectReturnsNullForNullIntermediateValue() {
+		var p = new Person( "Hugi", null );
+		assertNull( new NGKeyPath( "address.city" ).valueInObject( p ) );
+	}
+
+	@Test
+	public void valueInObjectWithChangingClasses() {
+		final NGKeyPath keyPath = new NGKeyPath( "size" );
+		assertEquals( 2, keyPath.valueInObject( List.of( "a", "b" ) ) );
+		assertEquals( 3, keyPath.valueInObject( new ArrayList<>( List.of( "a", "b", "c" ) ) ) );
+		assertEquals( 1, keyPath.valueInObject( List.of( "a" ) ) );
+	}
+
+	@Test
+	public void valueInObjectThrowsUnknownKeyException() {
+		var p = new Person( "Hugi", new Address( "Reykjavík" ) );
+
+		assertThrows( UnknownKeyException.class, () -> {
+			new NGKeyPath( "bla.smu.fne" ).valueInObject( p );
+		} );
+
+		assertThrows( UnknownKeyException.class, () -> {
+			new NGKeyPath( "address.citi" ).valueInObject( p );
+		} );
+
+		assertThrows( UnknownKeyException.class, () -> {
+			new NGKeyPath( "adres" ).valueInObject( p );
+		} );
+	}
+
+	@Test
+	public void setValueInObject() {
+		var p = new Person( "Hugi", new Address( "Reykjavík" ) );
+		final NGKeyPath keyPath = new NGKeyPath( "address.city" );
+
+		keyPath.setValueInObject( "Neskaupstaður", p );
+		assertEquals( "Neskaupstaður", p.address.city );
+
+		keyPath.setValueInObject( null, p );
+		assertNull( p.address.city );
+
+		new NGKeyPath( "name" ).setValueInObject( "Ósk", p );
+		assertEquals( "Ósk", p.name );
+	}
+
+	public static class Person {
+		public String name;
+		public Address address;
+
+		public Person( String name, Address address ) {
+			this.name = name;
+			this.address = address;
+		}
+	}
+
+	public static class Address {
+		public String city;
+
+		public Address( String city ) {
+			this.city = city;
+		}
+	}
+}
\ No newline at end of file
@@ -139,6 +139,46 @@ public class TestNGKeyValueCoding {
 		assertTrue( testProduct.price.compareTo( new BigDecimal( "50.55" ) ) == 0 );
 	}
 
+	@Test
+	public void testBindingCacheReusesResolvedBindings() {
+		NGKeyValueCoding.BindingCache.invalidate( Home.class );
+
+		var home = new Home();
+		home.address1 = "Hraunteigur 23";
+
+		final NGKeyValueCoding.BindingCache.Statistics before = NGKeyValueCoding.BindingCache.statistics();
+
+		assertEquals( "Hraunteigur 23", NGKeyValueCoding.Utility.valueForKey( home, "address1" ) );
+		assertEquals( "Hraunteigur 23", NGKeyValueCoding.Utility.valueForKey( home, "address1" ) );
+
+		final NGKeyValueCoding.BindingCache.Statistics after = NGKeyValueCoding.BindingCache.statistics();
+
+		assertTrue( after.readMisses() - before.readMisses() >= 1 );
+		assertTrue( after.readHits() - before.readHits() >= 1 );
+	}
+
+	@Test
+	public void testBindingCacheInvalidation() {
+		var home = new Home();
+		NGKeyValueCoding.Utility.takeValueForKey( home, "Hraunteigur 23", "address2Method" );
+
+		NGKeyValueCoding.BindingCache.invalidateAll();
+		assertEquals( 0, NGKeyValueCoding.BindingCache.statistics().writeHits() );
+
+		NGKeyValueCoding.Utility.takeValueForKey( home, "Laugavegur 1", "address2Method" );
+		assertEquals( "Laugavegur 1", home.address2 );
+		assertTrue( NGKeyValueCoding.BindingCache.statistics().writeMisses() >= 1 );
+	}
+
+	@Test
+	public void testValueForKeyPrimitiveAndStaticMembers() {
+		var counter = new Counter();
+		NGKeyValueCoding.Utility.takeValueForKey( counter, 5, "count" );
+		assertEquals( 5, NGKeyValueCoding.Utility.valueForKey( counter, "count" ) );
+		assertEquals( "static", NGKeyValueCoding.Utility.valueForKey( counter, "staticValue" ) );
+		assertEquals( "constant", NGKeyValueCoding.Utility.valueForKey( counter, "CONSTANT" ) );
+	}
+
 	public record RecordThatImplementsValueForKey( String name ) implements NGKeyValueCoding {
 
 		@Override
@@ -183,4 +223,13 @@ public class TestNGKeyValueCoding {
 	public static class Product {
 		public BigDecimal price;
 	}
+
+	public static class Counter {
+		public static final String CONSTANT = "constant";
+		public int count;
+
+		public static String staticValue() {
+			return "static";
+		}
+	}
 }
\ No newline at end of file